@@ -0,0 +1,31 @@
+package minesweeper.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler always enabled, so every result also reports the bytes allocated
+ * per operation ({@code gc.alloc.rate.norm}). Accepts the usual JMH command line, e.g. a benchmark name filter
+ * or {@code -p size=EXPERT}.
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the benchmarks selected on the command line.
+     *
+     * @param args the JMH command line arguments
+     * @throws Exception if the command line is invalid or a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,37 @@
+package minesweeper.bench;
+
+import minesweeper.Difficulty;
+
+/**
+ * Board dimensions for a benchmark parameter, either a {@link Difficulty} name or a custom {@code rowsxcolsxmines} size.
+ *
+ * @param rows  the number of rows
+ * @param cols  the number of columns
+ * @param mines the number of mines
+ */
+record BoardSize(int rows, int cols, int mines) {
+    /**
+     * Parses a benchmark parameter such as {@code EXPERT} or {@code 1000x1000x20000}.
+     *
+     * @param param the parameter
+     * @return the board size
+     */
+    static BoardSize parse(String param) {
+        String[] parts = param.split("x");
+        if (parts.length == 3) {
+            return new BoardSize(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+        }
+
+        Difficulty difficulty = Difficulty.valueOf(param);
+        return new BoardSize(difficulty.getRows(), difficulty.getCols(), difficulty.getMines());
+    }
+
+    /**
+     * Gets the index of the space in the middle of the board, used as the first click.
+     *
+     * @return the index of the middle space
+     */
+    int center() {
+        return (this.rows / 2) * this.cols + this.cols / 2;
+    }
+}
@@ -0,0 +1,114 @@
+package minesweeper.bench;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.GameEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Chording on a revealed number whose mines are all flagged, which reveals its other covered neighbors.
+ * A single chord takes nanoseconds, so each invocation chords once on each of a batch of prepared games.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChordBenchmark {
+    private static final int BATCH = 32;
+
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT", "100x100x2000", "1000x1000x200000"})
+    public String size;
+
+    private BoardSize boardSize;
+    private final GameEngine[] engines = new GameEngine[BATCH];
+    private final long[] seeds = new long[BATCH];
+    private final int[] targets = new int[BATCH];
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.boardSize = BoardSize.parse(this.size);
+        // Find seeds whose opening has a number to chord on
+        long seed = 0;
+        for (int k = 0; k < BATCH; k++) {
+            this.engines[k] = new GameEngine(0, 0, 0, 0);
+            do {
+                this.seeds[k] = seed++;
+                this.prepare(k);
+            } while (this.targets[k] < 0);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        for (int k = 0; k < BATCH; k++) {
+            this.prepare(k);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int chord() {
+        int changed = 0;
+        for (int k = 0; k < BATCH; k++) {
+            changed += this.engines[k].chord(this.targets[k]).size();
+        }
+        return changed;
+    }
+
+    /**
+     * Opens one game of the batch and flags the mines around its chord target, so the chord goes through.
+     */
+    private void prepare(int k) {
+        final GameEngine engine = this.engines[k];
+        engine.newGame(this.boardSize.rows(), this.boardSize.cols(), this.boardSize.mines(), this.seeds[k]);
+        engine.reveal(this.boardSize.center());
+        this.targets[k] = findTarget(engine.getBoard());
+        if (this.targets[k] < 0) {
+            return;
+        }
+
+        final Board board = engine.getBoard();
+        forEachNeighbor(board, this.targets[k], index -> {
+            if (board.isMine(index)) {
+                engine.toggleFlag(index);
+            }
+        });
+    }
+
+    /**
+     * Finds a revealed number next to a covered space that is not a mine.
+     */
+    private static int findTarget(Board board) {
+        for (int index = 0; index < board.getSize(); index++) {
+            if (!board.isRevealed(index) || board.getAdjacentMines(index) == 0) {
+                continue;
+            }
+            int[] safeCovered = {0};
+            forEachNeighbor(board, index, n -> {
+                if (!board.isRevealed(n) && !board.isMine(n)) {
+                    safeCovered[0]++;
+                }
+            });
+            if (safeCovered[0] > 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static void forEachNeighbor(Board board, int index, IntConsumer action) {
+        int row = board.row(index);
+        int col = board.col(index);
+        for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, board.getRows() - 1); i++) {
+            for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, board.getCols() - 1); j++) {
+                if (i != row || j != col) {
+                    action.accept(board.index(i, j));
+                }
+            }
+        }
+    }
+}
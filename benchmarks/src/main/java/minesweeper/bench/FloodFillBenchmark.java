@@ -0,0 +1,63 @@
+package minesweeper.bench;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.FloodFill;
+import minesweeper.engine.IntList;
+import minesweeper.engine.MinePlacer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The opening revealed by the first click. The custom sizes are sparse, so the opening covers most of the board.
+ * Each invocation opens a batch of boards, so the small boards are not measured in the time it takes to read
+ * the clock.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FloodFillBenchmark {
+    private static final int BATCH = 32;
+
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT", "100x100x100", "1000x1000x2000"})
+    public String size;
+
+    private BoardSize boardSize;
+    private final Board[] boards = new Board[BATCH];
+    private final MinePlacer minePlacer = new MinePlacer();
+    private final FloodFill floodFill = new FloodFill();
+    private final IntList revealed = new IntList();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.boardSize = BoardSize.parse(this.size);
+        for (int k = 0; k < BATCH; k++) {
+            this.boards[k] = new Board(0, 0);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void placeMines() {
+        // Same board every time, so each reveal opens the same opening
+        for (Board board : this.boards) {
+            board.reset(this.boardSize.rows(), this.boardSize.cols());
+            this.minePlacer.place(board, this.boardSize.mines(), this.boardSize.rows() / 2, this.boardSize.cols() / 2,
+                    new SplittableRandom(42));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int reveal() {
+        int opened = 0;
+        for (Board board : this.boards) {
+            this.revealed.clear();
+            opened += this.floodFill.reveal(board, this.boardSize.center(), this.revealed);
+        }
+        return opened;
+    }
+}
@@ -0,0 +1,57 @@
+package minesweeper.bench;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.GameEngine;
+import minesweeper.engine.IntList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the spaces to show when a game is lost, unflagged mines and wrong flags, with
+ * {@link GameEngine#findMissedSpaces(IntList, IntList)} as {@code Controller.setGameOver()} does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameOverBenchmark {
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT", "100x100x2000", "1000x1000x200000"})
+    public String size;
+
+    private final GameEngine engine = new GameEngine(0, 0, 0, 0);
+    private final IntList hiddenMines = new IntList();
+    private final IntList wrongFlags = new IntList();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BoardSize boardSize = BoardSize.parse(this.size);
+        this.engine.newGame(boardSize.rows(), boardSize.cols(), boardSize.mines(), 1);
+        this.engine.reveal(boardSize.center());
+
+        // Flag half of the mines and as many covered spaces at random, about half of them wrong
+        final Board board = this.engine.getBoard();
+        SplittableRandom random = new SplittableRandom(2);
+        IntList mines = this.engine.getMineIndices();
+        for (int k = 0; k < mines.size(); k += 2) {
+            this.engine.toggleFlag(mines.get(k));
+        }
+        for (int k = 0; k < mines.size() / 2; k++) {
+            int index = random.nextInt(board.getSize());
+            if (!board.isRevealed(index) && !board.isFlagged(index)) {
+                this.engine.toggleFlag(index);
+            }
+        }
+    }
+
+    @Benchmark
+    public int findMissedSpaces() {
+        this.hiddenMines.clear();
+        this.wrongFlags.clear();
+        this.engine.findMissedSpaces(this.hiddenMines, this.wrongFlags);
+        return this.hiddenMines.size() + this.wrongFlags.size();
+    }
+}
@@ -0,0 +1,73 @@
+package minesweeper.bench;
+
+import minesweeper.Difficulty;
+import minesweeper.HighScore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reading and writing the high score file. The file is kept in a temporary directory, so the high scores
+ * in the working directory are never touched.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HighScoreBenchmark {
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("highscore-benchmark");
+        HighScore.setFile(this.directory.resolve(HighScore.FILENAME));
+
+        HighScore.highScores.clear();
+        for (Difficulty difficulty : Difficulty.values()) {
+            HighScore.addHighScore("Benchmark", 10 + difficulty.ordinal(), difficulty);
+        }
+        HighScore.writeHighScores();
+        HighScore.flushHighScores();
+    }
+
+    @Benchmark
+    public List<HighScore> read() {
+        HighScore.readHighScores();
+        return HighScore.highScores;
+    }
+
+    /**
+     * A save as the game makes it, which only hands the new contents to the background writer.
+     */
+    @Benchmark
+    public void write() {
+        HighScore.writeHighScores();
+    }
+
+    /**
+     * A save including the atomic write of the file itself.
+     */
+    @Benchmark
+    public void writeAndFlush() {
+        HighScore.writeHighScores();
+        HighScore.flushHighScores();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        HighScore.flushHighScores();
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(this.directory);
+    }
+}
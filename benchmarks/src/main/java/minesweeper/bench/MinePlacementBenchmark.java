@@ -0,0 +1,58 @@
+package minesweeper.bench;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.IntList;
+import minesweeper.engine.MinePlacer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mine placement around the first click on a cleared board. Each invocation places the mines on a batch of boards,
+ * so the small boards are not measured in the time it takes to read the clock.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MinePlacementBenchmark {
+    private static final int BATCH = 32;
+
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT", "100x100x2000", "1000x1000x200000"})
+    public String size;
+
+    private BoardSize boardSize;
+    private final Board[] boards = new Board[BATCH];
+    private final MinePlacer minePlacer = new MinePlacer();
+    private long seed = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.boardSize = BoardSize.parse(this.size);
+        for (int k = 0; k < BATCH; k++) {
+            this.boards[k] = new Board(this.boardSize.rows(), this.boardSize.cols());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clear() {
+        for (Board board : this.boards) {
+            board.clear();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int place() {
+        int placed = 0;
+        for (Board board : this.boards) {
+            IntList mines = this.minePlacer.place(board, this.boardSize.mines(), this.boardSize.rows() / 2, this.boardSize.cols() / 2,
+                    new SplittableRandom(this.seed++));
+            placed += mines.size();
+        }
+        return placed;
+    }
+}
@@ -0,0 +1,52 @@
+package minesweeper.bench;
+
+import minesweeper.engine.GameEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starting a new game on the same engine after the previous one was played, as the smiley face does.
+ * Each invocation resets a batch of engines, so the small boards are not measured in the time it takes to read
+ * the clock.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResetBenchmark {
+    private static final int BATCH = 32;
+
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT", "100x100x2000", "1000x1000x200000"})
+    public String size;
+
+    private BoardSize boardSize;
+    private final GameEngine[] engines = new GameEngine[BATCH];
+    private long seed = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.boardSize = BoardSize.parse(this.size);
+        for (int k = 0; k < BATCH; k++) {
+            this.engines[k] = new GameEngine(this.boardSize.rows(), this.boardSize.cols(), this.boardSize.mines(), this.seed++);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void play() {
+        for (GameEngine engine : this.engines) {
+            engine.reveal(this.boardSize.center());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public GameEngine[] newGame() {
+        for (GameEngine engine : this.engines) {
+            engine.newGame(this.boardSize.rows(), this.boardSize.cols(), this.boardSize.mines(), this.seed++);
+        }
+        return this.engines;
+    }
+}
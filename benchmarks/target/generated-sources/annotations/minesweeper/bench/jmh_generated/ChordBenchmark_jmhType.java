@@ -0,0 +1,4 @@
+package minesweeper.bench.jmh_generated;
+public class ChordBenchmark_jmhType extends ChordBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package minesweeper.bench.jmh_generated;
+public class FloodFillBenchmark_jmhType extends FloodFillBenchmark_jmhType_B3 {
+}
+
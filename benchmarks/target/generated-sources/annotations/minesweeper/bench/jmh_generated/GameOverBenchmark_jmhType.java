@@ -0,0 +1,4 @@
+package minesweeper.bench.jmh_generated;
+public class GameOverBenchmark_jmhType extends GameOverBenchmark_jmhType_B3 {
+}
+
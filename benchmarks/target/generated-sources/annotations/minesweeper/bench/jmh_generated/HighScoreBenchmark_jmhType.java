@@ -0,0 +1,4 @@
+package minesweeper.bench.jmh_generated;
+public class HighScoreBenchmark_jmhType extends HighScoreBenchmark_jmhType_B3 {
+}
+
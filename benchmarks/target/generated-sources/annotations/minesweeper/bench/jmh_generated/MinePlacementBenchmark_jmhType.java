@@ -0,0 +1,4 @@
+package minesweeper.bench.jmh_generated;
+public class MinePlacementBenchmark_jmhType extends MinePlacementBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,145 @@
+package minesweeper;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Supplier;
+
+/**
+ * Writes a file on a background thread, so saving high scores or statistics never blocks the JavaFX thread.
+ *
+ * <p>Only the latest contents are kept, so several saves made while a write is in progress are batched
+ * into one write. Each write goes to a temporary file that is synced and then renamed over the file,
+ * so a crash leaves either the old file or the new one, never a partly written one.</p>
+ */
+final class BackgroundFileWriter {
+    private final Path file;
+    private final Path temp;
+    private final Thread thread;
+    private Supplier<byte[]> pending; // Produces the contents still to be written, or null if the file is up to date
+    private boolean writing = false;
+
+    /**
+     * Constructor for the BackgroundFileWriter class. Pending contents are also written when the JVM exits.
+     *
+     * @param file the file to write
+     */
+    BackgroundFileWriter(Path file) {
+        this.file = file;
+        this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+        this.thread = new Thread(this::run, "writer-" + file.getFileName());
+        this.thread.setDaemon(true);
+        this.thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+    }
+
+    /**
+     * Gets the temporary file writes go to before being renamed over the file.
+     *
+     * @return the temporary file
+     */
+    Path getTemp() {
+        return this.temp;
+    }
+
+    /**
+     * Queues new text for the file, replacing any contents not written yet.
+     *
+     * @param contents the new contents
+     */
+    void submit(String contents) {
+        this.submit(contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Queues new contents for the file, replacing any contents not written yet.
+     *
+     * @param contents the new contents
+     */
+    void submit(byte[] contents) {
+        this.submit(() -> contents);
+    }
+
+    /**
+     * Queues contents that are only encoded on the writer thread, right before they are written.
+     * Data that changes often can be submitted after every change, and is only encoded once per write.
+     * The supplier must synchronize with the code changing the data itself.
+     *
+     * @param contents encodes the new contents
+     */
+    synchronized void submit(Supplier<byte[]> contents) {
+        this.pending = contents;
+        this.notifyAll();
+    }
+
+    /**
+     * Waits until every submitted contents have been written.
+     */
+    synchronized void flush() {
+        boolean interrupted = false;
+        while (this.pending != null || this.writing) {
+            try {
+                this.wait();
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Supplier<byte[]> contents;
+            synchronized (this) {
+                while (this.pending == null) {
+                    try {
+                        this.wait();
+                    }
+                    catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                contents = this.pending;
+                this.pending = null;
+                this.writing = true;
+            }
+
+            try {
+                this.write(contents.get());
+            }
+            catch (IOException e) {
+                e.printStackTrace();
+            }
+            finally {
+                synchronized (this) {
+                    this.writing = false;
+                    this.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the contents to the temporary file, syncs it to disk and renames it over the file.
+     */
+    private void write(byte[] contents) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(this.temp.toFile())) {
+            out.write(contents);
+            out.getFD().sync();
+        }
+
+        try {
+            Files.move(this.temp, this.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(this.temp, this.file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
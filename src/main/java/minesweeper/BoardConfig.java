@@ -0,0 +1,168 @@
+package minesweeper;
+
+/**
+ * The size and mine count of a board: one of the fixed {@link Difficulty} levels, or a custom board
+ * of up to {@link #MAX_SIDE} by {@link #MAX_SIDE} spaces.
+ *
+ * <p>High scores, leaderboards and statistics are kept per difficulty, so custom games are archived as replays
+ * but not ranked. Large custom boards are always drawn on a canvas that shows a scrollable part of the board.</p>
+ *
+ * @param name       the name shown to the player
+ * @param rows       the number of rows
+ * @param cols       the number of columns
+ * @param mines      the number of mines
+ * @param difficulty the difficulty level, or null for a custom board
+ */
+public record BoardConfig(String name, int rows, int cols, int mines, Difficulty difficulty) {
+    /**
+     * The largest number of rows or columns of a custom board.
+     */
+    public static final int MAX_SIDE = 2000;
+
+    /**
+     * The largest custom board shown in full, with one node per space if the grid renderer is chosen.
+     * Anything larger is drawn on a scrollable canvas.
+     */
+    public static final int MAX_GRID_SPACES = 32 * 32;
+
+    /**
+     * The largest part of a board shown at once, in pixels. Larger boards are scrolled.
+     */
+    public static final int VIEWPORT_WIDTH = 1200;
+    public static final int VIEWPORT_HEIGHT = 760;
+
+    private static final int MIN_TILE_SIZE = 16;
+    private static final int MAX_TILE_SIZE = 30;
+    private static final int WINDOW_MARGIN_WIDTH = 81; // Borders and padding around the board
+    private static final int WINDOW_MARGIN_HEIGHT = 169; // Header, borders and padding around the board
+
+    /**
+     * Gets the configuration of a difficulty level.
+     *
+     * @param difficulty the difficulty level
+     * @return the configuration
+     */
+    public static BoardConfig of(Difficulty difficulty) {
+        return new BoardConfig(difficulty.getName(), difficulty.getRows(), difficulty.getCols(), difficulty.getMines(), difficulty);
+    }
+
+    /**
+     * Creates the configuration of a custom board.
+     *
+     * @param rows  the number of rows, from 1 to {@link #MAX_SIDE}
+     * @param cols  the number of columns, from 1 to {@link #MAX_SIDE}
+     * @param mines the number of mines, leaving room for the 3x3 safe zone of the first click
+     * @return the configuration
+     * @throws IllegalArgumentException if the size or the number of mines is out of range
+     */
+    public static BoardConfig custom(int rows, int cols, int mines) {
+        if (rows < 1 || cols < 1 || rows > MAX_SIDE || cols > MAX_SIDE) {
+            throw new IllegalArgumentException("Board size must be between 1x1 and " + MAX_SIDE + "x" + MAX_SIDE + ": " + rows + "x" + cols);
+        }
+        int maxMines = rows * cols - Math.min(rows, 3) * Math.min(cols, 3);
+        if (mines < 0 || mines > maxMines) {
+            throw new IllegalArgumentException("Number of mines must be between 0 and " + maxMines + ": " + mines);
+        }
+        return new BoardConfig("Custom " + rows + "x" + cols, rows, cols, mines, null);
+    }
+
+    /**
+     * Converts a string such as {@code "Expert"} or {@code "2000x2000x600000"} (rows, columns and mines)
+     * to a configuration.
+     *
+     * @param s the string representation of the board
+     * @return the configuration, or null if the string is neither a difficulty nor a valid custom board
+     */
+    public static BoardConfig fromString(String s) {
+        Difficulty difficulty = Difficulty.fromString(s);
+        if (difficulty != null) {
+            return of(difficulty);
+        }
+
+        String[] parts = s.trim().toLowerCase().split("x");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            return custom(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()), Integer.parseInt(parts[2].trim()));
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if this is a custom board rather than one of the difficulty levels.
+     *
+     * @return true for a custom board
+     */
+    public boolean isCustom() {
+        return this.difficulty == null;
+    }
+
+    /**
+     * Gets the total number of spaces on the board.
+     *
+     * @return the number of spaces
+     */
+    public int getTotalSpaces() {
+        return this.rows * this.cols;
+    }
+
+    /**
+     * Gets the size of each tile. Custom boards use the largest size that fits the window,
+     * but never less than {@value #MIN_TILE_SIZE} pixels; the rest of the board is scrolled to.
+     *
+     * @return the size of each tile in pixels
+     */
+    public int getTileSize() {
+        if (this.difficulty != null) {
+            return this.difficulty.getTileSize();
+        }
+        int fit = Math.min(VIEWPORT_WIDTH / this.cols, VIEWPORT_HEIGHT / this.rows) - 2;
+        return Math.max(MIN_TILE_SIZE, Math.min(MAX_TILE_SIZE, fit));
+    }
+
+    /**
+     * Checks if the board is too large to show in full and needs a scrollable canvas.
+     *
+     * @return true if the board must be drawn on a canvas
+     */
+    public boolean needsViewport() {
+        return this.difficulty == null && this.getTotalSpaces() > MAX_GRID_SPACES;
+    }
+
+    /**
+     * Gets the width of the window for this board.
+     *
+     * @return the width in pixels
+     */
+    public int getScreenWidth() {
+        if (this.difficulty != null) {
+            return this.difficulty.getScreenWidth();
+        }
+        return Math.max(310, Math.min(VIEWPORT_WIDTH, this.cols * (this.getTileSize() + 2)) + WINDOW_MARGIN_WIDTH);
+    }
+
+    /**
+     * Gets the height of the window for this board.
+     *
+     * @return the height in pixels
+     */
+    public int getScreenHeight() {
+        if (this.difficulty != null) {
+            return this.difficulty.getScreenHeight();
+        }
+        return Math.min(VIEWPORT_HEIGHT, this.rows * (this.getTileSize() + 2)) + WINDOW_MARGIN_HEIGHT;
+    }
+
+    /**
+     * Returns the name of the board.
+     *
+     * @return the name of the board
+     */
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
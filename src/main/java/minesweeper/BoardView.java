@@ -0,0 +1,81 @@
+package minesweeper;
+
+import javafx.scene.Node;
+
+/**
+ * A view that displays the Minesweeper board and forwards mouse input on its spaces to the {@link Controller}.
+ */
+public interface BoardView {
+    /**
+     * The available board renderers, selected at startup.
+     */
+    enum Type {
+        /** One ImageView per space inside a GridPane. */
+        GRID,
+        /** The whole board drawn on a single Canvas. */
+        CANVAS;
+
+        /**
+         * Converts a string to a renderer type.
+         *
+         * @param s the string representation of the renderer
+         * @return the matching renderer, or {@link #GRID} if no match is found
+         */
+        public static Type fromString(String s) {
+            if (s == null) {
+                return GRID;
+            }
+            return switch (s.trim().toLowerCase()) {
+                case "canvas" -> CANVAS;
+                default -> GRID;
+            };
+        }
+    }
+
+    /**
+     * Creates a board view of the given type.
+     *
+     * @param type       the renderer to use
+     * @param controller the controller that receives the input
+     * @param rows       the number of rows on the board
+     * @param cols       the number of columns on the board
+     * @param tileSize   the size of each space in pixels
+     * @return the new board view
+     */
+    static BoardView create(Type type, Controller controller, int rows, int cols, int tileSize) {
+        return switch (type) {
+            case GRID -> new GridBoardView(controller, rows, cols, tileSize);
+            case CANVAS -> CanvasBoardView.create(controller, rows, cols, tileSize);
+        };
+    }
+
+    /**
+     * Gets the node to add to the scene graph.
+     *
+     * @return the root node of the view
+     */
+    Node getNode();
+
+    /**
+     * Shows the given tile on a space.
+     *
+     * @param index the index of the space, {@code row * cols + col}
+     * @param tile  the tile to show
+     */
+    void setTile(int index, Tile tile);
+
+    /**
+     * Covers every space again for a new game. Only the spaces that were shown as anything else since the last reset
+     * are touched, so a view kept for reuse resets in time proportional to the last game, not to the board size.
+     */
+    void reset();
+
+    /**
+     * Scrolls the visible part of the board. Views that always show the whole board ignore this.
+     *
+     * @param dx the distance to scroll right in pixels, negative to scroll left
+     * @param dy the distance to scroll down in pixels, negative to scroll up
+     */
+    default void scroll(double dx, double dy) {
+    }
+}
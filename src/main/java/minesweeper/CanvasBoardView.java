@@ -0,0 +1,278 @@
+package minesweeper;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import minesweeper.engine.IntList;
+
+import java.util.Arrays;
+
+/**
+ * Board view that draws every space on a single Canvas from a sprite sheet.
+ * Tile changes only mark the space as dirty; dirty spaces are redrawn together on the next pulse.
+ *
+ * <p>The canvas is never larger than the viewport of {@link BoardConfig}. A larger board is scrolled with the mouse
+ * wheel and only the visible spaces are drawn, so the cost of a frame does not grow with the board. Every space
+ * takes 2 bytes, plus 4 bytes for each space changed since the last reset or the last frame.</p>
+ */
+public class CanvasBoardView implements BoardView {
+    private static final int GAP = 2;
+    static final int SPRITE_SIZE = 32;
+    private static final Color BACKGROUND = Color.web("#999999");
+
+    private static WritableImage spriteSheet;
+
+    private final int rows;
+    private final int cols;
+    private final int tileSize;
+    private final int pitch;
+
+    private final StackPane pane;
+    private final Canvas canvas;
+    private final GraphicsContext graphics;
+    private final AnimationTimer pulse;
+
+    private static final byte DIRTY = 1;
+    private static final byte LISTED = 2; // In the uncovered list
+
+    private final byte[] tiles;
+    private final byte[] marks;
+    private final IntList dirtyQueue = new IntList();
+    private boolean fullRedraw = true;
+    private final IntList uncovered = new IntList(); // Spaces shown as anything but a cover since the last reset
+
+    private final int boardWidth;
+    private final int boardHeight;
+    private int originX = 0; // The board pixel shown at the top left corner of the canvas
+    private int originY = 0;
+
+    private int pressedIndex = -1;
+
+    /**
+     * Creates a canvas board view, forwarding its mouse input to the controller and drawing on every frame.
+     *
+     * @param controller the controller that receives the input
+     * @param rows       the number of rows on the board
+     * @param cols       the number of columns on the board
+     * @param tileSize   the size of each space in pixels
+     * @return the new board view
+     */
+    public static CanvasBoardView create(Controller controller, int rows, int cols, int tileSize) {
+        CanvasBoardView view = new CanvasBoardView(rows, cols, tileSize);
+        // Wired up once the view is fully built, so no handler or frame sees it half initialized
+        view.registerMouseHandlers(controller);
+        view.pulse.start();
+        return view;
+    }
+
+    /**
+     * Constructor for the CanvasBoardView class. Only builds the view, see {@link #create}.
+     *
+     * @param rows     the number of rows on the board
+     * @param cols     the number of columns on the board
+     * @param tileSize the size of each space in pixels
+     */
+    private CanvasBoardView(int rows, int cols, int tileSize) {
+        this.rows = rows;
+        this.cols = cols;
+        this.tileSize = tileSize;
+        this.pitch = tileSize + GAP;
+
+        this.tiles = new byte[rows * cols];
+        this.marks = new byte[rows * cols];
+        Arrays.fill(this.tiles, (byte) Tile.COVER.ordinal());
+
+        this.boardWidth = Math.max(0, cols * this.pitch - GAP);
+        this.boardHeight = Math.max(0, rows * this.pitch - GAP);
+        this.canvas = new Canvas(Math.min(this.boardWidth, BoardConfig.VIEWPORT_WIDTH), Math.min(this.boardHeight, BoardConfig.VIEWPORT_HEIGHT));
+        this.graphics = this.canvas.getGraphicsContext2D();
+        this.pane = new StackPane(this.canvas);
+        this.pane.setStyle("-fx-border-color: #888888 #dfdfdf #dfdfdf #888888; -fx-border-width: 4; -fx-alignment: center;");
+
+        this.pulse = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                draw();
+            }
+        };
+    }
+
+    /**
+     * Maps mouse input on the canvas back to spaces and forwards it to the controller.
+     *
+     * @param controller the controller that receives the input
+     */
+    private void registerMouseHandlers(Controller controller) {
+        this.canvas.setOnMousePressed(event -> {
+            this.pressedIndex = this.indexAt(event.getX(), event.getY());
+            if (event.getButton() == MouseButton.PRIMARY && this.pressedIndex >= 0) {
+                controller.spaceClickDown(this.pressedIndex, true);
+            }
+        });
+        this.canvas.setOnMouseReleased(event -> {
+            if (event.getButton() == MouseButton.PRIMARY && this.pressedIndex >= 0) {
+                controller.spaceClickUp(this.pressedIndex);
+            }
+        });
+        this.canvas.setOnMouseClicked(event -> {
+            boolean leftClick = event.getButton() == MouseButton.PRIMARY;
+            if (!leftClick && event.getButton() != MouseButton.SECONDARY) {
+                return;
+            }
+
+            // Like the GridPane view, a click only counts if it is released on the space it was pressed on
+            int index = this.indexAt(event.getX(), event.getY());
+            if (index < 0 || index != this.pressedIndex) {
+                return;
+            }
+            controller.onSpaceClicked(index, leftClick);
+        });
+        this.canvas.setOnScroll(event -> this.scroll(-event.getDeltaX(), -event.getDeltaY()));
+    }
+
+    /**
+     * Gets the space under the given canvas coordinates.
+     *
+     * @param x the x coordinate on the canvas
+     * @param y the y coordinate on the canvas
+     * @return the index of the space, or -1 if the coordinates are outside the board or on a gap
+     */
+    private int indexAt(double x, double y) {
+        int row = this.cellAt(y + this.originY, this.rows);
+        int col = this.cellAt(x + this.originX, this.cols);
+        return row < 0 || col < 0 ? -1 : row * this.cols + col;
+    }
+
+    private int cellAt(double pos, int count) {
+        if (pos < 0) {
+            return -1;
+        }
+        int p = (int) pos;
+        int cell = p / this.pitch;
+        if (cell >= count || p % this.pitch >= this.tileSize) {
+            return -1;
+        }
+        return cell;
+    }
+
+    @Override
+    public Node getNode() {
+        return this.pane;
+    }
+
+    @Override
+    public void setTile(int index, Tile tile) {
+        this.tiles[index] = (byte) tile.ordinal();
+        if (tile != Tile.COVER && (this.marks[index] & LISTED) == 0) {
+            this.marks[index] |= LISTED;
+            this.uncovered.add(index);
+        }
+        this.markDirty(index);
+        this.pulse.start();
+    }
+
+    @Override
+    public void reset() {
+        for (int k = 0; k < this.uncovered.size(); k++) {
+            int index = this.uncovered.get(k);
+            this.marks[index] &= ~LISTED;
+            this.tiles[index] = (byte) Tile.COVER.ordinal();
+            this.markDirty(index);
+        }
+        this.uncovered.clear();
+        this.pulse.start();
+    }
+
+    @Override
+    public void scroll(double dx, double dy) {
+        int x = (int) Math.max(0, Math.min(this.boardWidth - this.canvas.getWidth(), this.originX + dx));
+        int y = (int) Math.max(0, Math.min(this.boardHeight - this.canvas.getHeight(), this.originY + dy));
+        if (x != this.originX || y != this.originY) {
+            this.originX = x;
+            this.originY = y;
+            this.fullRedraw = true;
+            this.pulse.start();
+        }
+    }
+
+    /**
+     * Redraws every dirty space, or every visible space after a scroll. Spaces outside the viewport
+     * are skipped. Stops the pulse once nothing is left to draw.
+     */
+    private void draw() {
+        if (!this.fullRedraw && this.dirtyQueue.isEmpty()) {
+            this.pulse.stop();
+            return;
+        }
+
+        WritableImage sheet = getSpriteSheet();
+        int firstRow = this.originY / this.pitch;
+        int firstCol = this.originX / this.pitch;
+        int lastRow = Math.min(this.rows - 1, (int) ((this.originY + this.canvas.getHeight()) / this.pitch));
+        int lastCol = Math.min(this.cols - 1, (int) ((this.originX + this.canvas.getWidth()) / this.pitch));
+        if (this.fullRedraw) {
+            this.graphics.setFill(BACKGROUND);
+            this.graphics.fillRect(0, 0, this.canvas.getWidth(), this.canvas.getHeight());
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int col = firstCol; col <= lastCol; col++) {
+                    this.drawTile(sheet, row * this.cols + col);
+                }
+            }
+            this.fullRedraw = false;
+        }
+        for (int i = 0; i < this.dirtyQueue.size(); i++) {
+            int index = this.dirtyQueue.get(i);
+            this.marks[index] &= ~DIRTY;
+            int row = index / this.cols;
+            int col = index - row * this.cols;
+            if (row >= firstRow && row <= lastRow && col >= firstCol && col <= lastCol) {
+                this.drawTile(sheet, index);
+            }
+        }
+        this.dirtyQueue.clear();
+    }
+
+    private void markDirty(int index) {
+        if ((this.marks[index] & DIRTY) == 0) {
+            this.marks[index] |= DIRTY;
+            this.dirtyQueue.add(index);
+        }
+    }
+
+    private void drawTile(WritableImage sheet, int index) {
+        int x = (index % this.cols) * this.pitch - this.originX;
+        int y = (index / this.cols) * this.pitch - this.originY;
+        this.graphics.drawImage(sheet, this.tiles[index] * SPRITE_SIZE, 0, SPRITE_SIZE, SPRITE_SIZE, x, y, this.tileSize, this.tileSize);
+    }
+
+    /**
+     * Gets the sprite sheet with every tile side by side, ordered by {@link Tile#ordinal()}.
+     * Built once from the images in the {@link ImageRegistry}.
+     *
+     * @return the sprite sheet
+     */
+    static WritableImage getSpriteSheet() {
+        if (spriteSheet != null) {
+            return spriteSheet;
+        }
+
+        Tile[] values = Tile.values();
+        WritableImage sheet = new WritableImage(SPRITE_SIZE * values.length, SPRITE_SIZE);
+        for (Tile tile : values) {
+            Image image = tile.getImage();
+            PixelReader reader = image.getPixelReader();
+            int width = Math.min(SPRITE_SIZE, (int) image.getWidth());
+            int height = Math.min(SPRITE_SIZE, (int) image.getHeight());
+            sheet.getPixelWriter().setPixels(tile.ordinal() * SPRITE_SIZE, 0, width, height, reader, 0, 0);
+        }
+        spriteSheet = sheet;
+        return spriteSheet;
+    }
+}
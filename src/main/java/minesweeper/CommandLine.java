@@ -0,0 +1,29 @@
+package minesweeper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the options of the command line tools that come with the game.
+ */
+public final class CommandLine {
+    private CommandLine() {
+    }
+
+    /**
+     * Collects the options in the form {@code --name=value}. Other arguments are ignored, and a later option
+     * replaces an earlier one with the same name.
+     *
+     * @param args the command line arguments
+     * @return the value of each option by name
+     */
+    public static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -1,28 +1,47 @@
 package minesweeper;
 
+import javafx.animation.AnimationTimer;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
-import javafx.scene.image.Image;
+import javafx.application.Platform;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
 import javafx.util.Duration;
-import javafx.util.Pair;
-
-import java.util.*;
+import minesweeper.engine.Board;
+import minesweeper.engine.BoardMetrics;
+import minesweeper.engine.ChangeSet;
+import minesweeper.engine.GameEngine;
+import minesweeper.engine.GameStatus;
+import minesweeper.engine.IntList;
+import minesweeper.generator.BoardPool;
+import minesweeper.generator.NoGuessGenerator;
+import minesweeper.replay.Replay;
+import minesweeper.replay.ReplayArchive;
+import minesweeper.replay.ReplayPlayer;
+import minesweeper.replay.ReplayRecorder;
+import minesweeper.solver.Probabilities;
+import minesweeper.solver.ProbabilityEngine;
+import minesweeper.solver.Solver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Controller class for the Minesweeper game. Handles all the game logic and states.
+ * Controller class for the Minesweeper game. Connects the {@link GameEngine}, which holds the game logic and state,
+ * to the header, the board view and the timer.
  */
 public class Controller {
-    private Difficulty difficulty;
-    private int clickedSpaces = 0;
-    private int flaggedMines = 0;
+    private static final int AUTOSAVE_SECONDS = 5;
+
+    private BoardConfig config;
+    private Difficulty difficulty; // Null on a custom board, whose games are not ranked
     private int time = 0;
 
-    private boolean gameStarted = false;
-    private boolean gameOver = false;
-    private boolean gameWon = false;
     private boolean gamePaused = false;
 
     private final ImageView[] minesLeft = new ImageView[3];
@@ -30,25 +49,56 @@ public class Controller {
     private ImageView smileyImage;
     private VBox highScoreInput;
     private Text highScoreText;
-
-    private final Map<ImageView, Pair<Integer, Integer>> boardMap;
-    private final Map<Pair<Integer, Integer>, ImageView> coordMap;
-
-    private SpaceItem[][] boardState;
-    private Set<Pair<Integer, Integer>> isMineMap;
-    private Random rand;
-    private final Timeline timeline;
+    private Text noGuessNotice; // Shown when a no-guess game fell back to a board that may need guessing
+
+    private BoardView boardView;
+
+    private final GameEngine engine = new GameEngine(0, 0, 0, 0); // Reused between games, only grows for larger boards
+    private final SplittableRandom seeds = new SplittableRandom();
+    private final Solver solver = new Solver(); // Kept up to date after every action, used for hints
+    private final ProbabilityEngine probabilityEngine = new ProbabilityEngine();
+    private String lastGameText = ""; // Metrics of the last finished game, scored on a background thread
+    private String lastRankText = ""; // Where the last game ranks in the leaderboards, if it was a ranked win
+    private int scoredGames = 0;
+    private final IntList hiddenMines = new IntList(); // Reused to show and hide the mines of lost games
+    private final IntList wrongFlags = new IntList();
+    private int hintIndex = -1;
+    private boolean solverStale = false; // Set when moves were undone, the solver is rebuilt before the next hint
+    private boolean practiceMode = false;
+    private boolean practiceGame = false; // Set when undo was enabled during the current game, which is then not ranked
+    private BoardPool boardPool; // Only set in no-guess mode
+    private final ReplayRecorder recorder = new ReplayRecorder();
+    private final GameInput input = new GameInput(this.engine, this.recorder, this.solver);
+    private Replay lastReplay;
+    private ReplayArchive replayArchive; // Every finished game is appended when set
+    private String playerName = System.getProperty("user.name", "");
+    private Leaderboard leaderboard; // Every won game is recorded when set
+    private PlayerStats playerStats; // Every finished game is recorded when set
+    private AnimationTimer replayTimer; // Only set while a replay is playing
+    private BackgroundFileWriter saveWriter; // Games in progress are saved when set
+    private int savedMoves = 0; // The moves of the current game when it was last saved, 0 if it is not saved
+    private final Timeline timeline = new Timeline();
+    private final Timeline autosave = new Timeline();
 
     /**
-     * Constructor for the Controller class.
+     * Creates a controller with its game timer and autosave timer.
+     *
+     * @return the new controller
      */
-    public Controller() {
-        this.boardMap = new HashMap<>(); // Image view stays the same, so no need to reinitialize every game
-        this.coordMap = new HashMap<>();
+    public static Controller create() {
+        Controller controller = new Controller();
+        // The timers call back into the controller, so they are set up once it is fully built
+        controller.timeline.getKeyFrames().add(new KeyFrame(Duration.seconds(1), event -> controller.updateTimeElapsed()));
+        controller.autosave.getKeyFrames().add(new KeyFrame(Duration.seconds(AUTOSAVE_SECONDS), event -> controller.autosave()));
+        return controller;
+    }
 
-        // Initialize the timer
-        this.timeline = new Timeline(new KeyFrame(Duration.seconds(1), event -> this.updateTimeElapsed()));
+    /**
+     * Constructor for the Controller class. Only builds the controller, see {@link #create()}.
+     */
+    private Controller() {
         this.timeline.setCycleCount(Timeline.INDEFINITE);
+        this.autosave.setCycleCount(Timeline.INDEFINITE);
     }
 
     /**
@@ -56,41 +106,34 @@ public class Controller {
      */
     public void setup() {
         // Reset the game state
-        this.clickedSpaces = 0;
-        this.flaggedMines = 0;
-        this.gameStarted = false;
-        this.gameOver = false;
-        this.gameWon = false;
+        this.stopReplay();
         this.gamePaused = false;
-        this.rand = new Random();
         this.timeline.stop();
 
         this.time = -1;
         this.updateTimeElapsed();
-
-        final int rows = this.difficulty.getRows();
-        final int cols = this.difficulty.getCols();
+        this.clearSavedGame();
 
         // Initialize the default board state
-        this.boardState = new SpaceItem[rows][cols];
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                this.boardState[row][col] = new SpaceItem();
-            }
-        }
-
-        this.setNumMinesLeft(this.difficulty.getMines());
-        this.smileyImage.setImage(new Image("file:src/main/resources/images/minesweeper-basic/face-smile.png"));
-        for (ImageView imageView : this.boardMap.keySet()) {
-            imageView.setImage(SpaceItem.getCoverImage());
-        }
+        this.practiceGame = this.practiceMode;
+        this.engine.setUndoEnabled(this.practiceMode);
+        this.engine.newGame(this.config.rows(), this.config.cols(), this.config.mines(), this.seeds.nextLong());
+        this.solver.reset(this.engine.getBoard());
+        this.solverStale = false;
+        this.hintIndex = -1;
+        this.recorder.reset(System.currentTimeMillis());
+
+        this.setNumMinesLeft(this.config.mines());
+        this.smileyImage.setImage(ImageRegistry.getTile(ImageRegistry.FACE_SMILE));
+        this.setNoGuessNoticeVisible(false);
+        this.boardView.reset();
     }
 
     /**
      * Pauses the game if possible.
      */
     public void pauseGame() {
-        if (this.gameOver || this.gameWon || !this.gameStarted || this.gamePaused) {
+        if (this.engine.getStatus() != GameStatus.PLAYING || this.gamePaused) {
             return;
         }
 
@@ -102,7 +145,7 @@ public class Controller {
      * Resumes the game if previously paused.
      */
     public void resumeGame() {
-        if (this.gameOver || this.gameWon || !this.gameStarted || !this.gamePaused) {
+        if (this.engine.getStatus() != GameStatus.PLAYING || !this.gamePaused) {
             return;
         }
 
@@ -111,26 +154,32 @@ public class Controller {
     }
 
     /**
-     * Clears the board map.
+     * Sets the view that displays the board. The view stays the same between games on the same board.
+     *
+     * @param boardView The view of the board.
+     */
+    public void setBoardView(BoardView boardView) {
+        this.boardView = boardView;
+        this.input.setBoardView(boardView);
+    }
+
+    /**
+     * Gets the seed the mines of the current game are placed with.
+     *
+     * @return The seed of the current game.
      */
-    public void clearBoardMap() {
-        this.boardMap.clear();
-        this.coordMap.clear();
+    public long getSeed() {
+        return this.engine.getSeed();
     }
 
     /**
-     * Prints the board to the console.
+     * Sets the seed the mines of the current game are placed with, to replay a known board.
+     * Only has an effect before the first click of the game.
+     *
+     * @param seed The seed to place the mines with.
      */
-    private void printBoard() {
-        final int rows = this.difficulty.getRows();
-        final int cols = this.difficulty.getCols();
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                System.out.print((this.boardState[i][j].isMine() ? "X" : this.boardState[i][j].getNumAdjacentMines()) + " ");
-            }
-            System.out.println();
-        }
-        System.out.println();
+    public void setSeed(long seed) {
+        this.engine.setSeed(seed);
     }
 
     /**
@@ -145,9 +194,9 @@ public class Controller {
         int hundreds = this.time / 100;
         int tens = (this.time % 100) / 10;
         int ones = this.time % 10;
-        this.timeElapsed[0].setImage(new Image("file:src/main/resources/images/digits/" + hundreds + ".png"));
-        this.timeElapsed[1].setImage(new Image("file:src/main/resources/images/digits/" + tens + ".png"));
-        this.timeElapsed[2].setImage(new Image("file:src/main/resources/images/digits/" + ones + ".png"));
+        this.timeElapsed[0].setImage(ImageRegistry.getDigit(hundreds));
+        this.timeElapsed[1].setImage(ImageRegistry.getDigit(tens));
+        this.timeElapsed[2].setImage(ImageRegistry.getDigit(ones));
     }
 
     /**
@@ -156,84 +205,25 @@ public class Controller {
      * @param numMinesLeft The number of mines left.
      */
     private void setNumMinesLeft(int numMinesLeft) {
+        numMinesLeft = Math.max(-99, Math.min(999, numMinesLeft)); // Three digits, as on large custom boards
         int hundreds = numMinesLeft / 100;
         int tens = Math.abs((numMinesLeft % 100) / 10);
         int ones = Math.abs(numMinesLeft % 10);
         if (numMinesLeft < 0) {
-            this.minesLeft[0].setImage(new Image("file:src/main/resources/images/digits/neg.png"));
+            this.minesLeft[0].setImage(ImageRegistry.getNegativeDigit());
         } else {
-            this.minesLeft[0].setImage(new Image("file:src/main/resources/images/digits/" + hundreds + ".png"));
-        }
-        this.minesLeft[1].setImage(new Image("file:src/main/resources/images/digits/" + tens + ".png"));
-        this.minesLeft[2].setImage(new Image("file:src/main/resources/images/digits/" + ones + ".png"));
-    }
-
-    /**
-     * Updates the number of adjacent mines for the given cell with a mine.
-     *
-     * @param row The row of the cell with the mine.
-     * @param col The column of the cell with the mine.
-     */
-    private void updateMineNeighbors(int row, int col) {
-        int maxRow = this.difficulty.getRows();
-        int maxCol = this.difficulty.getCols();
-        for (int i = row - 1; i <= row + 1; i++) {
-            for (int j = col - 1; j <= col + 1; j++) {
-                if (i >= 0 && i < maxRow && j >= 0 && j < maxCol && !(i == row && j == col)) {
-                    if (!this.boardState[i][j].isMine()) {
-                        this.boardState[i][j].addAdjacentMine();
-                    }
-                }
-            }
+            this.minesLeft[0].setImage(ImageRegistry.getDigit(hundreds));
         }
+        this.minesLeft[1].setImage(ImageRegistry.getDigit(tens));
+        this.minesLeft[2].setImage(ImageRegistry.getDigit(ones));
     }
 
     /**
-     * Adds mines to the board.
+     * Starts the timer once the first click has placed the mines.
      */
-    private void addMines(ImageView clickImage) {
-        if (this.isMineMap == null) {
-            this.isMineMap = new HashSet<>();
-        }
-        this.isMineMap.clear();
-
-        Pair<Integer, Integer> clickCoords = this.boardMap.get(clickImage);
-        final int clickRow = clickCoords.getKey();
-        final int clickCol = clickCoords.getValue();
-        for (int i = 0; i < this.difficulty.getMines(); i++) {
-            int row = 0;
-            int col = 0;
-            do {
-                row = this.rand.nextInt(this.difficulty.getRows());
-                col = this.rand.nextInt(this.difficulty.getCols());
-            }
-            while (this.isMineMap.contains(new Pair<>(row, col))
-                    ||
-                    // Ensure that the first click is not a mine and its neighbors are not mines (so the first click is 0)
-                    ((row == clickRow - 1 || row == clickRow || row == clickRow + 1) &&
-                    (col == clickCol - 1 || col == clickCol || col == clickCol + 1)));
-
-            this.isMineMap.add(new Pair<>(row, col));
-            this.boardState[row][col].setMine(true);
-
-            // Update the number of adjacent mines for each space
-            this.updateMineNeighbors(row, col);
-        }
-
+    private void startGame() {
         // Start the timer
         this.timeline.play();
-        printBoard();
-    }
-
-    /**
-     * Adds an ImageView and its coordinates to the board map.
-     *
-     * @param imageView The ImageView to add.
-     * @param coords    The coordinates of the ImageView.
-     */
-    public void addToBoardMap(ImageView imageView, Pair<Integer, Integer> coords) {
-        this.boardMap.put(imageView, coords);
-        this.coordMap.put(coords, imageView);
     }
 
     /**
@@ -266,7 +256,7 @@ public class Controller {
     /**
      * Gets the difficulty level of the Minesweeper game.
      *
-     * @return The difficulty level.
+     * @return The difficulty level, or null on a custom board.
      */
     public Difficulty getDifficulty() {
         return this.difficulty;
@@ -278,7 +268,26 @@ public class Controller {
      * @param difficulty The difficulty level.
      */
     public void setDifficulty(Difficulty difficulty) {
-        this.difficulty = difficulty;
+        this.setBoardConfig(BoardConfig.of(difficulty));
+    }
+
+    /**
+     * Gets the board the Minesweeper game is played on.
+     *
+     * @return The board configuration.
+     */
+    public BoardConfig getBoardConfig() {
+        return this.config;
+    }
+
+    /**
+     * Sets the board the Minesweeper game is played on, either a difficulty level or a custom board.
+     *
+     * @param config The board configuration.
+     */
+    public void setBoardConfig(BoardConfig config) {
+        this.config = config;
+        this.difficulty = config.difficulty();
     }
 
     /**
@@ -300,36 +309,52 @@ public class Controller {
         this.highScoreText = highScoreText;
     }
 
+    /**
+     * Sets the notice shown when no-guess mode could not find a no-guess board in time for the first click.
+     *
+     * @param noGuessNotice The Text to show, hidden until it is needed.
+     */
+    public void setNoGuessNotice(Text noGuessNotice) {
+        this.noGuessNotice = noGuessNotice;
+    }
+
     /**
      * Sets the game state to game over and reveals all mines.
      */
     private void setGameOver() {
-        // Reveal all not found mines
-        this.gameOver = true;
-        for (Map.Entry<ImageView, Pair<Integer, Integer>> entry : this.boardMap.entrySet()) {
-            ImageView imageView = entry.getKey();
-            Pair<Integer, Integer> coords = entry.getValue();
-            SpaceItem space = this.boardState[coords.getKey()][coords.getValue()];
-            if (space.isMine() && !space.isRevealed() && !space.isFlagged()) {
-                imageView.setImage(SpaceItem.getUnrevealedMineImage());
-            }
-            else if (space.isFlagged() && !space.isMine()) {
-                imageView.setImage(new Image("file:src/main/resources/images/minesweeper-basic/mine-misflagged.png"));
-            }
-        }
-        this.smileyImage.setImage(new Image("file:src/main/resources/images/minesweeper-basic/face-dead.png"));
+        this.showMines(this.engine);
+        this.smileyImage.setImage(ImageRegistry.getTile(ImageRegistry.FACE_DEAD));
         this.timeline.stop();
+        this.recordStats(false);
+    }
+
+    /**
+     * Shows the mines that were not found and the wrong flags of a lost game.
+     *
+     * @param engine The engine of the lost game.
+     */
+    private void showMines(GameEngine engine) {
+        this.hiddenMines.clear();
+        this.wrongFlags.clear();
+        engine.findMissedSpaces(this.hiddenMines, this.wrongFlags);
+        for (int k = 0; k < this.hiddenMines.size(); k++) {
+            this.boardView.setTile(this.hiddenMines.get(k), Tile.MINE_GREY);
+        }
+        for (int k = 0; k < this.wrongFlags.size(); k++) {
+            this.boardView.setTile(this.wrongFlags.get(k), Tile.MINE_MISFLAGGED);
+        }
     }
 
     /**
      * Sets the game state to game won.
      */
     private void setGameWon() {
-        this.gameWon = true;
-        this.smileyImage.setImage(new Image("file:src/main/resources/images/minesweeper-basic/face-win.png"));
+        this.smileyImage.setImage(ImageRegistry.getTile(ImageRegistry.FACE_WIN));
         this.timeline.stop();
+        this.recordWin();
+        this.recordStats(true);
 
-        if (HighScore.isHighScore(this.time, this.difficulty)) {
+        if (this.isRanked() && HighScore.isHighScore(this.time, this.difficulty)) {
             this.highScoreText.setText("You beat the high score for " + difficulty.getName() + "! Enter your name:");
             this.highScoreInput.setVisible(true);
         }
@@ -338,204 +363,559 @@ public class Controller {
     /**
      * Handles the event when a space is clicked.
      *
-     * @param imageView The ImageView representing the clicked space.
+     * @param index     The index of the clicked space.
+     * @param leftClick True if the left mouse button was clicked, false otherwise.
      */
-    public void onSpaceClicked(ImageView imageView, boolean leftClick) {
-        if (this.gameOver || this.gameWon) {
+    public void onSpaceClicked(int index, boolean leftClick) {
+        if (this.engine.getStatus().isFinished() || this.replayTimer != null) {
             return;
         }
-        this.spaceClicked(imageView, leftClick);
+        this.spaceClicked(index, leftClick);
     }
 
     /**
      * Handles the event when the mouse is pressed on a space.
      *
-     * @param imageView The ImageView representing the space.
+     * @param index     The index of the space.
      * @param leftClick True if the left mouse button was clicked, false otherwise.
      */
-    protected void spaceClickDown(ImageView imageView, boolean leftClick) {
-        if (this.gameOver || this.gameWon || !leftClick) {
+    protected void spaceClickDown(int index, boolean leftClick) {
+        if (this.engine.getStatus().isFinished() || this.replayTimer != null || !leftClick) {
             return;
         }
-        this.smileyImage.setImage(new Image("file:src/main/resources/images/minesweeper-basic/face-O.png"));
+        this.smileyImage.setImage(ImageRegistry.getTile(ImageRegistry.FACE_O));
 
-        Pair<Integer, Integer> coords = this.boardMap.get(imageView);
-        SpaceItem space = this.boardState[coords.getKey()][coords.getValue()];
-        if (!space.isRevealed() && !space.isFlagged()) {
-            imageView.setImage(SpaceItem.getNumImage(0));
+        final Board board = this.engine.getBoard();
+        if (!board.isRevealed(index) && !board.isFlagged(index)) {
+            this.boardView.setTile(index, Tile.NUM_0);
         }
     }
 
     /**
      * Handles the event when the mouse is released from a space.
      *
-     * @param imageView The ImageView representing the space.
+     * @param index The index of the space.
      */
-    protected void spaceClickUp(ImageView imageView) {
-        if (this.gameOver || this.gameWon) {
+    protected void spaceClickUp(int index) {
+        if (this.engine.getStatus().isFinished() || this.replayTimer != null) {
             return;
         }
-        this.smileyImage.setImage(new Image("file:src/main/resources/images/minesweeper-basic/face-smile.png"));
+        this.smileyImage.setImage(ImageRegistry.getTile(ImageRegistry.FACE_SMILE));
 
-        Pair<Integer, Integer> coords = this.boardMap.get(imageView);
-        SpaceItem space = this.boardState[coords.getKey()][coords.getValue()];
-        if (!space.isRevealed() && !space.isFlagged()) {
-            imageView.setImage(SpaceItem.getCoverImage());
+        final Board board = this.engine.getBoard();
+        if (!board.isRevealed(index) && !board.isFlagged(index)) {
+            this.boardView.setTile(index, Tile.COVER);
         }
     }
 
     /**
      * Handles the logic for placing a flag on a space.
      *
-     * @param space     The space to place the flag on.
-     * @param imageView The ImageView representing the space.
+     * @param index The index of the space.
      */
-    private void handleFlag(SpaceItem space, ImageView imageView) {
+    private void handleFlag(int index) {
         // Don't allow more than 99 flags + mines if trying to place a flag (to avoid going below -99)
-        if (this.flaggedMines >= this.difficulty.getMines() + 99 && !space.isFlagged()) {
+        if (this.engine.getFlaggedSpaces() >= this.engine.getMines() + 99 && !this.engine.getBoard().isFlagged(index)) {
             return;
         }
 
-        space.setFlagged(!space.isFlagged());
-        if (space.isFlagged()) {
-            imageView.setImage(SpaceItem.getFlagImage());
-            this.flaggedMines++;
-        } else {
-            imageView.setImage(SpaceItem.getCoverImage());
-            this.flaggedMines--;
-        }
-        this.setNumMinesLeft(this.difficulty.getMines() - this.flaggedMines);
+        ChangeSet changes = this.input.toggleFlag(index, System.currentTimeMillis());
+        this.applyChanges(changes);
+        this.setNumMinesLeft(this.engine.getMines() - this.engine.getFlaggedSpaces());
     }
 
     /**
-     * Recursively reveals spaces on the board while adjacent spaces have no mines.
+     * Shows the spaces changed by an action of the engine and checks if the game is over or won.
      *
-     * @param row The row of the space to reveal.
-     * @param col The column of the space to reveal.
+     * @param changes The spaces changed by the action.
+     */
+    private void applyChanges(ChangeSet changes) {
+        this.clearHint();
+        this.input.apply(changes);
+
+        if (changes.getStatus().isFinished()) {
+            this.clearSavedGame();
+        }
+        if (changes.getStatus().isFinished() && !this.practiceGame) { // Replays have no undo, so practice games are not kept
+            this.lastReplay = this.recorder.finish(this.engine);
+            this.archiveReplay(this.lastReplay, changes.getStatus() == GameStatus.WON);
+            this.scoreGame(this.lastReplay);
+        }
+        if (changes.getStatus() == GameStatus.LOST) {
+            setGameOver();
+        } else if (changes.getStatus() == GameStatus.WON) {
+            setGameWon();
+        }
+    }
+
+    /**
+     * Shows a covered space that is provably safe as pressed. If the revealed numbers prove none,
+     * the space least likely to be a mine is shown as pressed instead.
      */
-    private void recursiveReveal(int row, int col) {
-        if (row < 0 || row >= this.difficulty.getRows() || col < 0 || col >= this.difficulty.getCols()) {
+    public void showHint() {
+        if (this.engine.getStatus() != GameStatus.PLAYING || this.gamePaused) {
             return;
         }
 
-        SpaceItem space = this.boardState[row][col];
-        if (space.isRevealed() || space.isFlagged()) {
+        this.clearHint();
+        if (this.solverStale) {
+            this.solver.rescan();
+            this.solverStale = false;
+        }
+        this.solver.solve();
+        final Board board = this.engine.getBoard();
+        for (int index = this.solver.nextSafe(); index >= 0; index = this.solver.getKnownSafe().nextSetBit(index + 1)) {
+            if (!board.isFlagged(index)) {
+                this.hintIndex = index;
+                this.boardView.setTile(index, Tile.NUM_0);
+                return;
+            }
+        }
+
+        // Nothing is provably safe, so point at the best guess
+        Probabilities probabilities = this.probabilityEngine.compute(board, this.solver, this.engine.getMines());
+        int index = probabilities.safest();
+        if (index >= 0 && !board.isFlagged(index)) {
+            this.hintIndex = index;
+            this.boardView.setTile(index, Tile.NUM_0);
+        }
+    }
+
+    /**
+     * Covers the hinted space again if it has not been revealed or flagged since.
+     */
+    private void clearHint() {
+        if (this.hintIndex < 0) {
             return;
         }
 
-        if (this.revealSpace(space, this.coordMap.get(new Pair<>(row, col)))) {
+        final Board board = this.engine.getBoard();
+        if (!board.isRevealed(this.hintIndex) && !board.isFlagged(this.hintIndex)) {
+            this.boardView.setTile(this.hintIndex, Tile.COVER);
+        }
+        this.hintIndex = -1;
+    }
+
+    /**
+     * Handles the logic for when a space is clicked. Left clicks reveal a covered space or chord on a revealed number.
+     *
+     * @param index     The index of the clicked space.
+     * @param leftClick True if the left mouse button was clicked, false otherwise.
+     */
+    protected void spaceClicked(int index, boolean leftClick) {
+        if (!leftClick) {
+            this.handleFlag(index);
             return;
         }
 
-        if (space.getNumAdjacentMines() == 0) {
-            recursiveReveal(row - 1, col - 1);
-            recursiveReveal(row - 1, col);
-            recursiveReveal(row - 1, col + 1);
-            recursiveReveal(row, col - 1);
-            recursiveReveal(row, col + 1);
-            recursiveReveal(row + 1, col - 1);
-            recursiveReveal(row + 1, col);
-            recursiveReveal(row + 1, col + 1);
+        boolean firstClick = this.engine.getStatus() == GameStatus.READY;
+        if (firstClick && this.boardPool != null && this.difficulty != null) {
+            this.startNoGuessGame(index);
         }
+        ChangeSet changes = this.input.click(index, System.currentTimeMillis());
+        if (firstClick && this.engine.getStatus() != GameStatus.READY) {
+            this.startGame();
+        }
+        this.applyChanges(changes);
     }
 
     /**
-     * Reveals the space and checks if the game is over or won.
+     * Enables or disables no-guess mode, where every board can be won from the first click without guessing.
      *
-     * @param space The space to check.
-     * @return True if the game is over, false otherwise.
+     * @param boardPool the pool to take boards from, or null to place mines randomly
      */
-    private boolean revealSpace(SpaceItem space, ImageView imageView) {
-        space.setRevealed(true);
-        imageView.setImage(space.getRevealedImage());
+    public void setBoardPool(BoardPool boardPool) {
+        this.boardPool = boardPool;
+    }
 
-        // Check if the game is over
-        if (space.isMine()) {
-            setGameOver();
-            return true;
+    /**
+     * Replaces the board of a game that has not started with a no-guess board for the first click.
+     * Flags placed before the first click are kept. If the pool could not find a no-guess board in time, the game
+     * goes on with a random one and the no-guess notice is shown.
+     *
+     * @param click The index of the first click.
+     */
+    private void startNoGuessGame(int click) {
+        final Board board = this.engine.getBoard();
+        BitSet flags = (BitSet) this.engine.getFlags().clone(); // Starting the new game clears the engine's flags
+
+        NoGuessGenerator.Layout layout = this.boardPool.take(this.difficulty, board.row(click), board.col(click));
+        this.engine.newGame(this.config.rows(), this.config.cols(), this.config.mines(), layout.seed(), layout.safeIndex());
+        for (int index = flags.nextSetBit(0); index >= 0; index = flags.nextSetBit(index + 1)) {
+            this.engine.toggleFlag(index);
         }
+        // The pool gave up and placed the mines randomly, so the player has to know guessing may be needed
+        this.setNoGuessNoticeVisible(layout.validFrom() == 0);
+    }
 
-        // Check if the game is won
-        this.clickedSpaces++;
-        if (this.clickedSpaces == this.difficulty.getTotalClicks()) {
-            setGameWon();
-            return true;
+    /**
+     * Shows or hides the notice that the current board is not guaranteed to be winnable without guessing.
+     *
+     * @param visible True to show the notice, false to hide it.
+     */
+    private void setNoGuessNoticeVisible(boolean visible) {
+        if (this.noGuessNotice != null) {
+            this.noGuessNotice.setVisible(visible);
+            this.noGuessNotice.setManaged(visible);
         }
+    }
 
-        return false;
+    /**
+     * Checks if practice mode is on.
+     *
+     * @return True if moves can be undone, false otherwise.
+     */
+    public boolean isPracticeMode() {
+        return this.practiceMode;
+    }
+
+    /**
+     * Turns practice mode on or off. In practice mode every move can be undone and redone, and games are not
+     * ranked, recorded in the statistics, archived or saved. Turning it on applies to the game in progress
+     * from its next move; turning it off applies from the next game.
+     *
+     * @param practiceMode True to allow undo, false otherwise.
+     */
+    public void setPracticeMode(boolean practiceMode) {
+        this.practiceMode = practiceMode;
+        if (practiceMode) {
+            this.practiceGame = true;
+            this.engine.setUndoEnabled(true);
+            this.clearSavedGame();
+        }
     }
 
     /**
-     * Handles the logic for when a revealed number is clicked.
+     * Checks if the current game counts towards the high scores, leaderboards and statistics.
      *
-     * @param row The row of the clicked space.
-     * @param col The column of the clicked space.
+     * @return True if the game is on a difficulty level and no move could be undone, false otherwise.
      */
-    private void revealedNumberClicked(int row, int col) {
-        if (!this.boardState[row][col].isRevealed() || this.boardState[row][col].getNumAdjacentMines() == 0) {
+    private boolean isRanked() {
+        return this.difficulty != null && !this.practiceGame;
+    }
+
+    /**
+     * Undoes the last move of a practice game, including the move that lost or won it.
+     */
+    public void undo() {
+        if (this.replayTimer != null || this.gamePaused || !this.engine.canUndo()) {
             return;
         }
 
-        int numFlags = 0;
-        int maxRow = this.difficulty.getRows();
-        int maxCol = this.difficulty.getCols();
-        for (int i = row - 1; i <= row + 1; i++) {
-            for (int j = col - 1; j <= col + 1; j++) {
-                if (i >= 0 && i < maxRow && j >= 0 && j < maxCol) {
-                    if (this.boardState[i][j].isFlagged()) {
-                        numFlags++;
-                    }
-                }
-            }
+        GameStatus before = this.engine.getStatus();
+        ChangeSet changes = this.engine.undo();
+        if (before == GameStatus.LOST) {
+            this.hideMines();
         }
-        if (numFlags != this.boardState[row][col].getNumAdjacentMines()) {
+        this.solverStale = true;
+        this.applyChanges(changes);
+        this.setNumMinesLeft(this.engine.getMines() - this.engine.getFlaggedSpaces());
+        this.smileyImage.setImage(ImageRegistry.getTile(ImageRegistry.FACE_SMILE));
+        if (changes.getStatus() == GameStatus.PLAYING) {
+            this.timeline.play();
+        } else {
+            this.timeline.stop();
+        }
+    }
+
+    /**
+     * Redoes the last undone move of a practice game.
+     */
+    public void redo() {
+        if (this.replayTimer != null || this.gamePaused || !this.engine.canRedo()) {
             return;
         }
 
-        // Reveal all adjacent spaces if the correct number of flags are placed
-        for (int i = row - 1; i <= row + 1; i++) {
-            for (int j = col - 1; j <= col + 1; j++) {
-                if (i >= 0 && i < maxRow && j >= 0 && j < maxCol) {
-                    if (!this.boardState[i][j].isRevealed() && !this.boardState[i][j].isFlagged()) {
-                        this.recursiveReveal(i, j);
-                    }
-                }
-            }
+        boolean firstClick = this.engine.getStatus() == GameStatus.READY;
+        ChangeSet changes = this.engine.redo();
+        if (firstClick && this.engine.getStatus() != GameStatus.READY) {
+            this.startGame();
         }
+        this.applyChanges(changes);
+        this.setNumMinesLeft(this.engine.getMines() - this.engine.getFlaggedSpaces());
+    }
 
+    /**
+     * Covers the mines and shows the flags again that {@link #showMines(GameEngine)} showed when the game was lost.
+     */
+    private void hideMines() {
+        this.hiddenMines.clear();
+        this.wrongFlags.clear();
+        this.engine.findMissedSpaces(this.hiddenMines, this.wrongFlags);
+        for (int k = 0; k < this.hiddenMines.size(); k++) {
+            this.boardView.setTile(this.hiddenMines.get(k), Tile.COVER);
+        }
+        BitSet flags = this.engine.getFlags();
+        for (int index = flags.nextSetBit(0); index >= 0; index = flags.nextSetBit(index + 1)) {
+            this.boardView.setTile(index, Tile.FLAG);
+        }
     }
 
     /**
-     * Handles the logic for when a space is clicked.
+     * Saves every game in progress to a file, every few seconds while moves are being made.
      *
-     * @param imageView The ImageView representing the clicked space.
-     * @param leftClick True if the left mouse button was clicked, false otherwise.
+     * @param file The file to save games to.
      */
-    protected void spaceClicked(ImageView imageView, boolean leftClick) {
-        // Get the space at the clicked coordinates
-        Pair<Integer, Integer> coords = this.boardMap.get(imageView);
-        SpaceItem space = this.boardState[coords.getKey()][coords.getValue()];
+    public void setSaveFile(Path file) {
+        this.saveWriter = new BackgroundFileWriter(file);
+        this.autosave.play();
+    }
 
-        if (!leftClick) {
-            this.handleFlag(space, imageView);
+    /**
+     * Saves the game in progress if a move was made since it was last saved.
+     */
+    private void autosave() {
+        if (this.recorder.getMoves() != this.savedMoves) {
+            this.saveGame();
+        }
+    }
+
+    /**
+     * Saves the game in progress, if there is one. Only the board is copied on this thread, in one array copy;
+     * it is bit-packed and written on the writer thread, so saving does not hold up the JavaFX thread.
+     */
+    public void saveGame() {
+        if (this.saveWriter == null || this.engine.getStatus() != GameStatus.PLAYING || this.practiceGame) {
             return;
         }
+        SavedGame game = new SavedGame(this.config, this.time, this.recorder.finish(this.engine), this.engine.snapshot());
+        this.saveWriter.submit(game::encode);
+        this.savedMoves = this.recorder.getMoves();
+    }
+
+    /**
+     * Waits until the last saved game has been written, e.g. before the application exits.
+     */
+    public void flushSavedGame() {
+        if (this.saveWriter != null) {
+            this.saveWriter.flush();
+        }
+    }
+
+    /**
+     * Empties the save file once the saved game has ended or been replaced by a new one.
+     */
+    private void clearSavedGame() {
+        if (this.saveWriter != null && this.savedMoves > 0) {
+            this.saveWriter.submit(new byte[0]);
+        }
+        this.savedMoves = 0;
+    }
+
+    /**
+     * Resumes a saved game. Its board must have been set with {@link #setBoardConfig(BoardConfig)} and set up first.
+     *
+     * @param saved The saved game.
+     */
+    public void restoreGame(SavedGame saved) {
+        ChangeSet changes = this.engine.restore(saved.snapshot());
+        this.solver.reset(this.engine.getBoard());
+        this.input.apply(changes);
+        this.recorder.resume(saved.replay(), System.currentTimeMillis());
+        this.savedMoves = this.recorder.getMoves();
+
+        this.time = saved.time() - 1;
+        this.updateTimeElapsed();
+        this.setNumMinesLeft(this.engine.getMines() - this.engine.getFlaggedSpaces());
+        if (this.engine.getStatus() == GameStatus.PLAYING) {
+            this.timeline.play();
+        }
+    }
+
+    /**
+     * Sets the archive every finished game is appended to.
+     *
+     * @param replayArchive The replay archive.
+     */
+    public void setReplayArchive(ReplayArchive replayArchive) {
+        this.replayArchive = replayArchive;
+    }
+
+    /**
+     * Sets the name finished games are archived under. Defaults to the name of the system user.
+     *
+     * @param playerName The name of the player.
+     */
+    public void setPlayerName(String playerName) {
+        this.playerName = playerName;
+    }
+
+    /**
+     * Gets the name finished games are recorded under.
+     *
+     * @return The name of the player.
+     */
+    public String getPlayerName() {
+        return this.playerName;
+    }
+
+    /**
+     * Sets the statistics every finished game is recorded in.
+     *
+     * @param playerStats The player statistics.
+     */
+    public void setPlayerStats(PlayerStats playerStats) {
+        this.playerStats = playerStats;
+    }
+
+    /**
+     * Records the game that just ended in the player statistics, if there are any.
+     *
+     * @param won True if the game was won.
+     */
+    private void recordStats(boolean won) {
+        if (this.playerStats != null && this.isRanked()) {
+            this.playerStats.record(this.playerName, this.difficulty, won, this.time);
+        }
+    }
 
-        if (space.isFlagged()) {
+    /**
+     * Sets the leaderboard every won game is recorded in.
+     *
+     * @param leaderboard The leaderboard.
+     */
+    public void setLeaderboard(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+
+    /**
+     * Records the game just won in the leaderboard, if there is one, and keeps where it ranks to show with the high scores.
+     */
+    private void recordWin() {
+        if (this.leaderboard == null || !this.isRanked() || this.lastReplay == null) {
             return;
         }
+        // Ranked by the replay, like the games loaded from the archive, so the rank stays the same after a restart
+        int score = Leaderboard.score(this.lastReplay.getPlayMillis());
+        Instant now = Instant.now();
+        StringBuilder ranks = new StringBuilder("Won in " + score + " seconds, rank");
+        for (Leaderboard.Window window : Leaderboard.Window.values()) {
+            ranks.append(window == Leaderboard.Window.DAY ? " #" : ", #")
+                    .append(this.leaderboard.rank(this.difficulty, window, score, now))
+                    .append(' ').append(window.getName().toLowerCase());
+        }
+        this.leaderboard.record(new HighScore(this.playerName, score, this.difficulty), now);
+        this.lastRankText = ranks.toString();
+    }
+
+    /**
+     * Scores how hard the board of the finished game was and how well it was played. Scoring takes time linear in
+     * the board, so it runs on a background thread on a copy of the board, and the result is shown with the
+     * high scores once it is ready.
+     *
+     * @param replay The replay of the game, which gives its clicks and time.
+     */
+    private void scoreGame(Replay replay) {
+        final Board board = this.engine.getBoard().copy();
+        final long millis = replay.getPlayMillis();
+        final int clicks = replay.getMoves();
+        final int game = ++this.scoredGames;
+        this.lastRankText = ""; // Set again by recordWin if the game is a ranked win
+        CompletableFuture.supplyAsync(() -> {
+            BoardMetrics metrics = new BoardMetrics();
+            metrics.compute(board);
+            return String.format("Last game: 3BV %d/%d, ZiNi %d, %d openings%n%.2f 3BV/s, %.0f%% efficiency",
+                    metrics.getSolvedBbbv(), metrics.getBbbv(), metrics.getZini(), metrics.getOpenings(),
+                    metrics.getBbbvPerSecond(millis), 100 * metrics.getEfficiency(clicks));
+        }).thenAcceptAsync(text -> {
+            if (game == this.scoredGames) { // A later game may have finished first
+                this.lastGameText = text;
+            }
+        }, Platform::runLater);
+    }
+
+    /**
+     * Gets the metrics of the last finished game, see {@link BoardMetrics}, and where it ranks if it was a ranked
+     * win. Practice games are not scored.
+     *
+     * @return The metrics as text, or an empty string before the first game is scored.
+     */
+    public String getLastGameText() {
+        if (this.lastRankText.isEmpty() || this.lastGameText.isEmpty()) {
+            return this.lastRankText + this.lastGameText;
+        }
+        return this.lastRankText + System.lineSeparator() + this.lastGameText;
+    }
 
-        // Start the game if first left click
-        if (!this.gameStarted) {
-            this.gameStarted = true;
-            this.addMines(imageView);
+    /**
+     * Appends a finished game to the replay archive, if there is one.
+     *
+     * @param replay The replay of the game.
+     * @param won    True if the game was won.
+     */
+    private void archiveReplay(Replay replay, boolean won) {
+        if (this.replayArchive == null) {
+            return;
+        }
+        try {
+            this.replayArchive.append(replay, this.difficulty, won, this.playerName, Instant.now());
         }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Plays the last finished game back on the board. Input is ignored until it ends or a new game is started.
+     * Only works once the current game has ended and on the board size the replay was recorded on.
+     *
+     * @param speed How many times faster than real time to play, e.g. 1 for real speed.
+     */
+    public void playLastReplay(double speed) {
+        this.playReplay(this.lastReplay, speed);
+    }
 
-        this.revealedNumberClicked(coords.getKey(), coords.getValue());
-        if (space.isRevealed()) {
+    /**
+     * Plays a recorded game back on the board, e.g. one loaded from the {@link ReplayArchive}.
+     * Input is ignored until it ends or a new game is started, which covers the board again. Only works once the
+     * current game has ended, so a fresh board is never drawn over, and on the board size the replay was recorded on.
+     *
+     * @param replay The replay to play.
+     * @param speed  How many times faster than real time to play, e.g. 1 for real speed.
+     */
+    public void playReplay(Replay replay, double speed) {
+        if (replay == null || !this.engine.getStatus().isFinished()
+                || replay.getRows() != this.config.rows() || replay.getCols() != this.config.cols()) {
             return;
         }
 
-        this.recursiveReveal(coords.getKey(), coords.getValue());
+        this.stopReplay();
+        this.boardView.reset();
+        this.smileyImage.setImage(ImageRegistry.getTile(ImageRegistry.FACE_SMILE));
+        ReplayPlayer player = new ReplayPlayer(replay);
+        final long firstMove = replay.getMoves() > 0 ? replay.getTimeMillis(0) : 0;
+        this.replayTimer = new AnimationTimer() {
+            private long start = -1;
+
+            @Override
+            public void handle(long now) {
+                if (this.start < 0) {
+                    this.start = now;
+                }
+                // Skip the wait before the first move
+                long millis = firstMove + (long) ((now - this.start) / 1_000_000.0 * speed);
+                player.advanceTo(millis, (move, changes) -> input.show(player.getEngine().getBoard(), changes));
+                if (player.isFinished()) {
+                    GameStatus status = player.getEngine().getStatus();
+                    if (status == GameStatus.LOST) {
+                        showMines(player.getEngine());
+                    }
+                    smileyImage.setImage(ImageRegistry.getTile(status == GameStatus.LOST ? ImageRegistry.FACE_DEAD
+                            : status == GameStatus.WON ? ImageRegistry.FACE_WIN : ImageRegistry.FACE_SMILE));
+                    stopReplay();
+                }
+            }
+        };
+        this.replayTimer.start();
+    }
+
+    /**
+     * Stops the replay that is playing, if any.
+     */
+    private void stopReplay() {
+        if (this.replayTimer != null) {
+            this.replayTimer.stop();
+            this.replayTimer = null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,196 @@
+package minesweeper;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import minesweeper.engine.Board;
+import minesweeper.engine.ChunkedBoard;
+import minesweeper.engine.GameStatus;
+
+/**
+ * View of an endless game: a canvas over the part of a {@link ChunkedBoard} around the viewport, scrolled with
+ * the mouse wheel or the arrow keys. Spaces are read from the board each time the viewport is drawn,
+ * so the view holds nothing per space and the board decides which chunks stay in memory.
+ */
+public class EndlessBoardView {
+    private static final int TILE_SIZE = 24;
+    private static final int GAP = 2;
+    private static final int PITCH = TILE_SIZE + GAP;
+    private static final Color BACKGROUND = Color.web("#999999");
+
+    private final ChunkedBoard board;
+    private final Runnable onChange;
+    private final StackPane pane;
+    private final Canvas canvas;
+    private final GraphicsContext graphics;
+    private final AnimationTimer pulse;
+    private boolean redraw = true;
+
+    private long originX; // The board pixel shown at the top left corner of the canvas, space 0, 0 is at pixel 0, 0
+    private long originY;
+    private int pressedRow;
+    private int pressedCol;
+
+    /**
+     * Creates a view of an endless board that plays the mouse input on the board and draws on every frame.
+     * The viewport starts centered on the first click, or on space 0, 0 before it.
+     *
+     * @param board    the board to show and play on
+     * @param row      the row to center the viewport on
+     * @param col      the column to center the viewport on
+     * @param onChange called after every move
+     * @return the new view
+     */
+    public static EndlessBoardView create(ChunkedBoard board, int row, int col, Runnable onChange) {
+        EndlessBoardView view = new EndlessBoardView(board, row, col, onChange);
+        view.registerMouseHandlers();
+        view.pulse.start();
+        return view;
+    }
+
+    /**
+     * Constructor for the EndlessBoardView class. Only builds the view, see {@link #create}.
+     *
+     * @param board    the board to show and play on
+     * @param row      the row to center the viewport on
+     * @param col      the column to center the viewport on
+     * @param onChange called after every move
+     */
+    private EndlessBoardView(ChunkedBoard board, int row, int col, Runnable onChange) {
+        this.board = board;
+        this.onChange = onChange;
+        this.canvas = new Canvas(BoardConfig.VIEWPORT_WIDTH, BoardConfig.VIEWPORT_HEIGHT);
+        this.graphics = this.canvas.getGraphicsContext2D();
+        this.pane = new StackPane(this.canvas);
+        this.pane.setStyle("-fx-border-color: #888888 #dfdfdf #dfdfdf #888888; -fx-border-width: 4; -fx-alignment: center;");
+        this.originX = (long) col * PITCH - BoardConfig.VIEWPORT_WIDTH / 2;
+        this.originY = (long) row * PITCH - BoardConfig.VIEWPORT_HEIGHT / 2;
+
+        this.pulse = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                draw();
+            }
+        };
+    }
+
+    /**
+     * Maps mouse input on the canvas to moves on the board.
+     */
+    private void registerMouseHandlers() {
+        this.canvas.setOnMousePressed(event -> {
+            this.pressedRow = this.cellAt(event.getY() + this.originY);
+            this.pressedCol = this.cellAt(event.getX() + this.originX);
+        });
+        this.canvas.setOnMouseClicked(event -> {
+            // A click only counts if it is released on the space it was pressed on
+            int row = this.cellAt(event.getY() + this.originY);
+            int col = this.cellAt(event.getX() + this.originX);
+            if (row != this.pressedRow || col != this.pressedCol) {
+                return;
+            }
+            if (event.getButton() == MouseButton.PRIMARY) {
+                if (this.board.isRevealed(row, col)) {
+                    this.board.chord(row, col);
+                } else {
+                    this.board.reveal(row, col);
+                }
+            } else if (event.getButton() == MouseButton.SECONDARY) {
+                this.board.toggleFlag(row, col);
+            } else {
+                return;
+            }
+            this.onChange.run();
+            this.redraw();
+        });
+        this.canvas.setOnScroll(event -> this.scroll(-event.getDeltaX(), -event.getDeltaY()));
+    }
+
+    /**
+     * Gets the row or column at a board pixel. Gaps count towards the space before them.
+     */
+    private int cellAt(double pos) {
+        return (int) Math.floorDiv((long) Math.floor(pos), PITCH);
+    }
+
+    /**
+     * Gets the node to add to the scene.
+     *
+     * @return the node of the view
+     */
+    public Node getNode() {
+        return this.pane;
+    }
+
+    /**
+     * Scrolls the viewport by the given number of pixels. The board has no edges to stop at.
+     *
+     * @param dx the horizontal distance in pixels
+     * @param dy the vertical distance in pixels
+     */
+    public void scroll(double dx, double dy) {
+        this.originX += (long) dx;
+        this.originY += (long) dy;
+        this.redraw();
+    }
+
+    /**
+     * Stops drawing the board, before it is closed.
+     */
+    public void stop() {
+        this.pulse.stop();
+    }
+
+    private void redraw() {
+        this.redraw = true;
+        this.pulse.start();
+    }
+
+    /**
+     * Draws every space in the viewport after a move or a scroll. Stops the pulse once nothing changed.
+     */
+    private void draw() {
+        if (!this.redraw) {
+            this.pulse.stop();
+            return;
+        }
+
+        WritableImage sheet = CanvasBoardView.getSpriteSheet();
+        boolean lost = this.board.getStatus() == GameStatus.LOST;
+        int firstRow = this.cellAt(this.originY);
+        int firstCol = this.cellAt(this.originX);
+        int lastRow = this.cellAt(this.originY + this.canvas.getHeight());
+        int lastCol = this.cellAt(this.originX + this.canvas.getWidth());
+        this.graphics.setFill(BACKGROUND);
+        this.graphics.fillRect(0, 0, this.canvas.getWidth(), this.canvas.getHeight());
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                Tile tile = tileOf(this.board.get(row, col), lost);
+                double x = (long) col * PITCH - this.originX;
+                double y = (long) row * PITCH - this.originY;
+                int size = CanvasBoardView.SPRITE_SIZE;
+                this.graphics.drawImage(sheet, tile.ordinal() * size, 0, size, size, x, y, TILE_SIZE, TILE_SIZE);
+            }
+        }
+        this.redraw = false;
+    }
+
+    /**
+     * Gets the tile of a space from its packed state. Mines and wrong flags are only shown once the game is lost.
+     */
+    private static Tile tileOf(int state, boolean lost) {
+        boolean mine = (state & Board.MINE) != 0;
+        if ((state & Board.REVEALED) != 0) {
+            return mine ? Tile.MINE_RED : Tile.number(state & Board.ADJACENT_MASK);
+        }
+        if ((state & Board.FLAGGED) != 0) {
+            return lost && !mine ? Tile.MINE_MISFLAGGED : Tile.FLAG;
+        }
+        return lost && mine ? Tile.MINE_GREY : Tile.COVER;
+    }
+}
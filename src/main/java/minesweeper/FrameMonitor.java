@@ -0,0 +1,49 @@
+package minesweeper;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Measures the time between pulses and periodically prints the average and worst frame time, along with the
+ * image cache counters. Used to compare the board renderers.
+ */
+public class FrameMonitor extends AnimationTimer {
+    private static final long REPORT_INTERVAL_NANOS = 5_000_000_000L;
+
+    private final String label;
+    private long lastPulse = 0;
+    private long reportStart = 0;
+    private long frames = 0;
+    private long worstFrame = 0;
+
+    /**
+     * Constructor for the FrameMonitor class.
+     *
+     * @param label the label printed with each report, e.g. the renderer in use
+     */
+    public FrameMonitor(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public void handle(long now) {
+        if (this.lastPulse == 0) {
+            this.lastPulse = now;
+            this.reportStart = now;
+            return;
+        }
+
+        this.worstFrame = Math.max(this.worstFrame, now - this.lastPulse);
+        this.frames++;
+        this.lastPulse = now;
+
+        long elapsed = now - this.reportStart;
+        if (elapsed >= REPORT_INTERVAL_NANOS) {
+            System.out.printf("[%s] %d frames, avg %.2f ms, worst %.2f ms%n", this.label, this.frames,
+                    elapsed / 1_000_000.0 / this.frames, this.worstFrame / 1_000_000.0);
+            System.out.printf("[%s] %s%n", this.label, ImageRegistry.getStatsText());
+            this.reportStart = now;
+            this.frames = 0;
+            this.worstFrame = 0;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package minesweeper;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.ChangeSet;
+import minesweeper.engine.GameEngine;
+import minesweeper.replay.Replay;
+import minesweeper.replay.ReplayRecorder;
+import minesweeper.solver.Solver;
+
+/**
+ * The path every move of the player takes through the {@link Controller}: the engine makes the move, the replay
+ * recorder records it, the solver is updated with the changed spaces and the board view shows them.
+ * Only the header and the timer are left to the controller, so this part needs no running JavaFX.
+ */
+final class GameInput {
+    private final GameEngine engine;
+    private final ReplayRecorder recorder;
+    private final Solver solver;
+    private BoardView boardView;
+
+    /**
+     * Constructor for the GameInput class.
+     *
+     * @param engine   The engine the moves are made on.
+     * @param recorder The recorder the accepted moves are recorded with.
+     * @param solver   The solver kept up to date with the revealed spaces.
+     */
+    GameInput(GameEngine engine, ReplayRecorder recorder, Solver solver) {
+        this.engine = engine;
+        this.recorder = recorder;
+        this.solver = solver;
+    }
+
+    /**
+     * Sets the board view the changed spaces are shown on.
+     *
+     * @param boardView The board view.
+     */
+    void setBoardView(BoardView boardView) {
+        this.boardView = boardView;
+    }
+
+    /**
+     * Reveals a covered space or chords on a revealed number, and records the move if the engine accepts it.
+     *
+     * @param index     The index of the space.
+     * @param nowMillis The current time in milliseconds.
+     * @return The spaces changed by the move.
+     */
+    ChangeSet click(int index, long nowMillis) {
+        int move = this.engine.getBoard().isRevealed(index) ? Replay.CHORD : Replay.REVEAL;
+        ChangeSet changes = this.engine.click(index);
+        if (!changes.isEmpty()) {
+            this.recorder.record(move, index, nowMillis);
+        }
+        return changes;
+    }
+
+    /**
+     * Places or removes a flag, and records the move if the engine accepts it.
+     *
+     * @param index     The index of the space.
+     * @param nowMillis The current time in milliseconds.
+     * @return The spaces changed by the move.
+     */
+    ChangeSet toggleFlag(int index, long nowMillis) {
+        ChangeSet changes = this.engine.toggleFlag(index);
+        if (!changes.isEmpty()) {
+            this.recorder.record(Replay.FLAG, index, nowMillis);
+        }
+        return changes;
+    }
+
+    /**
+     * Updates the solver with the spaces changed on the engine's board and shows them.
+     *
+     * @param changes The spaces changed by a move.
+     */
+    void apply(ChangeSet changes) {
+        this.solver.update(changes);
+        this.show(this.engine.getBoard(), changes);
+    }
+
+    /**
+     * Shows the spaces changed by a move.
+     *
+     * @param board   The board the move was made on.
+     * @param changes The spaces changed by the move.
+     */
+    void show(Board board, ChangeSet changes) {
+        for (int i = 0; i < changes.size(); i++) {
+            int index = changes.get(i);
+            Tile tile;
+            if (board.isRevealed(index)) {
+                tile = SpaceItem.getRevealedTile(board, index);
+            } else if (board.isFlagged(index)) {
+                tile = Tile.FLAG;
+            } else {
+                tile = Tile.COVER;
+            }
+            this.boardView.setTile(index, tile);
+        }
+    }
+}
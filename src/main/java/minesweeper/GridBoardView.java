@@ -0,0 +1,148 @@
+package minesweeper;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.GridPane;
+import minesweeper.engine.IntList;
+
+import java.util.Arrays;
+
+/**
+ * Board view that uses one ImageView per space inside a GridPane.
+ * Tile changes are queued and applied together on the next pulse, so a large opening or a lost game
+ * sets each changed image once per frame no matter how many times it changed in between.
+ */
+public class GridBoardView implements BoardView {
+    private final GridPane gridPane;
+    private final ImageView[] spaces; // Indexed by row * cols + col
+    private final AnimationTimer pulse;
+
+    private final byte[] tiles; // The tile each space shows once pending changes are applied
+    private final boolean[] dirty;
+    private final int[] dirtyQueue;
+    private int dirtyCount = 0;
+    private final IntList uncovered = new IntList(); // Spaces shown as anything but a cover since the last reset
+    private final boolean[] listed;
+
+    /**
+     * Constructor for the GridBoardView class.
+     *
+     * @param controller the controller that receives the input
+     * @param rows       the number of rows on the board
+     * @param cols       the number of columns on the board
+     * @param tileSize   the size of each space in pixels
+     */
+    public GridBoardView(Controller controller, int rows, int cols, int tileSize) {
+        this.gridPane = new GridPane();
+        this.gridPane.setHgap(2);
+        this.gridPane.setVgap(2);
+        this.gridPane.setStyle("-fx-border-color: #888888 #dfdfdf #dfdfdf #888888; -fx-border-width: 4; -fx-alignment: center;");
+
+        // Create a XY grid of images for the game area
+        this.spaces = new ImageView[rows * cols];
+        this.listed = new boolean[rows * cols];
+        this.tiles = new byte[rows * cols];
+        this.dirty = new boolean[rows * cols];
+        this.dirtyQueue = new int[rows * cols];
+        Arrays.fill(this.tiles, (byte) Tile.COVER.ordinal());
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int index = row * cols + col;
+                ImageView imageView = getSpaceView(controller, index, tileSize);
+                this.gridPane.add(imageView, col, row);
+                this.spaces[index] = imageView;
+            }
+        }
+
+        this.pulse = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                applyPending();
+            }
+        };
+    }
+
+    /**
+     * Creates an ImageView for a space on the game board. Its handlers carry the index of the space,
+     * so input never has to look the space up.
+     *
+     * @return The ImageView for the space.
+     */
+    private static ImageView getSpaceView(Controller controller, int index, int size) {
+        ImageView imageView = new ImageView(SpaceItem.getCoverImage());
+        imageView.setFitWidth(size);
+        imageView.setFitHeight(size);
+        imageView.setOnMouseClicked(event -> {
+            boolean leftClick = event.getButton() == MouseButton.PRIMARY;
+            if (!leftClick && event.getButton() != MouseButton.SECONDARY) {
+                return;
+            }
+            controller.onSpaceClicked(index, leftClick);
+        });
+        imageView.setOnMousePressed(event -> {
+            if (event.getButton() == MouseButton.PRIMARY) {
+                controller.spaceClickDown(index, true);
+            }
+        });
+        imageView.setOnMouseReleased(event -> {
+            if (event.getButton() == MouseButton.PRIMARY) {
+                controller.spaceClickUp(index);
+            }
+        });
+        return imageView;
+    }
+
+    @Override
+    public Node getNode() {
+        return this.gridPane;
+    }
+
+    @Override
+    public void setTile(int index, Tile tile) {
+        this.tiles[index] = (byte) tile.ordinal();
+        if (tile != Tile.COVER && !this.listed[index]) {
+            this.listed[index] = true;
+            this.uncovered.add(index);
+        }
+        this.markDirty(index);
+        this.pulse.start();
+    }
+
+    @Override
+    public void reset() {
+        for (int k = 0; k < this.uncovered.size(); k++) {
+            int index = this.uncovered.get(k);
+            this.listed[index] = false;
+            this.tiles[index] = (byte) Tile.COVER.ordinal();
+            this.markDirty(index);
+        }
+        this.uncovered.clear();
+        this.pulse.start();
+    }
+
+    /**
+     * Sets the image of every space changed since the last pulse. Stops the pulse once nothing is pending.
+     */
+    private void applyPending() {
+        if (this.dirtyCount == 0) {
+            this.pulse.stop();
+            return;
+        }
+
+        for (int i = 0; i < this.dirtyCount; i++) {
+            int index = this.dirtyQueue[i];
+            this.spaces[index].setImage(Tile.fromOrdinal(this.tiles[index]).getImage());
+            this.dirty[index] = false;
+        }
+        this.dirtyCount = 0;
+    }
+
+    private void markDirty(int index) {
+        if (!this.dirty[index]) {
+            this.dirty[index] = true;
+            this.dirtyQueue[this.dirtyCount++] = index;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package minesweeper;
 
-import java.io.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -13,6 +17,10 @@ public class HighScore implements Comparable<HighScore> {
     public static final String FILENAME = "highscores.txt";
     public static List<HighScore> highScores = new ArrayList<>();
 
+    private static final String SCORE_SEPARATOR = " seconds by ";
+    private static Path file = Path.of(FILENAME);
+    private static BackgroundFileWriter writer;
+
     private final String name;
     private final int score;
     private final Difficulty difficulty;
@@ -144,27 +152,24 @@ public class HighScore implements Comparable<HighScore> {
     }
 
     /**
-     * Reads the high scores from a file.
+     * Reads the high scores from a file, one line at a time. A temporary file left behind by an interrupted write
+     * is discarded, since the high score file itself is only ever replaced once a write is complete.
      */
     public static void readHighScores() {
-        File file = new File(FILENAME);
         HighScore.highScores.clear();
-        if (!file.exists()) {
-            return;
-        }
-
         try {
-            BufferedReader reader = new BufferedReader(new FileReader(file));
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                // split by any number of spaces
-                String[] parts = line.split("\\s+");
-                if (parts.length == 5) {
-                    HighScore.addHighScore(parts[4].trim(), Integer.parseInt(parts[1]), Difficulty.fromString(parts[0].trim().substring(0, parts[0].length() - 1)));
+            HighScore.flushHighScores();
+            Files.deleteIfExists(HighScore.writer().getTemp());
+            if (!Files.exists(HighScore.file)) {
+                return;
+            }
+
+            try (BufferedReader reader = Files.newBufferedReader(HighScore.file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    HighScore.parseLine(line);
                 }
             }
-            reader.close();
         }
         catch (IOException e) {
             e.printStackTrace();
@@ -174,17 +179,75 @@ public class HighScore implements Comparable<HighScore> {
     }
 
     /**
-     * Writes the high scores to a file.
+     * Parses one line written by {@link #highScoreText()}, e.g. {@code "Expert:       95  seconds by Alice"},
+     * and adds its high score. Lines that do not match are skipped.
+     *
+     * @param line the line to parse
+     */
+    private static void parseLine(String line) {
+        int colon = line.indexOf(':');
+        if (colon < 0) {
+            return;
+        }
+        Difficulty difficulty = Difficulty.fromString(line.substring(0, colon).trim());
+
+        int pos = colon + 1;
+        while (pos < line.length() && line.charAt(pos) == ' ') {
+            pos++;
+        }
+        int score = 0;
+        int digits = 0;
+        while (pos < line.length() && Character.isDigit(line.charAt(pos))) {
+            score = score * 10 + (line.charAt(pos++) - '0');
+            digits++;
+        }
+
+        int by = line.indexOf(SCORE_SEPARATOR, pos);
+        if (difficulty == null || digits == 0 || digits > 9 || by < 0) {
+            return;
+        }
+        HighScore.addHighScore(line.substring(by + SCORE_SEPARATOR.length()).trim(), score, difficulty);
+    }
+
+    /**
+     * Saves the high scores to a file in the background. Returns immediately; saves made while a previous one
+     * is still being written are combined into a single write.
      */
     public static void writeHighScores() {
-        try {
-            BufferedWriter writer = new BufferedWriter(new FileWriter(FILENAME));
-            writer.write(HighScore.highScoreText());
-            writer.close();
+        HighScore.writer().submit(HighScore.highScoreText());
+    }
+
+    /**
+     * Waits until every high score save has been written to the file.
+     */
+    public static void flushHighScores() {
+        HighScore.writer().flush();
+    }
+
+    /**
+     * Sets the file the high scores are read from and saved to, {@link #FILENAME} in the working directory by default.
+     * Saves still pending for the previous file are written to it first.
+     *
+     * @param file the high score file
+     */
+    public static synchronized void setFile(Path file) {
+        if (writer != null) {
+            writer.flush();
+            writer = null;
         }
-        catch (IOException e) {
-            e.printStackTrace();
+        HighScore.file = file;
+    }
+
+    /**
+     * Gets the background writer of the high score file, starting it on first use.
+     *
+     * @return the writer
+     */
+    private static synchronized BackgroundFileWriter writer() {
+        if (writer == null) {
+            writer = new BackgroundFileWriter(HighScore.file);
         }
+        return writer;
     }
 
     /**
@@ -0,0 +1,186 @@
+package minesweeper;
+
+import javafx.scene.image.Image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of every image used by the Minesweeper game.
+ * Images are decoded once from the classpath and the same immutable instances are handed out afterwards,
+ * so revealing, flagging and resetting the board never touch the disk.
+ */
+public final class ImageRegistry {
+    private static final String TILE_PATH = "/images/minesweeper-basic/";
+    private static final String DIGIT_PATH = "/images/digits/";
+
+    public static final String COVER = "cover";
+    public static final String FLAG = "flag";
+    public static final String MINE_GREY = "mine-grey";
+    public static final String MINE_RED = "mine-red";
+    public static final String MINE_MISFLAGGED = "mine-misflagged";
+    public static final String FACE_SMILE = "face-smile";
+    public static final String FACE_O = "face-O";
+    public static final String FACE_DEAD = "face-dead";
+    public static final String FACE_WIN = "face-win";
+
+    private static final String[] TILE_NAMES = {
+            COVER, FLAG, MINE_GREY, MINE_RED, MINE_MISFLAGGED, FACE_SMILE, FACE_O, FACE_DEAD, FACE_WIN
+    };
+
+    private static final Map<String, Image> tiles = new ConcurrentHashMap<>();
+    private static final Image[] numbers = new Image[9];
+    private static final Image[] digits = new Image[10];
+    private static Image negativeDigit;
+    private static volatile boolean loaded = false;
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder decodeNanos = new LongAdder();
+
+    private ImageRegistry() {
+    }
+
+    /**
+     * Decodes every tile, face and digit image. Safe to call more than once, only the first call loads anything.
+     */
+    public static synchronized void preload() {
+        if (loaded) {
+            return;
+        }
+
+        for (String name : TILE_NAMES) {
+            tiles.computeIfAbsent(name, key -> load(TILE_PATH + key + ".png"));
+        }
+        for (int num = 0; num < numbers.length; num++) {
+            numbers[num] = load(TILE_PATH + num + ".png");
+        }
+        for (int digit = 0; digit < digits.length; digit++) {
+            digits[digit] = load(DIGIT_PATH + digit + ".png");
+        }
+        negativeDigit = load(DIGIT_PATH + "neg.png");
+        loaded = true;
+    }
+
+    /**
+     * Gets a tile or face image by name, e.g. {@link #COVER} or {@link #FACE_SMILE}.
+     *
+     * @param name the file name of the image without the extension
+     * @return the shared image
+     */
+    public static Image getTile(String name) {
+        Image image = tiles.get(name);
+        if (image != null) {
+            hits.increment();
+            return image;
+        }
+        return tiles.computeIfAbsent(name, key -> load(TILE_PATH + key + ".png"));
+    }
+
+    /**
+     * Gets the image for a revealed space with the given number of adjacent mines.
+     *
+     * @param num the number of adjacent mines (0-8)
+     * @return the shared image
+     */
+    public static Image getNumber(int num) {
+        ensureLoaded();
+        hits.increment();
+        return numbers[num];
+    }
+
+    /**
+     * Gets the red header digit image.
+     *
+     * @param digit the digit (0-9)
+     * @return the shared image
+     */
+    public static Image getDigit(int digit) {
+        ensureLoaded();
+        hits.increment();
+        return digits[digit];
+    }
+
+    /**
+     * Gets the red header minus sign image.
+     *
+     * @return the shared image
+     */
+    public static Image getNegativeDigit() {
+        ensureLoaded();
+        hits.increment();
+        return negativeDigit;
+    }
+
+    /**
+     * Gets the number of lookups that were served from the registry without decoding.
+     *
+     * @return the number of cache hits
+     */
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of images that had to be decoded.
+     *
+     * @return the number of cache misses
+     */
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the total time spent decoding images.
+     *
+     * @return the decode time in nanoseconds
+     */
+    public static long getDecodeNanos() {
+        return decodeNanos.sum();
+    }
+
+    /**
+     * Gets the counters as a single line, printed with the frame times when they are enabled.
+     *
+     * @return the counters as a formatted string
+     */
+    public static String getStatsText() {
+        return String.format("Images: %d hits, %d misses, %.2f ms decoding", getHits(), getMisses(), getDecodeNanos() / 1_000_000.0);
+    }
+
+    /**
+     * Loads everything on first use if {@link #preload()} was never called.
+     */
+    private static void ensureLoaded() {
+        if (!loaded) {
+            preload();
+        }
+    }
+
+    /**
+     * Decodes an image from the classpath, counting it as a miss.
+     *
+     * @param path the absolute resource path of the image
+     * @return the decoded image
+     */
+    private static Image load(String path) {
+        misses.increment();
+        long start = System.nanoTime();
+        try (InputStream in = ImageRegistry.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing image resource: " + path);
+            }
+            return new Image(in);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            decodeNanos.add(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package minesweeper;
+
+import minesweeper.engine.IntList;
+import minesweeper.replay.ReplayArchive;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranks every won game per difficulty, for today, the last seven days and all time.
+ *
+ * <p>Scores are whole seconds and the timer stops at 999, so each window keeps a Fenwick tree of how many games
+ * finished in each second. Recording a game and ranking a score are both O(log 1000), however many games
+ * were played. Next to the counts, each window keeps its fastest {@link #DEFAULT_SIZE} games for display.
+ * The weekly window is made of the last seven daily windows, so days roll out of it without rescanning games.</p>
+ *
+ * <p>A game's score is the time from its first move to its last, see {@link #score(int)}, which the archive keeps
+ * with every replay. Live wins and wins loaded from the archive are scored the same way, so a game keeps its rank
+ * from one start to the next.</p>
+ */
+public final class Leaderboard {
+    /**
+     * The number of games listed per window.
+     */
+    public static final int DEFAULT_SIZE = 10;
+
+    private static final int MAX_SCORE = 999;
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    /**
+     * The time windows games are ranked in.
+     */
+    public enum Window {
+        DAY("Today"),
+        WEEK("This week"),
+        ALL_TIME("All time");
+
+        private final String name;
+
+        Window(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Gets the name of the window.
+         *
+         * @return the name of the window
+         */
+        public String getName() {
+            return this.name;
+        }
+    }
+
+    /**
+     * The games of one window: the number of games per score and the fastest games.
+     */
+    private static final class Bucket {
+        private final int[] tree = new int[MAX_SCORE + 2]; // Fenwick tree over the scores, 1-based
+        private final HighScore[] top;
+        private int topCount = 0;
+        private int count = 0;
+        private long day; // The epoch day of a daily bucket
+
+        private Bucket(int size, long day) {
+            this.top = new HighScore[size];
+            this.day = day;
+        }
+
+        private void add(HighScore highScore) {
+            for (int i = highScore.getScore() + 1; i < this.tree.length; i += i & -i) {
+                this.tree[i]++;
+            }
+            this.count++;
+
+            // Ties keep the earlier game first
+            int low = 0;
+            int high = this.topCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (this.top[mid].getScore() <= highScore.getScore()) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            if (low >= this.top.length) {
+                return;
+            }
+            int moved = Math.min(this.topCount, this.top.length - 1) - low;
+            System.arraycopy(this.top, low, this.top, low + 1, moved);
+            this.top[low] = highScore;
+            this.topCount = Math.min(this.topCount + 1, this.top.length);
+        }
+
+        /**
+         * Counts the games faster than the given score.
+         */
+        private int countBelow(int score) {
+            int below = 0;
+            for (int i = score; i > 0; i -= i & -i) {
+                below += this.tree[i];
+            }
+            return below;
+        }
+
+        private void clear(long day) {
+            Arrays.fill(this.tree, 0);
+            Arrays.fill(this.top, null);
+            this.topCount = 0;
+            this.count = 0;
+            this.day = day;
+        }
+    }
+
+    private final Map<Difficulty, Bucket> allTime = new EnumMap<>(Difficulty.class);
+    private final Map<Difficulty, Bucket[]> days = new EnumMap<>(Difficulty.class);
+    private final int size;
+    private final ZoneId zone;
+
+    /**
+     * Constructor for the Leaderboard class, listing {@link #DEFAULT_SIZE} games per window in the system time zone.
+     */
+    public Leaderboard() {
+        this(DEFAULT_SIZE, ZoneId.systemDefault());
+    }
+
+    /**
+     * Constructor for the Leaderboard class.
+     *
+     * @param size the number of games listed per window
+     * @param zone the time zone days start in
+     */
+    public Leaderboard(int size, ZoneId zone) {
+        this.size = size;
+        this.zone = zone;
+        for (Difficulty difficulty : Difficulty.values()) {
+            this.allTime.put(difficulty, new Bucket(size, Long.MIN_VALUE));
+            Bucket[] ring = new Bucket[DAYS_PER_WEEK];
+            for (int i = 0; i < ring.length; i++) {
+                ring[i] = new Bucket(size, Long.MIN_VALUE);
+            }
+            this.days.put(difficulty, ring);
+        }
+    }
+
+    /**
+     * Gets the score of a game.
+     *
+     * @param playMillis the time from the first move to the last, see {@link minesweeper.replay.Replay#getPlayMillis()}
+     * @return the score in whole seconds
+     */
+    public static int score(int playMillis) {
+        return playMillis / 1000;
+    }
+
+    /**
+     * Records every won game of a replay archive.
+     *
+     * @param archive the replay archive
+     */
+    public void load(ReplayArchive archive) {
+        for (Difficulty difficulty : Difficulty.values()) {
+            IntList won = archive.find(difficulty, true, null);
+            for (int k = 0; k < won.size(); k++) {
+                ReplayArchive.Entry entry = archive.get(won.get(k));
+                this.record(new HighScore(entry.player(), score(entry.durationMillis()), difficulty), entry.playedAt());
+            }
+        }
+    }
+
+    /**
+     * Records a won game.
+     *
+     * @param highScore the player, time and difficulty of the game
+     * @param playedAt  when the game was won
+     */
+    public void record(HighScore highScore, Instant playedAt) {
+        if (highScore.getScore() > MAX_SCORE) {
+            highScore = new HighScore(highScore.getName(), MAX_SCORE, highScore.getDifficulty());
+        }
+        this.allTime.get(highScore.getDifficulty()).add(highScore);
+
+        long day = this.epochDay(playedAt);
+        Bucket bucket = this.days.get(highScore.getDifficulty())[Math.floorMod(day, DAYS_PER_WEEK)];
+        if (bucket.day < day) {
+            bucket.clear(day);
+        }
+        if (bucket.day == day) {
+            bucket.add(highScore);
+        }
+    }
+
+    /**
+     * Gets the rank a time would have in a window, counting only games that were strictly faster.
+     *
+     * @param difficulty the difficulty
+     * @param window     the time window
+     * @param score      the time in seconds
+     * @param now        the current time, which decides the day and week
+     * @return the rank, starting at 1
+     */
+    public int rank(Difficulty difficulty, Window window, int score, Instant now) {
+        int clamped = Math.min(Math.max(score, 0), MAX_SCORE);
+        int below = 0;
+        for (Bucket bucket : this.buckets(difficulty, window, now)) {
+            below += bucket.countBelow(clamped);
+        }
+        return below + 1;
+    }
+
+    /**
+     * Gets the number of games won in a window.
+     *
+     * @param difficulty the difficulty
+     * @param window     the time window
+     * @param now        the current time, which decides the day and week
+     * @return the number of games
+     */
+    public int count(Difficulty difficulty, Window window, Instant now) {
+        int count = 0;
+        for (Bucket bucket : this.buckets(difficulty, window, now)) {
+            count += bucket.count;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the fastest games of a window, fastest first.
+     *
+     * @param difficulty the difficulty
+     * @param window     the time window
+     * @param now        the current time, which decides the day and week
+     * @return at most the leaderboard size of games
+     */
+    public List<HighScore> top(Difficulty difficulty, Window window, Instant now) {
+        List<HighScore> top = new ArrayList<>();
+        for (Bucket bucket : this.buckets(difficulty, window, now)) {
+            top.addAll(Arrays.asList(bucket.top).subList(0, bucket.topCount));
+        }
+        if (window == Window.WEEK) {
+            // Merge the fastest games of each day. The sort is stable, so ties stay in order within a day.
+            top.sort((a, b) -> Integer.compare(a.getScore(), b.getScore()));
+        }
+        return top.size() > this.size ? top.subList(0, this.size) : top;
+    }
+
+    /**
+     * Gets the fastest games of every window and difficulty as a formatted string.
+     *
+     * @param count the number of games listed per window
+     * @param now   the current time, which decides the day and week
+     * @return the leaderboard as a formatted string
+     */
+    public String getText(int count, Instant now) {
+        StringBuilder sb = new StringBuilder();
+        for (Difficulty difficulty : Difficulty.values()) {
+            for (Window window : Window.values()) {
+                List<HighScore> top = this.top(difficulty, window, now);
+                if (top.isEmpty()) {
+                    continue;
+                }
+                sb.append(String.format("%s, %s (%d won)%n", difficulty.getName(), window.getName(), this.count(difficulty, window, now)));
+                for (int i = 0; i < Math.min(count, top.size()); i++) {
+                    sb.append(String.format("  %2d. %-3d seconds by %s%n", i + 1, top.get(i).getScore(), top.get(i).getName()));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Gets the buckets a window is made of at the given time.
+     */
+    private List<Bucket> buckets(Difficulty difficulty, Window window, Instant now) {
+        if (window == Window.ALL_TIME) {
+            return List.of(this.allTime.get(difficulty));
+        }
+
+        long today = this.epochDay(now);
+        long first = window == Window.DAY ? today : today - (DAYS_PER_WEEK - 1);
+        List<Bucket> buckets = new ArrayList<>(DAYS_PER_WEEK);
+        for (Bucket bucket : this.days.get(difficulty)) {
+            if (bucket.day >= first && bucket.day <= today) {
+                buckets.add(bucket);
+            }
+        }
+        return buckets;
+    }
+
+    private long epochDay(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond() + this.zone.getRules().getOffset(instant).getTotalSeconds(), SECONDS_PER_DAY);
+    }
+}
@@ -4,21 +4,35 @@ import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
+import javafx.scene.control.TextInputControl;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.*;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
-import javafx.util.Pair;
+import minesweeper.engine.ChunkedBoard;
+import minesweeper.engine.GameStatus;
+import minesweeper.generator.BoardPool;
+import minesweeper.replay.ReplayArchive;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * Main application class for the Minesweeper game.
  * Sets up the game board and handles the user interface.
  */
 public class MainApplication extends Application {
-    private final Controller controller = new Controller();
+    private static final double SCROLL_STEP = 40;
+
+    private final Controller controller = Controller.create();
+    private final Leaderboard leaderboard = new Leaderboard();
+    private final PlayerStats playerStats = new PlayerStats(Path.of(PlayerStats.FILENAME));
     private Stage mainStage;
     private Scene mainScene;
     private StackPane root;
@@ -30,6 +44,14 @@ public class MainApplication extends Application {
     private VBox highScoreDisplay;
     private Text highScoreDisplayText;
     private HBox header;
+    private BoardView.Type boardViewType;
+    private final Map<Difficulty, BoardView> boardViews = new EnumMap<>(Difficulty.class); // Reused across games
+    private BoardConfig customConfig; // The custom board of customView, replaced when another size is chosen
+    private BoardView customView;
+    private VBox endlessRoot; // Shown instead of the game root while an endless game is open
+    private Text endlessText;
+    private ChunkedBoard endlessBoard;
+    private EndlessBoardView endlessView;
 
     /**
      * Creates the header for the Minesweeper game.
@@ -44,8 +66,7 @@ public class MainApplication extends Application {
         this.makeDigits(header, this.controller.getMinesLeft(), true);
 
         // Smiley face
-        Image smileyImage = new Image("file:src/main/resources/images/minesweeper-basic/face-smile.png");
-        ImageView smileyImageView = new ImageView(smileyImage);
+        ImageView smileyImageView = new ImageView(ImageRegistry.getTile(ImageRegistry.FACE_SMILE));
         this.controller.setSmileyImage(smileyImageView);
         smileyImageView.setFitWidth(52);
         smileyImageView.setFitHeight(52);
@@ -82,6 +103,47 @@ public class MainApplication extends Application {
         expertButton.setOnAction(event -> setDifficulty(Difficulty.EXPERT));
 
         this.menu.getChildren().addAll(text, beginnerButton, intermediateButton, expertButton);
+        this.makeCustomBoardInput();
+
+        Button endlessButton = new Button("Endless");
+        endlessButton.setStyle("-fx-font-size: 16; -fx-background-color: #cc99ff; -fx-text-fill: #1e1f22;");
+        endlessButton.setOnAction(event -> this.openEndless(false));
+        this.menu.getChildren().add(endlessButton);
+    }
+
+    /**
+     * Creates the input for choosing a custom board size in the menu.
+     */
+    private void makeCustomBoardInput() {
+        TextField rowsField = new TextField("100");
+        TextField colsField = new TextField("100");
+        TextField minesField = new TextField("2000");
+        rowsField.setPromptText("Rows");
+        colsField.setPromptText("Columns");
+        minesField.setPromptText("Mines");
+        for (TextField field : new TextField[]{rowsField, colsField, minesField}) {
+            field.setPrefColumnCount(5);
+        }
+        HBox fields = new HBox(5, rowsField, colsField, minesField);
+        fields.setStyle("-fx-alignment: center;");
+
+        Text error = new Text();
+        error.setStyle("-fx-fill: #ff6666; -fx-font-size: 12;");
+        Button customButton = new Button("Custom");
+        customButton.setStyle("-fx-font-size: 16; -fx-background-color: #66ccff; -fx-text-fill: #1e1f22;");
+        customButton.setOnAction(event -> {
+            try {
+                BoardConfig config = BoardConfig.custom(Integer.parseInt(rowsField.getText().trim()),
+                        Integer.parseInt(colsField.getText().trim()), Integer.parseInt(minesField.getText().trim()));
+                error.setText("");
+                this.setBoardConfig(config);
+            }
+            catch (IllegalArgumentException e) {
+                error.setText(e instanceof NumberFormatException ? "Rows, columns and mines must be numbers" : e.getMessage());
+            }
+        });
+
+        this.menu.getChildren().addAll(fields, customButton, error);
     }
 
     /**
@@ -118,7 +180,7 @@ public class MainApplication extends Application {
         text.setStyle("-fx-fill: white; -fx-font-size: 20; -fx-font-family: monospace; -fx-alignment: center;");
         this.highScoreDisplay.getChildren().add(text);
 
-        this.highScoreDisplayText = new Text(HighScore.getHighScoreText());
+        this.highScoreDisplayText = new Text(this.highScoreDisplayText());
         this.highScoreDisplayText.setStyle("-fx-fill: white; -fx-font-size: 12; -fx-font-family: monospace; -fx-alignment: center;");
         this.highScoreDisplay.getChildren().add(this.highScoreDisplayText);
 
@@ -131,7 +193,7 @@ public class MainApplication extends Application {
         resetButton.setStyle("-fx-font-size: 16; -fx-background-color: #ff0000; -fx-text-fill: #1e1f22; -fx-alignment: center;");
         resetButton.setOnAction(event -> {
             HighScore.resetHighScores();
-            this.highScoreDisplayText.setText("No high scores yet!");
+            this.highScoreDisplayText.setText(this.highScoreDisplayText());
         });
         highScoreButtons.getChildren().add(resetButton);
 
@@ -158,12 +220,46 @@ public class MainApplication extends Application {
         this.gameRoot.getChildren().add(this.header);
 
         // Create the default game board
-        GridPane gridPane = this.setupBoard(0, 0, 1); // Initially empty
-        this.gameRoot.getChildren().add(gridPane);
+        BoardView boardView = this.setupBoard(0, 0, 1); // Initially empty
+        this.gameRoot.getChildren().add(boardView.getNode());
+
+        // Below the board, only shown when no-guess mode had to fall back to a random board
+        Text noGuessNotice = new Text("No no-guess board was found in time, this board may need a guess.");
+        noGuessNotice.setStyle("-fx-font-size: 14;");
+        noGuessNotice.setVisible(false);
+        noGuessNotice.setManaged(false);
+        this.gameRoot.getChildren().add(noGuessNotice);
+        this.controller.setNoGuessNotice(noGuessNotice);
 
         this.makeMenu();
         this.makeHighScoreInput();
         this.makeHighScoreDisplay();
+        this.makeEndlessRoot();
+    }
+
+    /**
+     * Creates the root pane of the endless mode, with its score and buttons. The board view is added
+     * when a game is opened.
+     */
+    private void makeEndlessRoot() {
+        this.endlessRoot = new VBox();
+        this.endlessRoot.setSpacing(10);
+        this.endlessRoot.setVisible(false);
+        this.endlessRoot.setStyle("-fx-border-color: #dfdfdf #888888 #888888 #dfdfdf; -fx-border-width: 4; -fx-padding: 10; -fx-background-color: #999999; -fx-alignment: center;");
+
+        this.endlessText = new Text();
+        this.endlessText.setStyle("-fx-font-size: 16; -fx-font-family: monospace;");
+        Button newButton = new Button("New game");
+        newButton.setOnAction(event -> this.openEndless(true));
+        Button menuButton = new Button("Menu");
+        menuButton.setOnAction(event -> {
+            this.closeEndless();
+            this.endlessRoot.setVisible(false);
+            this.menu.setVisible(true);
+        });
+        HBox endlessHeader = new HBox(10, this.endlessText, newButton, menuButton);
+        endlessHeader.setStyle("-fx-alignment: center;");
+        this.endlessRoot.getChildren().add(endlessHeader);
     }
 
     /**
@@ -172,8 +268,38 @@ public class MainApplication extends Application {
     private void makeScene() {
         this.mainScene = new Scene(this.root, 280, 360);
         this.mainScene.setOnKeyPressed(event -> {
-            if (event.getCode() == KeyCode.H) {
+            if (event.getTarget() instanceof TextInputControl) {
+                return; // Typing a name or a board size, not playing
+            }
+            if (event.getCode().isArrowKey()) {
+                // Large custom boards and endless boards are scrolled with the arrow keys as well as the mouse wheel
+                double step = SCROLL_STEP * (event.isShiftDown() ? 10 : 1);
+                double dx = event.getCode() == KeyCode.LEFT ? -step : event.getCode() == KeyCode.RIGHT ? step : 0;
+                double dy = event.getCode() == KeyCode.UP ? -step : event.getCode() == KeyCode.DOWN ? step : 0;
+                if (this.endlessView != null) {
+                    this.endlessView.scroll(dx, dy);
+                } else if (this.controller.getBoardConfig() != null) {
+                    this.getBoardView(this.controller.getBoardConfig()).scroll(dx, dy);
+                }
+            } else if (this.endlessView != null) {
+                return; // Hints, replays and high scores belong to the game hidden behind the endless one
+            } else if (event.getCode() == KeyCode.H) {
                 toggleHighScores();
+            } else if (event.getCode() == KeyCode.S) {
+                this.controller.showHint();
+            } else if (event.getCode() == KeyCode.R) {
+                this.controller.playLastReplay(event.isShiftDown() ? 4 : 1);
+            } else if (event.getCode() == KeyCode.P) {
+                this.controller.setPracticeMode(!this.controller.isPracticeMode());
+                this.mainStage.setTitle(this.controller.isPracticeMode() ? "Minesweeper (practice)" : "Minesweeper");
+            } else if (event.getCode() == KeyCode.Z && event.isShortcutDown()) {
+                if (event.isShiftDown()) {
+                    this.controller.redo();
+                } else {
+                    this.controller.undo();
+                }
+            } else if (event.getCode() == KeyCode.Y && event.isShortcutDown()) {
+                this.controller.redo();
             }
         });
         this.mainStage.setScene(this.mainScene);
@@ -187,7 +313,7 @@ public class MainApplication extends Application {
     private void makeRoot() {
         // Overlay the menu and high score input on top of the game board with a StackPane
         this.root = new StackPane();
-        this.root.getChildren().addAll(this.gameRoot, this.menu, this.highScoreInput, this.highScoreDisplay);
+        this.root.getChildren().addAll(this.gameRoot, this.endlessRoot, this.menu, this.highScoreInput, this.highScoreDisplay);
     }
 
     /**
@@ -197,11 +323,136 @@ public class MainApplication extends Application {
     @Override
     public void start(Stage stage) {
         this.mainStage = stage;
+        ImageRegistry.preload();
         HighScore.readHighScores();
+        this.playerStats.read();
+        this.controller.setPlayerStats(this.playerStats);
+
+        // Renderer is chosen at startup, e.g. mvn javafx:run -Djavafx.args="--renderer=canvas"
+        this.boardViewType = BoardView.Type.fromString(this.getParameters().getNamed().get("renderer"));
+        if (Boolean.parseBoolean(this.getParameters().getNamed().get("frameStats"))) {
+            new FrameMonitor(this.boardViewType.name()).start();
+        }
+        // No-guess boards are generated in the background from startup, e.g. -Djavafx.args="--noGuess=true"
+        if (Boolean.parseBoolean(this.getParameters().getNamed().get("noGuess"))) {
+            BoardPool boardPool = new BoardPool();
+            boardPool.warmUp(Difficulty.values());
+            this.controller.setBoardPool(boardPool);
+        }
+        this.controller.setLeaderboard(this.leaderboard);
+        this.openReplayArchive();
+        this.controller.setSaveFile(Path.of(SavedGame.FILENAME));
 
         this.makeGameRoot();
+        this.warmUpBoardViews();
         this.makeRoot();
         this.makeScene();
+        this.resumeSavedGame();
+    }
+
+    /**
+     * Resumes the game that was in progress when the application was last closed, skipping the menu.
+     */
+    private void resumeSavedGame() {
+        SavedGame saved = SavedGame.read(Path.of(SavedGame.FILENAME));
+        if (saved != null) {
+            this.setBoardConfig(saved.config());
+            this.controller.restoreGame(saved);
+        }
+    }
+
+    /**
+     * Opens the replay archive in the working directory, next to the high scores, and closes it on exit.
+     * The leaderboard is filled from the won games of the archive.
+     */
+    private void openReplayArchive() {
+        try {
+            ReplayArchive replayArchive = ReplayArchive.open(Path.of(""));
+            this.controller.setReplayArchive(replayArchive);
+            this.leaderboard.load(replayArchive);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    replayArchive.close();
+                }
+                catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }));
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Saves the game in progress and the endless game, if one is open, when the application exits.
+     */
+    @Override
+    public void stop() {
+        this.controller.saveGame();
+        this.controller.flushSavedGame();
+        this.closeEndless();
+    }
+
+    /**
+     * Opens the endless mode, resuming the saved game unless it was lost.
+     * @param newGame True to start a new game even if the saved one can be resumed.
+     */
+    private void openEndless(boolean newGame) {
+        this.closeEndless();
+        try {
+            Path file = Path.of(ChunkedBoard.FILENAME);
+            ChunkedBoard board = ChunkedBoard.open(file, System.nanoTime(), ChunkedBoard.DEFAULT_MINES_PER_CHUNK, ChunkedBoard.DEFAULT_MAX_CHUNKS);
+            if (newGame || board.getStatus() == GameStatus.LOST) {
+                board.close();
+                Files.delete(file);
+                board = ChunkedBoard.open(file, System.nanoTime(), ChunkedBoard.DEFAULT_MINES_PER_CHUNK, ChunkedBoard.DEFAULT_MAX_CHUNKS);
+            }
+            this.endlessBoard = board;
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        this.endlessView = EndlessBoardView.create(this.endlessBoard, this.endlessBoard.getStartRow(), this.endlessBoard.getStartCol(),
+                this::updateEndlessText);
+        this.endlessRoot.getChildren().add(this.endlessView.getNode());
+        this.updateEndlessText();
+        this.mainStage.setWidth(BoardConfig.VIEWPORT_WIDTH + 81);
+        this.mainStage.setHeight(BoardConfig.VIEWPORT_HEIGHT + 126);
+        this.mainStage.setResizable(false);
+        this.controller.pauseGame();
+        this.gameRoot.setVisible(false);
+        this.menu.setVisible(false);
+        this.endlessRoot.setVisible(true);
+    }
+
+    /**
+     * Saves and closes the endless game, if one is open.
+     */
+    private void closeEndless() {
+        if (this.endlessBoard == null) {
+            return;
+        }
+        this.endlessView.stop();
+        this.endlessRoot.getChildren().remove(this.endlessView.getNode());
+        try {
+            this.endlessBoard.close();
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+        this.endlessBoard = null;
+        this.endlessView = null;
+    }
+
+    /**
+     * Shows the score of the endless game.
+     */
+    private void updateEndlessText() {
+        this.endlessText.setText(String.format("Revealed %d  Flags %d%s", this.endlessBoard.getRevealedSpaces(),
+                this.endlessBoard.getFlaggedSpaces(), this.endlessBoard.getStatus() == GameStatus.LOST ? "  Game over" : ""));
     }
 
     /**
@@ -209,11 +460,29 @@ public class MainApplication extends Application {
      */
     private void updateHighScores() {
         String playerName = this.nameField.getText();
+        this.controller.setPlayerName(playerName);
         // Handle high score submission
         this.highScoreInput.setVisible(false);
         this.menu.setVisible(true);
         this.saveHighScore(playerName, this.controller.getTimeElapsedSeconds(), this.controller.getDifficulty());
-        this.highScoreDisplayText.setText(HighScore.getHighScoreText());
+        this.highScoreDisplayText.setText(this.highScoreDisplayText());
+    }
+
+    /**
+     * Gets the text of the high score display: the high score of each difficulty, the statistics of the player
+     * and the leaderboards.
+     *
+     * @return the text of the high score display
+     */
+    private String highScoreDisplayText() {
+        StringBuilder text = new StringBuilder(HighScore.getHighScoreText());
+        for (String section : new String[]{this.controller.getLastGameText(), this.playerStats.getText(this.controller.getPlayerName()),
+                this.leaderboard.getText(3, Instant.now())}) {
+            if (!section.isEmpty()) {
+                text.append('\n').append(section);
+            }
+        }
+        return text.toString();
     }
 
     /**
@@ -227,6 +496,7 @@ public class MainApplication extends Application {
         }
 
         this.controller.pauseGame();
+        this.highScoreDisplayText.setText(this.highScoreDisplayText());
         this.highScoreDisplay.setVisible(true);
     }
 
@@ -246,25 +516,50 @@ public class MainApplication extends Application {
      * @param rows The number of rows in the game board.
      * @param cols The number of columns in the game board.
      * @param tileSize The size of each tile in the game board.
-     * @return The game board as a GridPane.
+     * @return The view of the game board.
      */
-    private GridPane setupBoard(int rows, int cols, int tileSize) {
-        // Game area
-        GridPane gridPane = new GridPane();
-        gridPane.setHgap(2);
-        gridPane.setVgap(2);
-        this.add3DBorder(gridPane);
-
-        // Create a XY grid of images for the game area
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                ImageView imageView = getSpaceView(tileSize);
-                gridPane.add(imageView, col, row);
-                this.controller.addToBoardMap(imageView, new Pair<>(row, col));
-            }
+    private BoardView setupBoard(int rows, int cols, int tileSize) {
+        BoardView boardView = BoardView.create(this.boardViewType, this.controller, rows, cols, tileSize);
+        this.controller.setBoardView(boardView);
+        return boardView;
+    }
+
+    /**
+     * Builds the board view of every difficulty up front, so choosing one later only swaps a node.
+     */
+    private void warmUpBoardViews() {
+        for (Difficulty difficulty : Difficulty.values()) {
+            this.getBoardView(difficulty);
         }
+    }
 
-        return gridPane;
+    /**
+     * Gets the board view of a difficulty, building it the first time.
+     * @param difficulty The difficulty level of the board.
+     * @return The view of the game board.
+     */
+    private BoardView getBoardView(Difficulty difficulty) {
+        return this.boardViews.computeIfAbsent(difficulty,
+                d -> BoardView.create(this.boardViewType, this.controller, d.getRows(), d.getCols(), d.getTileSize()));
+    }
+
+    /**
+     * Gets the board view of a board configuration. Only the view of the last custom board is kept,
+     * since a large one holds a few bytes per space.
+     * @param config The board configuration.
+     * @return The view of the game board.
+     */
+    private BoardView getBoardView(BoardConfig config) {
+        if (!config.isCustom()) {
+            return this.getBoardView(config.difficulty());
+        }
+        if (!config.equals(this.customConfig)) {
+            BoardView.Type type = config.needsViewport() ? BoardView.Type.CANVAS : this.boardViewType;
+            this.customView = null; // Let the old view be collected before building the new one
+            this.customView = BoardView.create(type, this.controller, config.rows(), config.cols(), config.getTileSize());
+            this.customConfig = config;
+        }
+        return this.customView;
     }
 
     /**
@@ -279,46 +574,26 @@ public class MainApplication extends Application {
      * @param difficulty The difficulty level to set.
      */
     private void setDifficulty(Difficulty difficulty) {
-        this.controller.setDifficulty(difficulty);
-        this.controller.clearBoardMap();
-        this.mainStage.setWidth(difficulty.getScreenWidth());
-        this.mainStage.setHeight(difficulty.getScreenHeight());
-        this.mainStage.setResizable(false);
-        GridPane newBoard = setupBoard(difficulty.getRows(), difficulty.getCols(), difficulty.getTileSize());
-        ((VBox) this.root.getChildren().getFirst()).getChildren().set(1, newBoard);
-        this.menu.setVisible(false);
-        this.gameRoot.setVisible(true);
-        resetGame();
+        this.setBoardConfig(BoardConfig.of(difficulty));
     }
 
     /**
-     * Creates an ImageView for a space on the game board.
-     * @return The ImageView for the space.
+     * Sets the board of the game, either a difficulty level or a custom board.
+     * @param config The board configuration to set.
      */
-    private ImageView getSpaceView(int size) {
-        Image image = new Image("file:src/main/resources/images/minesweeper-basic/cover.png");
-        ImageView imageView = new ImageView(image);
-        imageView.setFitWidth(size);
-        imageView.setFitHeight(size);
-        imageView.setOnMouseClicked(event -> {
-            boolean leftClick = event.getButton() == MouseButton.PRIMARY;
-            if (!leftClick && event.getButton() != MouseButton.SECONDARY) {
-                return;
-            }
-            this.controller.onSpaceClicked(imageView, leftClick);
-        });
-        imageView.setOnMousePressed(event -> {
-            if (event.getButton() == MouseButton.PRIMARY) {
-                boolean leftClick = event.getButton() == MouseButton.PRIMARY;
-                this.controller.spaceClickDown(imageView, leftClick);
-            }
-        });
-        imageView.setOnMouseReleased(event -> {
-            if (event.getButton() == MouseButton.PRIMARY) {
-                this.controller.spaceClickUp(imageView);
-            }
-        });
-        return imageView;
+    private void setBoardConfig(BoardConfig config) {
+        this.controller.setBoardConfig(config);
+        this.mainStage.setWidth(config.getScreenWidth());
+        this.mainStage.setHeight(config.getScreenHeight());
+        this.mainStage.setResizable(false);
+        BoardView boardView = this.getBoardView(config);
+        this.controller.setBoardView(boardView);
+        if (this.gameRoot.getChildren().get(1) != boardView.getNode()) {
+            this.gameRoot.getChildren().set(1, boardView.getNode());
+        }
+        this.menu.setVisible(false);
+        this.gameRoot.setVisible(true);
+        resetGame();
     }
 
     /**
@@ -338,8 +613,7 @@ public class MainApplication extends Application {
         HBox digitsLeft = new HBox();
         // fill the width
         for (int imageNum = 0; imageNum < 3; imageNum++) {
-            Image image = new Image("file:src/main/resources/images/digits/0.png");
-            ImageView imageView = new ImageView(image);
+            ImageView imageView = new ImageView(ImageRegistry.getDigit(0));
             imageView.setFitWidth(28);
             imageView.setFitHeight(50);
             digitsLeft.getChildren().add(imageView);
@@ -355,6 +629,6 @@ public class MainApplication extends Application {
      * @param args The command line arguments.
      */
     public static void main(String[] args) {
-        launch();
+        launch(args);
     }
 }
\ No newline at end of file
@@ -0,0 +1,306 @@
+package minesweeper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Statistics of every player on every difficulty, updated as each game ends and saved in the background.
+ *
+ * <p>Win times are whole seconds up to 999, so each player and difficulty keeps a histogram of win times
+ * next to the counters. Recording a game is O(1), and the median and other percentiles are read from
+ * the histogram without going over past games.</p>
+ *
+ * <p>The file is binary and only stores the seconds that have wins:</p>
+ * <pre>
+ * "MSS" version, int players, then per player: UTF name, byte difficulties, then per difficulty:
+ *     byte difficulty, int games, int wins, int streak, int bestStreak, long totalSeconds,
+ *     short seconds with wins, then per such second: short second, int wins
+ * </pre>
+ */
+public final class PlayerStats {
+    public static final String FILENAME = "stats.dat";
+
+    private static final int MAGIC = ('M' << 16) | ('S' << 8) | 'S';
+    private static final int VERSION = 1;
+    private static final int MAX_SECONDS = 999;
+
+    /**
+     * The statistics of one player on one difficulty.
+     */
+    public static final class Stats {
+        private int games;
+        private int wins;
+        private int streak;
+        private int bestStreak;
+        private long totalSeconds;
+        private final int[] winsPerSecond = new int[MAX_SECONDS + 1];
+
+        private void record(boolean won, int seconds) {
+            this.games++;
+            if (!won) {
+                this.streak = 0;
+                return;
+            }
+            int clamped = Math.min(Math.max(seconds, 0), MAX_SECONDS);
+            this.wins++;
+            this.streak++;
+            this.bestStreak = Math.max(this.bestStreak, this.streak);
+            this.totalSeconds += clamped;
+            this.winsPerSecond[clamped]++;
+        }
+
+        /**
+         * Gets the number of games played.
+         *
+         * @return the number of games
+         */
+        public int getGames() {
+            return this.games;
+        }
+
+        /**
+         * Gets the number of games won.
+         *
+         * @return the number of wins
+         */
+        public int getWins() {
+            return this.wins;
+        }
+
+        /**
+         * Gets the number of games won in a row up to the last game.
+         *
+         * @return the current win streak
+         */
+        public int getStreak() {
+            return this.streak;
+        }
+
+        /**
+         * Gets the longest win streak.
+         *
+         * @return the longest win streak
+         */
+        public int getBestStreak() {
+            return this.bestStreak;
+        }
+
+        /**
+         * Gets the mean time of the games won.
+         *
+         * @return the mean time in seconds, or 0 if no game was won
+         */
+        public double getMeanSeconds() {
+            return this.wins == 0 ? 0 : (double) this.totalSeconds / this.wins;
+        }
+
+        /**
+         * Gets a percentile of the times of the games won, e.g. 50 for the median.
+         *
+         * @param percentile the percentile, from 0 to 100
+         * @return the time in seconds that the given percentage of wins were at most, or 0 if no game was won
+         */
+        public int getPercentileSeconds(double percentile) {
+            if (this.wins == 0) {
+                return 0;
+            }
+            long wanted = Math.max(1, (long) Math.ceil(percentile / 100 * this.wins));
+            long seen = 0;
+            for (int second = 0; second <= MAX_SECONDS; second++) {
+                seen += this.winsPerSecond[second];
+                if (seen >= wanted) {
+                    return second;
+                }
+            }
+            return MAX_SECONDS;
+        }
+    }
+
+    private final Map<String, Stats[]> players = new HashMap<>();
+    private final Path file;
+    private BackgroundFileWriter writer;
+
+    /**
+     * Constructor for the PlayerStats class.
+     *
+     * @param file the file the statistics are saved to
+     */
+    public PlayerStats(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Gets the statistics of a player on a difficulty.
+     *
+     * @param player     the name of the player
+     * @param difficulty the difficulty
+     * @return the statistics, all zero if the player never played the difficulty
+     */
+    public synchronized Stats get(String player, Difficulty difficulty) {
+        Stats[] stats = this.players.get(player);
+        return stats == null || stats[difficulty.ordinal()] == null ? new Stats() : stats[difficulty.ordinal()];
+    }
+
+    /**
+     * Records a finished game and saves the statistics in the background.
+     *
+     * @param player     the name of the player
+     * @param difficulty the difficulty of the game
+     * @param won        true if the game was won
+     * @param seconds    the time of the game in seconds
+     */
+    public synchronized void record(String player, Difficulty difficulty, boolean won, int seconds) {
+        Stats[] stats = this.players.computeIfAbsent(player, name -> new Stats[Difficulty.values().length]);
+        if (stats[difficulty.ordinal()] == null) {
+            stats[difficulty.ordinal()] = new Stats();
+        }
+        stats[difficulty.ordinal()].record(won, seconds);
+
+        if (this.writer == null) {
+            this.writer = new BackgroundFileWriter(this.file);
+        }
+        this.writer.submit(this::encode);
+    }
+
+    /**
+     * Gets the statistics of a player on every difficulty they played as a formatted string.
+     *
+     * @param player the name of the player
+     * @return the statistics as a formatted string, or an empty string if the player never played
+     */
+    public synchronized String getText(String player) {
+        Stats[] stats = this.players.get(player);
+        if (stats == null) {
+            return "";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Statistics of ").append(player).append('\n');
+        for (Difficulty difficulty : Difficulty.values()) {
+            Stats s = stats[difficulty.ordinal()];
+            if (s == null || s.games == 0) {
+                continue;
+            }
+            sb.append(String.format("%-13s %d won of %d (%.0f%%), streak %d, best %d%n", difficulty + ":", s.wins, s.games,
+                    100.0 * s.wins / s.games, s.streak, s.bestStreak));
+            if (s.wins > 0) {
+                sb.append(String.format("%-13s mean %.1fs, median %ds, p10 %ds, p90 %ds%n", "", s.getMeanSeconds(),
+                        s.getPercentileSeconds(50), s.getPercentileSeconds(10), s.getPercentileSeconds(90)));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads the statistics from the file, replacing the ones in memory.
+     */
+    public synchronized void read() {
+        this.players.clear();
+        try {
+            byte[] data = Files.readAllBytes(this.file);
+            if (data.length > 0) {
+                this.readFrom(new DataInputStream(new ByteArrayInputStream(data)));
+            }
+        }
+        catch (NoSuchFileException e) {
+            // Nobody has played yet
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Waits until the statistics have been written to the file.
+     */
+    public void flush() {
+        if (this.writer != null) {
+            this.writer.flush();
+        }
+    }
+
+    private void readFrom(DataInputStream in) throws IOException {
+        int header = in.readInt();
+        if (header >>> 8 != MAGIC || (header & 0xFF) != VERSION) {
+            throw new IOException("Not a statistics file");
+        }
+        int players = in.readInt();
+        for (int p = 0; p < players; p++) {
+            Stats[] stats = new Stats[Difficulty.values().length];
+            this.players.put(in.readUTF(), stats);
+            int difficulties = in.readUnsignedByte();
+            for (int d = 0; d < difficulties; d++) {
+                Stats s = new Stats();
+                int ordinal = in.readUnsignedByte();
+                s.games = in.readInt();
+                s.wins = in.readInt();
+                s.streak = in.readInt();
+                s.bestStreak = in.readInt();
+                s.totalSeconds = in.readLong();
+                int seconds = in.readUnsignedShort();
+                for (int i = 0; i < seconds; i++) {
+                    int second = in.readUnsignedShort();
+                    s.winsPerSecond[Math.min(second, MAX_SECONDS)] += in.readInt();
+                }
+                if (ordinal < stats.length) {
+                    stats[ordinal] = s;
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodes the statistics. Called on the writer thread, so it only runs once for all the games recorded
+     * while the previous write was in progress.
+     */
+    private synchronized byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt((MAGIC << 8) | VERSION);
+            out.writeInt(this.players.size());
+            for (Map.Entry<String, Stats[]> player : this.players.entrySet()) {
+                Stats[] stats = player.getValue();
+                out.writeUTF(player.getKey());
+                out.writeByte((int) Arrays.stream(stats).filter(Objects::nonNull).count());
+                for (int d = 0; d < stats.length; d++) {
+                    Stats s = stats[d];
+                    if (s == null) {
+                        continue;
+                    }
+                    out.writeByte(d);
+                    out.writeInt(s.games);
+                    out.writeInt(s.wins);
+                    out.writeInt(s.streak);
+                    out.writeInt(s.bestStreak);
+                    out.writeLong(s.totalSeconds);
+                    int seconds = 0;
+                    for (int count : s.winsPerSecond) {
+                        seconds += count > 0 ? 1 : 0;
+                    }
+                    out.writeShort(seconds);
+                    for (int second = 0; second <= MAX_SECONDS; second++) {
+                        if (s.winsPerSecond[second] > 0) {
+                            out.writeShort(second);
+                            out.writeInt(s.winsPerSecond[second]);
+                        }
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,98 @@
+package minesweeper;
+
+import minesweeper.engine.GameSnapshot;
+import minesweeper.replay.Replay;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * A game in progress as saved by the autosave of the {@link Controller}: the board, the time on the clock and
+ * the moves so far, so the game is resumed where it was left and its replay is still complete when it ends.
+ *
+ * <pre>
+ * int "MSV" version, byte difficulty (-1 if custom), int rows, int cols, int mines, int time,
+ * int replay length, the encoded replay, then the bit-packed {@link GameSnapshot}
+ * </pre>
+ *
+ * @param config   the board the game is played on
+ * @param time     the time on the clock in seconds
+ * @param replay   the moves so far
+ * @param snapshot the state of the board
+ */
+public record SavedGame(BoardConfig config, int time, Replay replay, GameSnapshot snapshot) {
+    public static final String FILENAME = "savegame.dat";
+
+    private static final int MAGIC = ('M' << 16) | ('S' << 8) | 'V';
+    private static final int VERSION = 1;
+
+    /**
+     * Encodes the saved game, bit-packing the board. Meant to run on the writer thread.
+     *
+     * @return the encoded game
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + this.snapshot.getRows() * this.snapshot.getCols() * 3 / 8);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt((MAGIC << 8) | VERSION);
+            out.writeByte(this.config.isCustom() ? -1 : this.config.difficulty().ordinal());
+            out.writeInt(this.config.rows());
+            out.writeInt(this.config.cols());
+            out.writeInt(this.config.mines());
+            out.writeInt(this.time);
+            byte[] encodedReplay = this.replay.encode();
+            out.writeInt(encodedReplay.length);
+            out.write(encodedReplay);
+            this.snapshot.writeTo(out);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the saved game from a file.
+     *
+     * @param file the file the game was saved to
+     * @return the saved game, or null if there is none or it cannot be read
+     */
+    public static SavedGame read(Path file) {
+        try {
+            byte[] data = Files.readAllBytes(file);
+            if (data.length == 0) {
+                return null; // The last game ended
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            int header = in.readInt();
+            if (header >>> 8 != MAGIC || (header & 0xFF) != VERSION) {
+                throw new IOException("Not a saved game");
+            }
+            int difficulty = in.readByte();
+            int rows = in.readInt();
+            int cols = in.readInt();
+            int mines = in.readInt();
+            BoardConfig config = difficulty >= 0 && difficulty < Difficulty.values().length
+                    ? BoardConfig.of(Difficulty.values()[difficulty]) : BoardConfig.custom(rows, cols, mines);
+            int time = in.readInt();
+            byte[] encodedReplay = new byte[in.readInt()];
+            in.readFully(encodedReplay);
+            return new SavedGame(config, time, Replay.decode(encodedReplay), GameSnapshot.readFrom(in));
+        }
+        catch (NoSuchFileException e) {
+            return null; // No game was saved yet
+        }
+        catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
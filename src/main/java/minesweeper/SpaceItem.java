@@ -1,24 +1,14 @@
 package minesweeper;
 
 import javafx.scene.image.Image;
+import minesweeper.engine.Board;
 
 /**
- * Represents a space on the Minesweeper board.
- * Each space can either be a mine or an empty space with a number of adjacent mines.
+ * The images and tiles of a single space on the Minesweeper board.
+ * The state of the spaces lives in a packed {@link Board}, which these helpers read by index.
  */
-public class SpaceItem {
-    private boolean mine;
-    private boolean isFlagged;
-    private boolean isRevealed;
-    private int numAdjacentMines;
-
-    /**
-     * Constructor for the SpaceItem class.
-     */
-    public SpaceItem() {
-        this.mine = false;
-        this.isRevealed = false;
-        this.numAdjacentMines = 0;
+public final class SpaceItem {
+    private SpaceItem() {
     }
 
     /**
@@ -26,7 +16,7 @@ public class SpaceItem {
      * @return The image for an unrevealed mine.
      */
     static public Image getUnrevealedMineImage() {
-        return new Image("file:src/main/resources/images/minesweeper-basic/mine-grey.png");
+        return ImageRegistry.getTile(ImageRegistry.MINE_GREY);
     }
 
     /**
@@ -34,7 +24,7 @@ public class SpaceItem {
      * @return The image for a revealed mine.
      */
     static public Image getRevealedMineImage() {
-        return new Image("file:src/main/resources/images/minesweeper-basic/mine-red.png");
+        return ImageRegistry.getTile(ImageRegistry.MINE_RED);
     }
 
     /**
@@ -42,7 +32,7 @@ public class SpaceItem {
      * @return The image for a flag.
      */
     static public Image getFlagImage() {
-        return new Image("file:src/main/resources/images/minesweeper-basic/flag.png");
+        return ImageRegistry.getTile(ImageRegistry.FLAG);
     }
 
     /**
@@ -50,7 +40,7 @@ public class SpaceItem {
      * @return The image for a unrevealed space.
      */
     static public Image getCoverImage() {
-        return new Image("file:src/main/resources/images/minesweeper-basic/cover.png");
+        return ImageRegistry.getTile(ImageRegistry.COVER);
     }
 
     /**
@@ -58,69 +48,20 @@ public class SpaceItem {
      * @return The image for a non-mine revealed space.
      */
     static public Image getNumImage(int num) {
-        return new Image("file:src/main/resources/images/minesweeper-basic/" + num + ".png");
+        return ImageRegistry.getNumber(num);
     }
 
     /**
-     * Gets the image for the revealed state of the space.
-     * @return The image for the revealed state of the space.
+     * Gets the tile for the revealed state of a space.
+     * @param board The board that holds the state of the space.
+     * @param index The index of the space.
+     * @return The tile for the revealed state of the space.
      */
-    public Image getRevealedImage() {
-        if (this.mine) {
-            return SpaceItem.getRevealedMineImage();
+    public static Tile getRevealedTile(Board board, int index) {
+        if (board.isMine(index)) {
+            return Tile.MINE_RED;
         } else {
-            return SpaceItem.getNumImage(this.numAdjacentMines);
+            return Tile.number(board.getAdjacentMines(index));
         }
     }
-
-    /**
-     * Checks if the space is a mine.
-     * @return True if the space is a mine, false otherwise.
-     */
-    public boolean isMine() {
-        return this.mine;
-    }
-
-    public void setMine(boolean isMine) {
-        this.mine = isMine;
-    }
-
-    public boolean isFlagged() {
-        return this.isFlagged;
-    }
-
-    /**
-     * Checks if the space is revealed.
-     * @return True if the space is revealed, false otherwise.
-     */
-    public boolean isRevealed() {
-        return this.isRevealed;
-    }
-
-    /**
-     * Sets the revealed state of the space.
-     * @param isRevealed The new revealed state of the space.
-     */
-    public void setRevealed(boolean isRevealed) {
-        this.isRevealed = isRevealed;
-    }
-
-    public void setFlagged(boolean isFlagged) {
-        this.isFlagged = isFlagged;
-    }
-
-    /**
-     * Gets the number of adjacent mines.
-     * @return The number of adjacent mines.
-     */
-    public int getNumAdjacentMines() {
-        return this.numAdjacentMines;
-    }
-
-    /**
-     * Increments the number of adjacent mines by one.
-     */
-    public void addAdjacentMine() {
-        this.numAdjacentMines++;
-    }
-}
\ No newline at end of file
+}
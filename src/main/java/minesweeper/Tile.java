@@ -0,0 +1,50 @@
+package minesweeper;
+
+import javafx.scene.image.Image;
+
+/**
+ * The images a single space on the board can show.
+ * The ordinal doubles as the sprite index for renderers that draw from a sprite sheet.
+ */
+public enum Tile {
+    NUM_0, NUM_1, NUM_2, NUM_3, NUM_4, NUM_5, NUM_6, NUM_7, NUM_8,
+    COVER, FLAG, MINE_GREY, MINE_RED, MINE_MISFLAGGED;
+
+    private static final Tile[] VALUES = Tile.values();
+
+    /**
+     * Gets the tile for a revealed space with the given number of adjacent mines.
+     *
+     * @param num the number of adjacent mines (0-8)
+     * @return the number tile
+     */
+    public static Tile number(int num) {
+        return VALUES[num];
+    }
+
+    /**
+     * Gets the tile with the given ordinal.
+     *
+     * @param ordinal the ordinal of the tile
+     * @return the tile
+     */
+    public static Tile fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Gets the shared image for this tile.
+     *
+     * @return the image for this tile
+     */
+    public Image getImage() {
+        return switch (this) {
+            case COVER -> SpaceItem.getCoverImage();
+            case FLAG -> SpaceItem.getFlagImage();
+            case MINE_GREY -> SpaceItem.getUnrevealedMineImage();
+            case MINE_RED -> SpaceItem.getRevealedMineImage();
+            case MINE_MISFLAGGED -> ImageRegistry.getTile(ImageRegistry.MINE_MISFLAGGED);
+            default -> SpaceItem.getNumImage(this.ordinal());
+        };
+    }
+}
@@ -0,0 +1,287 @@
+package minesweeper.engine;
+
+import java.util.Arrays;
+
+/**
+ * Packed state of a Minesweeper board.
+ * Each space is a single byte in one flat row-major array: the low four bits hold the number of adjacent mines
+ * and the upper bits hold the mine, flagged and revealed states. The array is reused between games and only
+ * grows when a larger board is requested.
+ */
+public final class Board {
+    public static final int ADJACENT_MASK = 0x0F;
+    public static final int MINE = 0x10;
+    public static final int FLAGGED = 0x20;
+    public static final int REVEALED = 0x40;
+
+    private byte[] cells = new byte[0];
+    private int rows;
+    private int cols;
+    private int size;
+
+    /**
+     * Constructor for the Board class.
+     *
+     * @param rows the number of rows
+     * @param cols the number of columns
+     */
+    public Board(int rows, int cols) {
+        this.reset(rows, cols);
+    }
+
+    /**
+     * Clears every space and resizes the board, reusing the backing array when it is large enough.
+     *
+     * @param rows the number of rows
+     * @param cols the number of columns
+     */
+    public void reset(int rows, int cols) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Invalid board size: " + rows + "x" + cols);
+        }
+
+        long size = (long) rows * cols;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Board too large: " + rows + "x" + cols);
+        }
+
+        this.rows = rows;
+        this.cols = cols;
+        this.size = (int) size;
+        if (this.size > this.cells.length) {
+            this.cells = new byte[this.size];
+        }
+        else {
+            Arrays.fill(this.cells, 0, this.size, (byte) 0);
+        }
+    }
+
+    /**
+     * Clears every space, keeping the size of the board.
+     */
+    public void clear() {
+        Arrays.fill(this.cells, 0, this.size, (byte) 0);
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Gets the number of columns.
+     *
+     * @return the number of columns
+     */
+    public int getCols() {
+        return this.cols;
+    }
+
+    /**
+     * Gets the total number of spaces.
+     *
+     * @return the number of spaces
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Converts a row and column to the index of the space.
+     *
+     * @param row the row of the space
+     * @param col the column of the space
+     * @return the row-major index of the space
+     */
+    public int index(int row, int col) {
+        return row * this.cols + col;
+    }
+
+    /**
+     * Gets the row of the space at the given index.
+     *
+     * @param index the index of the space
+     * @return the row of the space
+     */
+    public int row(int index) {
+        return index / this.cols;
+    }
+
+    /**
+     * Gets the column of the space at the given index.
+     *
+     * @param index the index of the space
+     * @return the column of the space
+     */
+    public int col(int index) {
+        return index % this.cols;
+    }
+
+    /**
+     * Checks if the row and column are on the board.
+     *
+     * @param row the row to check
+     * @param col the column to check
+     * @return true if the coordinates are on the board, false otherwise
+     */
+    public boolean inBounds(int row, int col) {
+        return row >= 0 && row < this.rows && col >= 0 && col < this.cols;
+    }
+
+    /**
+     * Copies the packed state of every space in one array copy.
+     *
+     * @return the packed states, one byte per space in index order
+     */
+    public byte[] copyCells() {
+        return Arrays.copyOf(this.cells, this.size);
+    }
+
+    /**
+     * Copies the board, e.g. to score it on another thread while this one is reused for the next game.
+     *
+     * @return a board with the same size and packed states
+     */
+    public Board copy() {
+        Board copy = new Board(this.rows, this.cols);
+        System.arraycopy(this.cells, 0, copy.cells, 0, this.size);
+        return copy;
+    }
+
+    /**
+     * Gets the packed state of the space.
+     *
+     * @param index the index of the space
+     * @return the packed state
+     */
+    public int get(int index) {
+        return this.cells[index];
+    }
+
+    /**
+     * Checks if the space is a mine.
+     *
+     * @param index the index of the space
+     * @return true if the space is a mine, false otherwise
+     */
+    public boolean isMine(int index) {
+        return (this.cells[index] & MINE) != 0;
+    }
+
+    /**
+     * Checks if the space is flagged.
+     *
+     * @param index the index of the space
+     * @return true if the space is flagged, false otherwise
+     */
+    public boolean isFlagged(int index) {
+        return (this.cells[index] & FLAGGED) != 0;
+    }
+
+    /**
+     * Checks if the space is revealed.
+     *
+     * @param index the index of the space
+     * @return true if the space is revealed, false otherwise
+     */
+    public boolean isRevealed(int index) {
+        return (this.cells[index] & REVEALED) != 0;
+    }
+
+    /**
+     * Gets the number of mines adjacent to the space.
+     *
+     * @param index the index of the space
+     * @return the number of adjacent mines
+     */
+    public int getAdjacentMines(int index) {
+        return this.cells[index] & ADJACENT_MASK;
+    }
+
+    public void setMine(int index, boolean mine) {
+        this.setBit(index, MINE, mine);
+    }
+
+    public void setFlagged(int index, boolean flagged) {
+        this.setBit(index, FLAGGED, flagged);
+    }
+
+    public void setRevealed(int index, boolean revealed) {
+        this.setBit(index, REVEALED, revealed);
+    }
+
+    /**
+     * Increments the number of adjacent mines of the space by one.
+     *
+     * @param index the index of the space
+     */
+    public void addAdjacentMine(int index) {
+        this.cells[index]++;
+    }
+
+    /**
+     * Sets the adjacent mine count of every space in one pass over the given mines.
+     * The counts must be zero beforehand, as they are after {@link #reset(int, int)}.
+     *
+     * @param mines the indices of every mine on the board
+     */
+    public void computeAdjacentMines(IntList mines) {
+        for (int m = 0; m < mines.size(); m++) {
+            int index = mines.get(m);
+            int row = index / this.cols;
+            int col = index - row * this.cols;
+            int minRow = Math.max(row - 1, 0);
+            int maxRow = Math.min(row + 1, this.rows - 1);
+            int minCol = Math.max(col - 1, 0);
+            int maxCol = Math.min(col + 1, this.cols - 1);
+            for (int i = minRow; i <= maxRow; i++) {
+                int rowStart = i * this.cols;
+                for (int j = minCol; j <= maxCol; j++) {
+                    if (rowStart + j != index) {
+                        this.cells[rowStart + j]++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the given mines and the adjacent mine counts they added, undoing {@link #computeAdjacentMines(IntList)}
+     * in time proportional to the mines instead of the board. Flags and revealed spaces are kept.
+     *
+     * @param mines the indices of every mine on the board
+     */
+    public void removeMines(IntList mines) {
+        for (int m = 0; m < mines.size(); m++) {
+            int index = mines.get(m);
+            int row = index / this.cols;
+            int col = index - row * this.cols;
+            int minRow = Math.max(row - 1, 0);
+            int maxRow = Math.min(row + 1, this.rows - 1);
+            int minCol = Math.max(col - 1, 0);
+            int maxCol = Math.min(col + 1, this.cols - 1);
+            this.cells[index] &= (byte) ~MINE;
+            for (int i = minRow; i <= maxRow; i++) {
+                int rowStart = i * this.cols;
+                for (int j = minCol; j <= maxCol; j++) {
+                    if (rowStart + j != index) {
+                        this.cells[rowStart + j]--;
+                    }
+                }
+            }
+        }
+    }
+
+    private void setBit(int index, int bit, boolean value) {
+        if (value) {
+            this.cells[index] |= (byte) bit;
+        }
+        else {
+            this.cells[index] &= (byte) ~bit;
+        }
+    }
+}
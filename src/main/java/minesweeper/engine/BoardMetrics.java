@@ -0,0 +1,259 @@
+package minesweeper.engine;
+
+/**
+ * Scores how hard a board is, in time linear in its size.
+ *
+ * <p>3BV is the least number of left clicks that clears the board without flags: one per opening, an area
+ * of connected spaces with no adjacent mines, plus one per number that does not border an opening.
+ * Openings are found with a union-find over the spaces with no adjacent mines.</p>
+ *
+ * <p>ZiNi is the least number of clicks when flags and chords may be used as well. Finding it exactly is
+ * expensive, so it is approximated in one sweep: after clicking every opening, each number is chorded if
+ * flagging its mines and chording saves more clicks than it costs, and what is left is clicked one by one.
+ * The result is never more than the 3BV.</p>
+ *
+ * <p>The buffers are reused between boards, so scoring many boards allocates nothing once they have grown.</p>
+ */
+public final class BoardMetrics {
+    private static final byte REVEALED = 1;
+    private static final byte FLAGGED = 2;
+    private static final byte NEAR_OPENING = 4;
+    private static final byte UNSOLVED = 8; // Marks the root of an opening with a space not revealed in the game
+
+    private int[] parent = new int[0];
+    private byte[] state = new byte[0];
+
+    private int bbbv;
+    private int solvedBbbv;
+    private int openings;
+    private int zini;
+
+    /**
+     * Scores a board whose mines are placed. Revealed spaces on the board only count towards
+     * {@link #getSolvedBbbv()}.
+     *
+     * @param board the board to score
+     */
+    public void compute(Board board) {
+        final int rows = board.getRows();
+        final int cols = board.getCols();
+        final int size = rows * cols;
+        if (this.parent.length < size) {
+            this.parent = new int[size];
+            this.state = new byte[size];
+        }
+        final int[] parent = this.parent;
+        final byte[] state = this.state;
+
+        // Join every space with no adjacent mines to the ones before it
+        for (int index = 0; index < size; index++) {
+            state[index] = 0;
+            if (!isEmpty(board, index)) {
+                parent[index] = -1;
+                continue;
+            }
+            parent[index] = index;
+            int row = index / cols;
+            int col = index - row * cols;
+            if (col > 0 && parent[index - 1] >= 0) {
+                this.union(index, index - 1);
+            }
+            if (row > 0) {
+                for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                    if (parent[index - cols - col + j] >= 0) {
+                        this.union(index, index - cols - col + j);
+                    }
+                }
+            }
+        }
+
+        // Count the openings and mark every space an opening reveals
+        this.openings = 0;
+        int solvedOpenings = 0;
+        for (int index = 0; index < size; index++) {
+            if (parent[index] < 0) {
+                continue;
+            }
+            int root = this.find(index);
+            if (!board.isRevealed(index)) {
+                state[root] |= UNSOLVED;
+            }
+            int row = index / cols;
+            int col = index - row * cols;
+            for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+                for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                    state[i * cols + j] |= NEAR_OPENING | REVEALED;
+                }
+            }
+        }
+        for (int index = 0; index < size; index++) {
+            if (parent[index] == index) {
+                this.openings++;
+                if ((state[index] & UNSOLVED) == 0) {
+                    solvedOpenings++;
+                }
+            }
+        }
+
+        // Numbers away from every opening each take a click of their own
+        this.bbbv = this.openings;
+        this.solvedBbbv = solvedOpenings;
+        for (int index = 0; index < size; index++) {
+            if ((state[index] & NEAR_OPENING) == 0 && !board.isMine(index)) {
+                this.bbbv++;
+                if (board.isRevealed(index)) {
+                    this.solvedBbbv++;
+                }
+            }
+        }
+
+        this.zini = this.openings + this.sweepChords(board) + this.countCovered(board);
+    }
+
+    /**
+     * Chords every number where flagging its mines and chording costs fewer clicks than clicking
+     * its covered neighbors one by one, in reading order.
+     *
+     * @return the clicks spent on the chords, their flags and the numbers clicked to chord on
+     */
+    private int sweepChords(Board board) {
+        final int rows = board.getRows();
+        final int cols = board.getCols();
+        final byte[] state = this.state;
+        int clicks = 0;
+        for (int index = 0; index < rows * cols; index++) {
+            if (board.isMine(index) || board.getAdjacentMines(index) == 0) {
+                continue;
+            }
+            int row = index / cols;
+            int col = index - row * cols;
+            int minRow = Math.max(row - 1, 0);
+            int maxRow = Math.min(row + 1, rows - 1);
+            int minCol = Math.max(col - 1, 0);
+            int maxCol = Math.min(col + 1, cols - 1);
+
+            int covered = 0;
+            int unflagged = 0;
+            for (int i = minRow; i <= maxRow; i++) {
+                for (int j = minCol; j <= maxCol; j++) {
+                    int neighbor = i * cols + j;
+                    if (neighbor == index) {
+                        continue;
+                    }
+                    if (board.isMine(neighbor)) {
+                        unflagged += (state[neighbor] & FLAGGED) == 0 ? 1 : 0;
+                    } else if ((state[neighbor] & REVEALED) == 0) {
+                        covered++;
+                    }
+                }
+            }
+            // The number itself needs a click either way, so only the chord and the flags are extra
+            if (covered - unflagged - 1 <= 0) {
+                continue;
+            }
+
+            clicks += ((state[index] & REVEALED) == 0 ? 1 : 0) + unflagged + 1;
+            state[index] |= REVEALED;
+            for (int i = minRow; i <= maxRow; i++) {
+                for (int j = minCol; j <= maxCol; j++) {
+                    int neighbor = i * cols + j;
+                    state[neighbor] |= board.isMine(neighbor) ? FLAGGED : REVEALED;
+                }
+            }
+        }
+        return clicks;
+    }
+
+    /**
+     * Counts the spaces without a mine the sweep left covered.
+     */
+    private int countCovered(Board board) {
+        int covered = 0;
+        for (int index = 0; index < board.getSize(); index++) {
+            if ((this.state[index] & REVEALED) == 0 && !board.isMine(index)) {
+                covered++;
+            }
+        }
+        return covered;
+    }
+
+    private static boolean isEmpty(Board board, int index) {
+        return !board.isMine(index) && board.getAdjacentMines(index) == 0;
+    }
+
+    private int find(int index) {
+        int[] parent = this.parent;
+        while (parent[index] != index) {
+            parent[index] = parent[parent[index]];
+            index = parent[index];
+        }
+        return index;
+    }
+
+    private void union(int a, int b) {
+        int rootA = this.find(a);
+        int rootB = this.find(b);
+        if (rootA != rootB) {
+            // Keep the smaller index as the root, so every root is the first space of its opening
+            this.parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    /**
+     * Gets the 3BV of the last board: the least number of left clicks that clears it without flags.
+     *
+     * @return the 3BV
+     */
+    public int getBbbv() {
+        return this.bbbv;
+    }
+
+    /**
+     * Gets the part of the 3BV of the last board that was already done: openings whose spaces are all revealed
+     * and revealed numbers that do not border an opening.
+     *
+     * @return the solved 3BV, equal to {@link #getBbbv()} for a won game
+     */
+    public int getSolvedBbbv() {
+        return this.solvedBbbv;
+    }
+
+    /**
+     * Gets the number of openings of the last board.
+     *
+     * @return the number of openings
+     */
+    public int getOpenings() {
+        return this.openings;
+    }
+
+    /**
+     * Gets the approximate ZiNi of the last board: the least number of clicks that clears it when flags and
+     * chords may be used.
+     *
+     * @return the approximate ZiNi, at most the 3BV
+     */
+    public int getZini() {
+        return this.zini;
+    }
+
+    /**
+     * Gets the 3BV per second of a game on the last board.
+     *
+     * @param millis the time the game took
+     * @return the solved 3BV per second
+     */
+    public double getBbbvPerSecond(long millis) {
+        return millis <= 0 ? 0 : this.solvedBbbv * 1000.0 / millis;
+    }
+
+    /**
+     * Gets the click efficiency of a game on the last board.
+     *
+     * @param clicks the number of clicks the game took, flags and chords included
+     * @return the solved 3BV per click, 1 for a game played in exactly the 3BV
+     */
+    public double getEfficiency(int clicks) {
+        return clicks <= 0 ? 0 : (double) this.solvedBbbv / clicks;
+    }
+}
@@ -0,0 +1,68 @@
+package minesweeper.engine;
+
+/**
+ * The spaces changed by a single action of a {@link GameEngine}.
+ * Only the indices are recorded; the new state of each space is read from the board.
+ * A GameEngine reuses its ChangeSet, so it is only valid until the next action.
+ */
+public final class ChangeSet {
+    private final IntList cells = new IntList(64);
+    private GameStatus status = GameStatus.READY;
+
+    /**
+     * Gets the number of changed spaces.
+     *
+     * @return the number of changed spaces
+     */
+    public int size() {
+        return this.cells.size();
+    }
+
+    /**
+     * Checks if the action changed nothing.
+     *
+     * @return true if no space changed, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.cells.isEmpty();
+    }
+
+    /**
+     * Gets the index of a changed space.
+     *
+     * @param i the position in the change set
+     * @return the index of the changed space
+     */
+    public int get(int i) {
+        return this.cells.get(i);
+    }
+
+    /**
+     * Gets the status of the game after the action.
+     *
+     * @return the game status
+     */
+    public GameStatus getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Gets the list the engine appends changed spaces to.
+     *
+     * @return the list of changed spaces
+     */
+    IntList cells() {
+        return this.cells;
+    }
+
+    /**
+     * Starts a new action.
+     */
+    void clear() {
+        this.cells.clear();
+    }
+
+    void setStatus(GameStatus status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,631 @@
+package minesweeper.engine;
+
+import minesweeper.CommandLine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * An endless board, made of 64x64 chunks that are created as they are first looked at and reach as far
+ * as an int row and column go in every direction.
+ *
+ * <p>Mines are never stored. Every chunk has the same number of mines, placed with a shuffle seeded by the board
+ * seed and the position of the chunk, outside the 3x3 safe zone around the first click. A chunk only keeps
+ * which of its spaces are revealed and flagged, 1 KB, next to its mines while it is in memory.</p>
+ *
+ * <p>At most a fixed number of chunks are kept in memory. The least recently used chunk is dropped when another
+ * one is needed, and written to the store file first if it was changed, so memory stays bounded however far
+ * the game goes. Flood fills work on rows and columns and look chunks up as they go, so openings cross
+ * chunk borders like any other space. With fewer than {@link #MIN_MINES_PER_CHUNK} mines per chunk, openings
+ * could grow without end, so denser boards are required.</p>
+ *
+ * <p>The store file starts with a 64-byte header, followed by one slot per chunk that was ever changed,
+ * in the order they were first written. The header is written again with every chunk dropped from memory,
+ * so a game that was never closed still resumes on the same board:</p>
+ * <pre>
+ * header: int "MSC" version, int minesPerChunk, long seed, int status, int safeRow, int safeCol,
+ *         long revealed, long flagged, unused
+ * slot:   long chunk key (row &lt;&lt; 32 | col), 64 longs of revealed bits, 64 longs of flagged bits
+ * </pre>
+ */
+public final class ChunkedBoard implements Closeable {
+    public static final String FILENAME = "endless.dat";
+
+    /**
+     * The number of rows and columns of a chunk.
+     */
+    public static final int CHUNK_SIDE = 64;
+
+    /**
+     * The fewest mines per chunk. Below about 12% mines, spaces with no adjacent mines connect without end.
+     */
+    public static final int MIN_MINES_PER_CHUNK = 512;
+
+    /**
+     * The most mines per chunk.
+     */
+    public static final int MAX_MINES_PER_CHUNK = 2048;
+
+    /**
+     * The default number of mines per chunk, about as dense as Expert.
+     */
+    public static final int DEFAULT_MINES_PER_CHUNK = 840;
+
+    /**
+     * The default number of chunks kept in memory, about 1.7 MB.
+     */
+    public static final int DEFAULT_MAX_CHUNKS = 1024;
+
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_MASK = CHUNK_SIDE - 1;
+    private static final int MAGIC = ('M' << 16) | ('S' << 8) | 'C';
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 8 + 2 * CHUNK_SIDE * 8;
+
+    /**
+     * The state of one chunk while it is in memory.
+     */
+    private static final class Chunk {
+        private final long key;
+        private final long[] revealed = new long[CHUNK_SIDE]; // One long per row, one bit per column
+        private final long[] flagged = new long[CHUNK_SIDE];
+        private long[] mines; // Placed when first needed after the first click
+        private int slot = -1; // The slot of the chunk in the store file, or -1 if it was never written
+        private boolean dirty = false;
+
+        private Chunk(long key) {
+            this.key = key;
+        }
+    }
+
+    private final FileChannel store;
+    private final long seed;
+    private final int minesPerChunk;
+    private final Map<Long, Chunk> chunks;
+    private final Map<Long, Integer> slots = new HashMap<>(); // Chunks in the store file
+    private final ByteBuffer slotBuffer = ByteBuffer.allocate(SLOT_SIZE);
+    private final ByteBuffer headerBuffer = ByteBuffer.allocate(HEADER_SIZE);
+    private Chunk last; // The chunk of the last lookup, checked before the map
+
+    private GameStatus status = GameStatus.READY;
+    private int safeRow;
+    private int safeCol;
+    private long revealed = 0;
+    private long flagged = 0;
+
+    private final int[] scratch = new int[CHUNK_SIDE * CHUNK_SIDE];
+    private long[] worklist = new long[256];
+    private int worklistSize = 0;
+
+    private ChunkedBoard(FileChannel store, long seed, int minesPerChunk, int maxChunks) {
+        this.store = store;
+        this.seed = seed;
+        this.minesPerChunk = minesPerChunk;
+        this.chunks = new LinkedHashMap<>(maxChunks * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+                if (this.size() <= maxChunks) {
+                    return false;
+                }
+                try {
+                    ChunkedBoard.this.evict(eldest.getValue());
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Opens an endless board, resuming the game in the store file if there is one.
+     *
+     * @param file          the store file, created if it does not exist
+     * @param seed          the seed of a new board, ignored when a game is resumed
+     * @param minesPerChunk the number of mines per chunk of a new board, ignored when a game is resumed
+     * @param maxChunks     the number of chunks kept in memory, at least 9
+     * @return the board
+     * @throws IOException if the store file cannot be opened or is not a store file
+     */
+    public static ChunkedBoard open(Path file, long seed, int minesPerChunk, int maxChunks) throws IOException {
+        if (maxChunks < 9) {
+            throw new IllegalArgumentException("At least 9 chunks must fit in memory: " + maxChunks);
+        }
+        FileChannel store = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (store.size() == 0) {
+                if (minesPerChunk < MIN_MINES_PER_CHUNK || minesPerChunk > MAX_MINES_PER_CHUNK) {
+                    throw new IllegalArgumentException("Number of mines per chunk must be between " + MIN_MINES_PER_CHUNK
+                            + " and " + MAX_MINES_PER_CHUNK + ": " + minesPerChunk);
+                }
+                ChunkedBoard board = new ChunkedBoard(store, seed, minesPerChunk, maxChunks);
+                board.writeHeader();
+                return board;
+            }
+            return resume(store, maxChunks);
+        }
+        catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
+        }
+    }
+
+    private static ChunkedBoard resume(FileChannel store, int maxChunks) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        store.read(header, 0);
+        if (header.position() < HEADER_SIZE || header.getInt(0) >>> 8 != MAGIC || (header.getInt(0) & 0xFF) != VERSION) {
+            throw new IOException("Not an endless board file");
+        }
+        ChunkedBoard board = new ChunkedBoard(store, header.getLong(8), header.getInt(4), maxChunks);
+        board.status = GameStatus.values()[header.getInt(16)];
+        board.safeRow = header.getInt(20);
+        board.safeCol = header.getInt(24);
+        board.revealed = header.getLong(28);
+        board.flagged = header.getLong(36);
+
+        // Index the chunks in the store, ignoring a slot torn by a crash
+        int slots = (int) ((store.size() - HEADER_SIZE) / SLOT_SIZE);
+        ByteBuffer key = ByteBuffer.allocate(8);
+        for (int slot = 0; slot < slots; slot++) {
+            key.clear();
+            store.read(key, HEADER_SIZE + (long) slot * SLOT_SIZE);
+            board.slots.put(key.getLong(0), slot);
+        }
+        return board;
+    }
+
+    /**
+     * Gets the packed state of a space, in the same format as {@link Board#get(int)}.
+     * Mines and adjacent mine counts are only set once the first space is revealed.
+     *
+     * @param row the row of the space
+     * @param col the column of the space
+     * @return the packed state
+     */
+    public int get(int row, int col) {
+        Chunk chunk = this.chunk(row, col);
+        int state = (bit(chunk.revealed, row, col) ? Board.REVEALED : 0) | (bit(chunk.flagged, row, col) ? Board.FLAGGED : 0);
+        if (this.status == GameStatus.READY) {
+            return state;
+        }
+        return state | (this.isMine(row, col) ? Board.MINE : 0) | this.countAdjacentMines(row, col);
+    }
+
+    /**
+     * Checks if a space is revealed.
+     *
+     * @param row the row of the space
+     * @param col the column of the space
+     * @return true if the space is revealed, false otherwise
+     */
+    public boolean isRevealed(int row, int col) {
+        return bit(this.chunk(row, col).revealed, row, col);
+    }
+
+    /**
+     * Checks if a space is flagged.
+     *
+     * @param row the row of the space
+     * @param col the column of the space
+     * @return true if the space is flagged, false otherwise
+     */
+    public boolean isFlagged(int row, int col) {
+        return bit(this.chunk(row, col).flagged, row, col);
+    }
+
+    /**
+     * Reveals a space and opens the area around it if it has no adjacent mines. The first reveal of a game
+     * decides the safe zone the mines of every chunk are placed around. Flagged and already revealed spaces
+     * are left alone.
+     *
+     * @param row the row of the space
+     * @param col the column of the space
+     * @return the number of newly revealed spaces
+     */
+    public long reveal(int row, int col) {
+        if (this.status.isFinished() || this.isRevealed(row, col) || this.isFlagged(row, col)) {
+            return 0;
+        }
+        if (this.status == GameStatus.READY) {
+            this.safeRow = row;
+            this.safeCol = col;
+            this.status = GameStatus.PLAYING;
+        }
+        return this.open(row, col);
+    }
+
+    /**
+     * Places or removes a flag on a covered space.
+     *
+     * @param row the row of the space
+     * @param col the column of the space
+     * @return true if the space is flagged now
+     */
+    public boolean toggleFlag(int row, int col) {
+        if (this.status.isFinished() || this.isRevealed(row, col)) {
+            return false;
+        }
+        Chunk chunk = this.chunk(row, col);
+        chunk.flagged[row & CHUNK_MASK] ^= 1L << (col & CHUNK_MASK);
+        chunk.dirty = true;
+        boolean flagged = bit(chunk.flagged, row, col);
+        this.flagged += flagged ? 1 : -1;
+        return flagged;
+    }
+
+    /**
+     * Reveals every covered, unflagged neighbor of a revealed number that has as many flags around it as its number.
+     *
+     * @param row the row of the revealed number
+     * @param col the column of the revealed number
+     * @return the number of newly revealed spaces
+     */
+    public long chord(int row, int col) {
+        if (this.status != GameStatus.PLAYING || !this.isRevealed(row, col)) {
+            return 0;
+        }
+        int flags = 0;
+        for (int i = row - 1; i <= row + 1; i++) {
+            for (int j = col - 1; j <= col + 1; j++) {
+                flags += this.isFlagged(i, j) ? 1 : 0;
+            }
+        }
+        int adjacent = this.countAdjacentMines(row, col);
+        if (adjacent == 0 || flags != adjacent) {
+            return 0;
+        }
+
+        long count = 0;
+        for (int i = row - 1; i <= row + 1; i++) {
+            for (int j = col - 1; j <= col + 1; j++) {
+                if (this.status == GameStatus.PLAYING && !this.isRevealed(i, j) && !this.isFlagged(i, j)) {
+                    count += this.open(i, j);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the status of the game. An endless game is never won.
+     *
+     * @return the status of the game
+     */
+    public GameStatus getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Gets the number of revealed spaces without a mine, the score of the game.
+     *
+     * @return the number of revealed spaces
+     */
+    public long getRevealedSpaces() {
+        return this.revealed;
+    }
+
+    /**
+     * Gets the number of flagged spaces.
+     *
+     * @return the number of flagged spaces
+     */
+    public long getFlaggedSpaces() {
+        return this.flagged;
+    }
+
+    /**
+     * Gets the row of the first click.
+     *
+     * @return the row of the first click, or 0 before it
+     */
+    public int getStartRow() {
+        return this.safeRow;
+    }
+
+    /**
+     * Gets the column of the first click.
+     *
+     * @return the column of the first click, or 0 before it
+     */
+    public int getStartCol() {
+        return this.safeCol;
+    }
+
+    /**
+     * Gets the number of mines in each chunk.
+     *
+     * @return the number of mines per chunk
+     */
+    public int getMinesPerChunk() {
+        return this.minesPerChunk;
+    }
+
+    /**
+     * Gets the number of chunks in memory.
+     *
+     * @return the number of chunks in memory
+     */
+    public int getLoadedChunks() {
+        return this.chunks.size();
+    }
+
+    /**
+     * Gets the number of chunks in the store file.
+     *
+     * @return the number of stored chunks
+     */
+    public int getStoredChunks() {
+        return this.slots.size();
+    }
+
+    /**
+     * Writes every changed chunk and the header to the store file, so the game can be resumed from it.
+     *
+     * @throws IOException if the store file cannot be written
+     */
+    public void sync() throws IOException {
+        for (Chunk chunk : this.chunks.values()) {
+            this.spill(chunk);
+        }
+        this.writeHeader();
+        this.store.force(false);
+    }
+
+    /**
+     * Saves the game and closes the store file.
+     *
+     * @throws IOException if the store file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.sync();
+        }
+        finally {
+            this.store.close();
+        }
+    }
+
+    /**
+     * Reveals a covered space, and the area around it if it has no adjacent mines.
+     * Loses the game if the space is a mine.
+     */
+    private long open(int startRow, int startCol) {
+        this.setRevealed(startRow, startCol);
+        if (this.isMine(startRow, startCol)) {
+            this.status = GameStatus.LOST;
+            return 1;
+        }
+
+        long count = 1;
+        this.worklistSize = 0;
+        if (this.countAdjacentMines(startRow, startCol) == 0) {
+            this.push(startRow, startCol);
+        }
+        while (this.worklistSize > 0) {
+            long packed = this.worklist[--this.worklistSize];
+            int row = (int) (packed >> 32);
+            int col = (int) packed;
+            for (int i = row - 1; i <= row + 1; i++) {
+                for (int j = col - 1; j <= col + 1; j++) {
+                    // Neighbors of a space with no adjacent mines are never mines themselves
+                    if (this.isRevealed(i, j) || this.isFlagged(i, j)) {
+                        continue;
+                    }
+                    this.setRevealed(i, j);
+                    count++;
+                    if (this.countAdjacentMines(i, j) == 0) {
+                        this.push(i, j);
+                    }
+                }
+            }
+        }
+        this.revealed += count;
+        return count;
+    }
+
+    private void push(int row, int col) {
+        if (this.worklistSize == this.worklist.length) {
+            this.worklist = Arrays.copyOf(this.worklist, this.worklist.length * 2);
+        }
+        this.worklist[this.worklistSize++] = ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    private void setRevealed(int row, int col) {
+        Chunk chunk = this.chunk(row, col);
+        chunk.revealed[row & CHUNK_MASK] |= 1L << (col & CHUNK_MASK);
+        chunk.dirty = true;
+    }
+
+    private static boolean bit(long[] bits, int row, int col) {
+        return (bits[row & CHUNK_MASK] >>> (col & CHUNK_MASK) & 1) != 0;
+    }
+
+    private int countAdjacentMines(int row, int col) {
+        int count = 0;
+        for (int i = row - 1; i <= row + 1; i++) {
+            for (int j = col - 1; j <= col + 1; j++) {
+                if ((i != row || j != col) && this.isMine(i, j)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean isMine(int row, int col) {
+        if (this.status == GameStatus.READY) {
+            return false;
+        }
+        Chunk chunk = this.chunk(row, col);
+        if (chunk.mines == null) {
+            chunk.mines = this.placeMines(chunk.key);
+        }
+        return bit(chunk.mines, row, col);
+    }
+
+    /**
+     * Gets the chunk of a space, reading it from the store file or creating it if it is not in memory.
+     */
+    private Chunk chunk(int row, int col) {
+        long key = ((long) (row >> CHUNK_SHIFT) << 32) | ((col >> CHUNK_SHIFT) & 0xFFFFFFFFL);
+        if (this.last != null && this.last.key == key) {
+            return this.last;
+        }
+        Chunk chunk = this.chunks.get(key);
+        if (chunk == null) {
+            chunk = new Chunk(key);
+            Integer slot = this.slots.get(key);
+            if (slot != null) {
+                this.load(chunk, slot);
+            }
+            this.chunks.put(key, chunk);
+        }
+        this.last = chunk;
+        return chunk;
+    }
+
+    /**
+     * Places the mines of a chunk with a shuffle of its spaces outside the safe zone.
+     */
+    private long[] placeMines(long key) {
+        int firstRow = (int) (key >> 32) << CHUNK_SHIFT;
+        int firstCol = (int) key << CHUNK_SHIFT;
+        int eligible = 0;
+        for (int i = 0; i < CHUNK_SIDE; i++) {
+            for (int j = 0; j < CHUNK_SIDE; j++) {
+                if (Math.abs((long) firstRow + i - this.safeRow) > 1 || Math.abs((long) firstCol + j - this.safeCol) > 1) {
+                    this.scratch[eligible++] = (i << CHUNK_SHIFT) | j;
+                }
+            }
+        }
+
+        long[] mines = new long[CHUNK_SIDE];
+        SplittableRandom random = new SplittableRandom(Seeds.mix(this.seed, key));
+        for (int m = 0; m < this.minesPerChunk; m++) {
+            int k = m + random.nextInt(eligible - m);
+            int picked = this.scratch[k];
+            this.scratch[k] = this.scratch[m];
+            mines[picked >>> CHUNK_SHIFT] |= 1L << (picked & CHUNK_MASK);
+        }
+        return mines;
+    }
+
+    /**
+     * Writes a chunk that is dropped from memory to the store file if it changed, together with the header.
+     * The header then always has the status and the safe zone the stored chunks were played with, so a store
+     * left behind by a crash resumes on the same board.
+     */
+    private void evict(Chunk chunk) throws IOException {
+        if (chunk.dirty) {
+            this.spill(chunk);
+            this.writeHeader();
+        }
+    }
+
+    /**
+     * Writes a chunk to its slot in the store file if it changed since it was last written.
+     */
+    private void spill(Chunk chunk) throws IOException {
+        if (!chunk.dirty) {
+            return;
+        }
+        if (chunk.slot < 0) {
+            chunk.slot = this.slots.size();
+            this.slots.put(chunk.key, chunk.slot);
+        }
+        ByteBuffer buffer = this.slotBuffer.clear();
+        buffer.putLong(chunk.key);
+        for (long bits : chunk.revealed) {
+            buffer.putLong(bits);
+        }
+        for (long bits : chunk.flagged) {
+            buffer.putLong(bits);
+        }
+        this.store.write(buffer.flip(), HEADER_SIZE + (long) chunk.slot * SLOT_SIZE);
+        chunk.dirty = false;
+    }
+
+    private void load(Chunk chunk, int slot) {
+        ByteBuffer buffer = this.slotBuffer.clear();
+        try {
+            this.store.read(buffer, HEADER_SIZE + (long) slot * SLOT_SIZE);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.flip().getLong();
+        for (int i = 0; i < CHUNK_SIDE; i++) {
+            chunk.revealed[i] = buffer.getLong();
+        }
+        for (int i = 0; i < CHUNK_SIDE; i++) {
+            chunk.flagged[i] = buffer.getLong();
+        }
+        chunk.slot = slot;
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = this.headerBuffer.clear();
+        header.putInt(0, (MAGIC << 8) | VERSION)
+                .putInt(4, this.minesPerChunk)
+                .putLong(8, this.seed)
+                .putInt(16, this.status.ordinal())
+                .putInt(20, this.safeRow)
+                .putInt(24, this.safeCol)
+                .putLong(28, this.revealed)
+                .putLong(36, this.flagged);
+        this.store.write(header, 0);
+    }
+
+    /**
+     * Opens or resumes an endless board and reveals random spaces without a mine further and further away
+     * from the start from the command line, printing the chunks in memory and in the store.
+     *
+     * @param args options in the form {@code --name=value}: file, seed, mines (per chunk), chunks (in memory) and reveals
+     * @throws IOException if the store file cannot be opened
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = CommandLine.parseOptions(args);
+        Path file = Path.of(options.getOrDefault("file", FILENAME));
+        long seed = Long.parseLong(options.getOrDefault("seed", String.valueOf(System.nanoTime())));
+        int minesPerChunk = Integer.parseInt(options.getOrDefault("mines", String.valueOf(DEFAULT_MINES_PER_CHUNK)));
+        int maxChunks = Integer.parseInt(options.getOrDefault("chunks", String.valueOf(DEFAULT_MAX_CHUNKS)));
+        int reveals = Integer.parseInt(options.getOrDefault("reveals", "100000"));
+
+        try (ChunkedBoard board = open(file, seed, minesPerChunk, maxChunks)) {
+            SplittableRandom random = new SplittableRandom();
+            int row = board.status == GameStatus.READY ? 0 : board.safeRow;
+            int col = board.status == GameStatus.READY ? 0 : board.safeCol;
+            long opened = 0;
+            long start = System.nanoTime();
+            for (int played = 0; played < reveals && !board.status.isFinished(); ) {
+                // Wander away from the start, so chunks keep being created and dropped
+                row += random.nextInt(-40, 41);
+                col += random.nextInt(-40, 41);
+                if (board.status == GameStatus.PLAYING && (board.isRevealed(row, col) || board.isMine(row, col))) {
+                    continue;
+                }
+                opened += board.reveal(row, col);
+                played++;
+            }
+            long nanos = System.nanoTime() - start;
+            Runtime runtime = Runtime.getRuntime();
+            System.out.printf("%d spaces opened in %.2f ms, %d revealed in total, game %s, now at %d, %d%n",
+                    opened, nanos / 1e6, board.revealed, board.status, row, col);
+            System.out.printf("%d chunks in memory, %d in the store, heap in use: %.1f MB%n",
+                    board.getLoadedChunks(), board.getStoredChunks(), (runtime.totalMemory() - runtime.freeMemory()) / 1e6);
+        }
+    }
+}
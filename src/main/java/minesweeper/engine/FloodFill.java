@@ -0,0 +1,65 @@
+package minesweeper.engine;
+
+/**
+ * Reveals a space and every space connected to it through spaces with no adjacent mines.
+ * Uses an explicit worklist instead of recursion, so large openings cannot overflow the stack,
+ * and reuses it between calls so a reveal allocates nothing once it has grown.
+ */
+public final class FloodFill {
+    private final IntList worklist = new IntList(256);
+
+    /**
+     * Reveals the space at the given index and opens the area around it if it has no adjacent mines.
+     * Flagged and already revealed spaces are left alone. A space is marked revealed as soon as it is
+     * queued, so the revealed bit of the board doubles as the visited set and nothing has to be cleared
+     * between calls.
+     *
+     * @param board    the board to reveal on
+     * @param start    the index of the space to reveal
+     * @param revealed the list to append the index of every newly revealed space to, in reveal order
+     * @return the number of newly revealed spaces
+     */
+    public int reveal(Board board, int start, IntList revealed) {
+        this.worklist.clear();
+        if (board.isRevealed(start) || board.isFlagged(start)) {
+            return 0;
+        }
+
+        board.setRevealed(start, true);
+        revealed.add(start);
+        if (board.isMine(start) || board.getAdjacentMines(start) != 0) {
+            return 1;
+        }
+
+        int count = 1;
+        final int rows = board.getRows();
+        final int cols = board.getCols();
+        this.worklist.add(start);
+        while (!this.worklist.isEmpty()) {
+            int index = this.worklist.pop();
+            int row = index / cols;
+            int col = index - row * cols;
+            int minRow = Math.max(row - 1, 0);
+            int maxRow = Math.min(row + 1, rows - 1);
+            int minCol = Math.max(col - 1, 0);
+            int maxCol = Math.min(col + 1, cols - 1);
+            for (int i = minRow; i <= maxRow; i++) {
+                int rowStart = i * cols;
+                for (int j = minCol; j <= maxCol; j++) {
+                    int neighbor = rowStart + j;
+                    // Neighbors of a space with no adjacent mines are never mines themselves
+                    if (board.isRevealed(neighbor) || board.isFlagged(neighbor)) {
+                        continue;
+                    }
+                    board.setRevealed(neighbor, true);
+                    revealed.add(neighbor);
+                    count++;
+                    if (board.getAdjacentMines(neighbor) == 0) {
+                        this.worklist.add(neighbor);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
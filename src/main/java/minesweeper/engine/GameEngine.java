@@ -0,0 +1,538 @@
+package minesweeper.engine;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * The rules of Minesweeper without any user interface.
+ * Mines are placed on the first reveal so the first click always opens an area, and every action
+ * returns the spaces it changed so a view can update only those.
+ */
+public final class GameEngine {
+    private final Board board = new Board(0, 0); // Reused between games, only grows for larger boards
+    private final FloodFill floodFill = new FloodFill();
+    private final MinePlacer minePlacer = new MinePlacer();
+    private final ChangeSet changes = new ChangeSet();
+
+    private int mines;
+    private long seed;
+    private int safeIndex = -1;
+    private GameStatus status = GameStatus.READY;
+    private int revealedSpaces = 0;
+    private int flaggedSpaces = 0;
+    private final BitSet flags = new BitSet(); // Flagged spaces, so they can be found without scanning the board
+    private IntList mineIndices;
+    private UndoLog undoLog; // Only set while undo is enabled
+
+    /**
+     * Constructor for the GameEngine class.
+     *
+     * @param rows  the number of rows
+     * @param cols  the number of columns
+     * @param mines the number of mines
+     * @param seed  the seed the mines are placed with
+     */
+    public GameEngine(int rows, int cols, int mines, long seed) {
+        this.newGame(rows, cols, mines, seed);
+    }
+
+    /**
+     * Starts a new game, reusing the board storage.
+     *
+     * @param rows  the number of rows
+     * @param cols  the number of columns
+     * @param mines the number of mines
+     * @param seed  the seed the mines are placed with
+     */
+    public void newGame(int rows, int cols, int mines, long seed) {
+        this.newGame(rows, cols, mines, seed, -1);
+    }
+
+    /**
+     * Starts a new game whose mines are placed around a fixed space instead of the first click.
+     * Used for boards generated ahead of time, which must come out the same wherever the first click lands.
+     *
+     * @param rows      the number of rows
+     * @param cols      the number of columns
+     * @param mines     the number of mines
+     * @param seed      the seed the mines are placed with
+     * @param safeIndex the index of the space the 3x3 safe zone is centered on, or -1 for the first click
+     */
+    public void newGame(int rows, int cols, int mines, long seed, int safeIndex) {
+        if (mines < 0 || mines > (long) rows * cols) {
+            throw new IllegalArgumentException("Invalid number of mines: " + mines + " for " + rows + "x" + cols);
+        }
+
+        this.board.reset(rows, cols);
+        if (safeIndex >= this.board.getSize()) {
+            throw new IllegalArgumentException("Safe space " + safeIndex + " is outside the " + rows + "x" + cols + " board");
+        }
+        this.mines = mines;
+        this.seed = seed;
+        this.safeIndex = safeIndex;
+        this.status = GameStatus.READY;
+        this.revealedSpaces = 0;
+        this.flaggedSpaces = 0;
+        this.flags.clear();
+        this.mineIndices = null;
+        if (this.undoLog != null) {
+            this.undoLog.clear();
+        }
+        this.changes.clear();
+        this.changes.setStatus(this.status);
+    }
+
+    /**
+     * Enables or disables undo and redo. While enabled, every action is recorded as the spaces it changed.
+     * The history starts empty, and is forgotten when a new game starts or undo is disabled.
+     *
+     * @param enabled true to record actions for undo, false otherwise
+     */
+    public void setUndoEnabled(boolean enabled) {
+        if (!enabled) {
+            this.undoLog = null;
+        } else if (this.undoLog == null) {
+            this.undoLog = new UndoLog();
+        }
+    }
+
+    /**
+     * Checks if there is an action to undo.
+     *
+     * @return true if undo is enabled and an action can be undone, false otherwise
+     */
+    public boolean canUndo() {
+        return this.undoLog != null && this.undoLog.canUndo();
+    }
+
+    /**
+     * Checks if there is an undone action to redo.
+     *
+     * @return true if undo is enabled and an action can be redone, false otherwise
+     */
+    public boolean canRedo() {
+        return this.undoLog != null && this.undoLog.canRedo();
+    }
+
+    /**
+     * Undoes the last action that is not undone, in time proportional to the spaces it changed.
+     * Undoing the first reveal of a game also removes its mines, which the next reveal places again.
+     *
+     * @return the spaces that were covered again or unflagged, or nothing if there is no action to undo
+     */
+    public ChangeSet undo() {
+        this.changes.clear();
+        int action = this.undoLog != null ? this.undoLog.undo() : -1;
+        if (action >= 0) {
+            final int cells = this.undoLog.getCells(action);
+            for (int i = 0; i < cells; i++) {
+                int index = this.undoLog.getCell(action, i);
+                if (this.undoLog.getKind(action) == UndoLog.FLAG) {
+                    this.setFlag(index, !this.board.isFlagged(index));
+                } else {
+                    this.board.setRevealed(index, false);
+                    this.revealedSpaces -= this.board.isMine(index) ? 0 : 1;
+                }
+                this.changes.cells().add(index);
+            }
+            this.status = this.undoLog.getBefore(action);
+            if (this.status == GameStatus.READY && this.mineIndices != null) {
+                this.clearMines();
+            }
+        }
+        this.changes.setStatus(this.status);
+        return this.changes;
+    }
+
+    /**
+     * Redoes the first undone action, in time proportional to the spaces it changed.
+     *
+     * @return the spaces that were revealed or flagged again, or nothing if there is no action to redo
+     */
+    public ChangeSet redo() {
+        this.changes.clear();
+        int action = this.undoLog != null ? this.undoLog.redo() : -1;
+        if (action >= 0) {
+            if (this.status == GameStatus.READY && this.undoLog.getKind(action) == UndoLog.REVEAL) {
+                this.placeMines(this.undoLog.getIndex(action)); // The same mines as before, from the same seed
+            }
+            final int cells = this.undoLog.getCells(action);
+            for (int i = 0; i < cells; i++) {
+                int index = this.undoLog.getCell(action, i);
+                if (this.undoLog.getKind(action) == UndoLog.FLAG) {
+                    this.setFlag(index, !this.board.isFlagged(index));
+                } else {
+                    this.board.setRevealed(index, true);
+                    this.revealedSpaces += this.board.isMine(index) ? 0 : 1;
+                }
+                this.changes.cells().add(index);
+            }
+            this.status = this.undoLog.getAfter(action);
+        }
+        this.changes.setStatus(this.status);
+        return this.changes;
+    }
+
+    /**
+     * Records the action that just changed the spaces in the change set, if undo is enabled.
+     */
+    private void recordUndo(int kind, int index, GameStatus before) {
+        if (this.undoLog != null && !this.changes.isEmpty()) {
+            this.undoLog.record(kind, index, before, this.status, this.changes.cells());
+        }
+    }
+
+    /**
+     * Takes a snapshot of the current game, see {@link GameSnapshot}.
+     *
+     * @return the snapshot
+     */
+    public GameSnapshot snapshot() {
+        return new GameSnapshot(this.board.getRows(), this.board.getCols(), this.mines, this.seed, this.safeIndex, this.status,
+                this.board.copyCells());
+    }
+
+    /**
+     * Replaces the current game with a snapshot. The mines are set from the snapshot rather than placed again,
+     * so boards from a no-guess pool are restored as well.
+     *
+     * @param snapshot the snapshot to restore
+     * @return every revealed and flagged space
+     */
+    public ChangeSet restore(GameSnapshot snapshot) {
+        this.newGame(snapshot.getRows(), snapshot.getCols(), snapshot.getMines(), snapshot.getSeed(), snapshot.getSafeIndex());
+        final int size = this.board.getSize();
+        if (snapshot.getStatus() != GameStatus.READY) {
+            IntList mineIndices = new IntList(Math.max(1, this.mines));
+            for (int index = 0; index < size; index++) {
+                if ((snapshot.get(index) & Board.MINE) != 0) {
+                    this.board.setMine(index, true);
+                    mineIndices.add(index);
+                }
+            }
+            this.board.computeAdjacentMines(mineIndices);
+            this.mineIndices = mineIndices;
+        }
+
+        for (int index = 0; index < size; index++) {
+            int state = snapshot.get(index);
+            if ((state & Board.REVEALED) != 0) {
+                this.board.setRevealed(index, true);
+                this.revealedSpaces += (state & Board.MINE) == 0 ? 1 : 0;
+                this.changes.cells().add(index);
+            } else if ((state & Board.FLAGGED) != 0) {
+                this.board.setFlagged(index, true);
+                this.flags.set(index);
+                this.flaggedSpaces++;
+                this.changes.cells().add(index);
+            }
+        }
+        this.status = snapshot.getStatus();
+        this.changes.setStatus(this.status);
+        return this.changes;
+    }
+
+    /**
+     * Reveals a space. The first reveal of a game places the mines around it.
+     * Flagged and already revealed spaces are left alone.
+     *
+     * @param row the row of the space
+     * @param col the column of the space
+     * @return the spaces that were revealed
+     */
+    public ChangeSet reveal(int row, int col) {
+        return this.reveal(this.board.index(row, col));
+    }
+
+    /**
+     * Reveals a space by index. The first reveal of a game places the mines around it.
+     * Flagged and already revealed spaces are left alone.
+     *
+     * @param index the index of the space
+     * @return the spaces that were revealed
+     */
+    public ChangeSet reveal(int index) {
+        this.changes.clear();
+        GameStatus before = this.status;
+        if (!this.status.isFinished()) {
+            this.revealSpace(index);
+        }
+        this.recordUndo(UndoLog.REVEAL, index, before);
+        this.changes.setStatus(this.status);
+        return this.changes;
+    }
+
+    /**
+     * Places or removes a flag on a covered space.
+     *
+     * @param row the row of the space
+     * @param col the column of the space
+     * @return the flagged or unflagged space, or nothing if the space is revealed
+     */
+    public ChangeSet toggleFlag(int row, int col) {
+        return this.toggleFlag(this.board.index(row, col));
+    }
+
+    /**
+     * Places or removes a flag on a covered space by index.
+     *
+     * @param index the index of the space
+     * @return the flagged or unflagged space, or nothing if the space is revealed
+     */
+    public ChangeSet toggleFlag(int index) {
+        this.changes.clear();
+        if (!this.status.isFinished() && !this.board.isRevealed(index)) {
+            this.setFlag(index, !this.board.isFlagged(index));
+            this.changes.cells().add(index);
+        }
+        this.recordUndo(UndoLog.FLAG, index, this.status);
+        this.changes.setStatus(this.status);
+        return this.changes;
+    }
+
+    /**
+     * Reveals every covered, unflagged neighbor of a revealed number that has as many flags around it as its number.
+     *
+     * @param row the row of the revealed number
+     * @param col the column of the revealed number
+     * @return the spaces that were revealed
+     */
+    public ChangeSet chord(int row, int col) {
+        return this.chord(this.board.index(row, col));
+    }
+
+    /**
+     * Chords on a revealed number by index, see {@link #chord(int, int)}.
+     *
+     * @param index the index of the revealed number
+     * @return the spaces that were revealed
+     */
+    public ChangeSet chord(int index) {
+        this.changes.clear();
+        GameStatus before = this.status;
+        if (this.status == GameStatus.PLAYING) {
+            this.chordSpace(index);
+        }
+        this.recordUndo(UndoLog.REVEAL, index, before);
+        this.changes.setStatus(this.status);
+        return this.changes;
+    }
+
+    /**
+     * Handles a left click: chords on a revealed number and reveals a covered space.
+     *
+     * @param row the row of the clicked space
+     * @param col the column of the clicked space
+     * @return the spaces that were revealed
+     */
+    public ChangeSet click(int row, int col) {
+        return this.click(this.board.index(row, col));
+    }
+
+    /**
+     * Handles a left click by index: chords on a revealed number and reveals a covered space.
+     *
+     * @param index the index of the clicked space
+     * @return the spaces that were revealed
+     */
+    public ChangeSet click(int index) {
+        if (this.board.isRevealed(index)) {
+            return this.chord(index);
+        }
+        return this.reveal(index);
+    }
+
+    private void revealSpace(int index) {
+        if (this.board.isRevealed(index) || this.board.isFlagged(index)) {
+            return;
+        }
+
+        if (this.status == GameStatus.READY) {
+            this.placeMines(index);
+        }
+
+        int count = this.floodFill.reveal(this.board, index, this.changes.cells());
+        if (this.board.isMine(index)) {
+            this.status = GameStatus.LOST;
+            return;
+        }
+
+        this.revealedSpaces += count;
+        if (this.revealedSpaces == this.board.getSize() - this.mines) {
+            this.status = GameStatus.WON;
+        }
+    }
+
+    /**
+     * Places the mines of the game around the first click, or around the fixed safe space if there is one.
+     */
+    private void placeMines(int click) {
+        int safe = this.safeIndex >= 0 ? this.safeIndex : click;
+        this.mineIndices = this.minePlacer.place(this.board, this.mines, this.board.row(safe), this.board.col(safe),
+                new SplittableRandom(this.seed));
+        this.status = GameStatus.PLAYING;
+    }
+
+    /**
+     * Removes the mines and adjacent mine counts from the board, keeping the flags.
+     */
+    private void clearMines() {
+        this.board.removeMines(this.mineIndices);
+        this.mineIndices = null;
+    }
+
+    private void setFlag(int index, boolean flagged) {
+        this.board.setFlagged(index, flagged);
+        this.flaggedSpaces += flagged ? 1 : -1;
+        this.flags.set(index, flagged);
+    }
+
+    private void chordSpace(int index) {
+        final int row = this.board.row(index);
+        final int col = this.board.col(index);
+        int number = this.board.getAdjacentMines(index);
+        if (!this.board.isRevealed(index) || number == 0) {
+            return;
+        }
+
+        final int minRow = Math.max(row - 1, 0);
+        final int maxRow = Math.min(row + 1, this.board.getRows() - 1);
+        final int minCol = Math.max(col - 1, 0);
+        final int maxCol = Math.min(col + 1, this.board.getCols() - 1);
+        int numFlags = 0;
+        for (int i = minRow; i <= maxRow; i++) {
+            for (int j = minCol; j <= maxCol; j++) {
+                if (this.board.isFlagged(this.board.index(i, j))) {
+                    numFlags++;
+                }
+            }
+        }
+        if (numFlags != number) {
+            return;
+        }
+
+        // Reveal all adjacent spaces if the correct number of flags are placed
+        for (int i = minRow; i <= maxRow; i++) {
+            for (int j = minCol; j <= maxCol; j++) {
+                this.revealSpace(this.board.index(i, j));
+                if (this.status.isFinished()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the board of the current game.
+     *
+     * @return the board
+     */
+    public Board getBoard() {
+        return this.board;
+    }
+
+    /**
+     * Gets the status of the current game.
+     *
+     * @return the game status
+     */
+    public GameStatus getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Gets the number of mines on the board.
+     *
+     * @return the number of mines
+     */
+    public int getMines() {
+        return this.mines;
+    }
+
+    /**
+     * Gets the seed the mines of the current game are placed with.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Sets the seed the mines of the current game are placed with.
+     * Only has an effect before the first reveal of the game.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Gets the space the safe zone of the current game is centered on.
+     *
+     * @return the index of the space, or -1 if the safe zone is around the first click
+     */
+    public int getSafeIndex() {
+        return this.safeIndex;
+    }
+
+    /**
+     * Gets the number of revealed spaces without a mine.
+     *
+     * @return the number of revealed spaces
+     */
+    public int getRevealedSpaces() {
+        return this.revealedSpaces;
+    }
+
+    /**
+     * Gets the number of flagged spaces.
+     *
+     * @return the number of flags
+     */
+    public int getFlaggedSpaces() {
+        return this.flaggedSpaces;
+    }
+
+    /**
+     * Gets the flagged spaces.
+     *
+     * @return the indices of the flagged spaces, updated in place by later actions
+     */
+    public BitSet getFlags() {
+        return this.flags;
+    }
+
+    /**
+     * Finds the spaces that change when a lost game is shown: the mines that were neither revealed nor flagged, and
+     * the flags on spaces that are not mines. Only the mines and the flags are visited, not the whole board.
+     *
+     * @param hiddenMines the list the hidden mines are added to
+     * @param wrongFlags  the list the wrong flags are added to, in order of index
+     */
+    public void findMissedSpaces(IntList hiddenMines, IntList wrongFlags) {
+        if (this.mineIndices != null) {
+            for (int k = 0; k < this.mineIndices.size(); k++) {
+                int index = this.mineIndices.get(k);
+                if (!this.board.isRevealed(index) && !this.board.isFlagged(index)) {
+                    hiddenMines.add(index);
+                }
+            }
+        }
+        for (int index = this.flags.nextSetBit(0); index >= 0; index = this.flags.nextSetBit(index + 1)) {
+            if (!this.board.isMine(index)) {
+                wrongFlags.add(index);
+            }
+        }
+    }
+
+    /**
+     * Gets the indices of the mines, once they are placed.
+     *
+     * @return the mine indices, or null before the first reveal
+     */
+    public IntList getMineIndices() {
+        return this.mineIndices;
+    }
+}
@@ -0,0 +1,179 @@
+package minesweeper.engine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The state of a game at one moment, to save a game in progress and restore it later with
+ * {@link GameEngine#restore(GameSnapshot)}.
+ *
+ * <p>Taking a snapshot copies the board in one array copy, so it is cheap enough to take on the JavaFX thread
+ * between moves. The copy is only bit-packed when it is written, which can happen on another thread:
+ * one bitmap each for the mines, the revealed spaces and the flags, 3 bits per space. Adjacent mine counts
+ * are recomputed from the mines on restore.</p>
+ *
+ * <pre>
+ * int "MSG" version, int rows, int cols, int mines, long seed, int safeIndex, byte status,
+ * then ceil(rows * cols / 64) longs for each of the mine (only once the mines are placed), revealed and flag bitmaps
+ * </pre>
+ */
+public final class GameSnapshot {
+    private static final int MAGIC = ('M' << 16) | ('S' << 8) | 'G';
+    private static final int VERSION = 1;
+
+    private final int rows;
+    private final int cols;
+    private final int mines;
+    private final long seed;
+    private final int safeIndex;
+    private final GameStatus status;
+    private final byte[] cells; // Packed as on the Board, only the mine, revealed and flagged bits are used
+
+    GameSnapshot(int rows, int cols, int mines, long seed, int safeIndex, GameStatus status, byte[] cells) {
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+        this.seed = seed;
+        this.safeIndex = safeIndex;
+        this.status = status;
+        this.cells = cells;
+    }
+
+    /**
+     * Writes the snapshot with the spaces bit-packed.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt((MAGIC << 8) | VERSION);
+        out.writeInt(this.rows);
+        out.writeInt(this.cols);
+        out.writeInt(this.mines);
+        out.writeLong(this.seed);
+        out.writeInt(this.safeIndex);
+        out.writeByte(this.status.ordinal());
+        if (this.status != GameStatus.READY) {
+            this.writeBitmap(out, Board.MINE);
+        }
+        this.writeBitmap(out, Board.REVEALED);
+        this.writeBitmap(out, Board.FLAGGED);
+    }
+
+    /**
+     * Reads a snapshot written by {@link #writeTo(DataOutputStream)}.
+     *
+     * @param in the stream to read from
+     * @return the snapshot
+     * @throws IOException if the stream cannot be read or does not hold a snapshot
+     */
+    public static GameSnapshot readFrom(DataInputStream in) throws IOException {
+        int header = in.readInt();
+        if (header >>> 8 != MAGIC || (header & 0xFF) != VERSION) {
+            throw new IOException("Not a game snapshot");
+        }
+        int rows = in.readInt();
+        int cols = in.readInt();
+        int mines = in.readInt();
+        long seed = in.readLong();
+        int safeIndex = in.readInt();
+        int status = in.readUnsignedByte();
+        if (rows < 0 || cols < 0 || (long) rows * cols > Integer.MAX_VALUE - 8 || status >= GameStatus.values().length) {
+            throw new IOException("Invalid game snapshot: " + rows + "x" + cols + ", status " + status);
+        }
+
+        GameSnapshot snapshot = new GameSnapshot(rows, cols, mines, seed, safeIndex, GameStatus.values()[status], new byte[rows * cols]);
+        if (snapshot.status != GameStatus.READY) {
+            snapshot.readBitmap(in, Board.MINE);
+        }
+        snapshot.readBitmap(in, Board.REVEALED);
+        snapshot.readBitmap(in, Board.FLAGGED);
+        return snapshot;
+    }
+
+    private void writeBitmap(DataOutputStream out, int bit) throws IOException {
+        final byte[] cells = this.cells;
+        for (int word = 0; word < cells.length; word += 64) {
+            long bits = 0;
+            int end = Math.min(cells.length - word, 64);
+            for (int i = 0; i < end; i++) {
+                bits |= (long) ((cells[word + i] & bit) != 0 ? 1 : 0) << i;
+            }
+            out.writeLong(bits);
+        }
+    }
+
+    private void readBitmap(DataInputStream in, int bit) throws IOException {
+        for (int word = 0; word < this.cells.length; word += 64) {
+            // Visit the set bits only, most spaces are not mines, revealed or flagged at once
+            for (long bits = in.readLong(); bits != 0; bits &= bits - 1) {
+                int index = word + Long.numberOfTrailingZeros(bits);
+                if (index < this.cells.length) {
+                    this.cells[index] |= (byte) bit;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Gets the number of columns.
+     *
+     * @return the number of columns
+     */
+    public int getCols() {
+        return this.cols;
+    }
+
+    /**
+     * Gets the number of mines.
+     *
+     * @return the number of mines
+     */
+    public int getMines() {
+        return this.mines;
+    }
+
+    /**
+     * Gets the seed the mines were placed with.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Gets the space the safe zone is centered on.
+     *
+     * @return the index of the space, or -1 if the safe zone is around the first click
+     */
+    public int getSafeIndex() {
+        return this.safeIndex;
+    }
+
+    /**
+     * Gets the status of the game.
+     *
+     * @return the game status
+     */
+    public GameStatus getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Gets the packed state of a space, with only the mine, revealed and flagged bits set.
+     */
+    int get(int index) {
+        return this.cells[index];
+    }
+}
@@ -0,0 +1,24 @@
+package minesweeper.engine;
+
+/**
+ * The state of a game of Minesweeper.
+ */
+public enum GameStatus {
+    /** No space has been revealed yet, so no mines are placed. */
+    READY,
+    /** Mines are placed and the game is in progress. */
+    PLAYING,
+    /** Every space without a mine has been revealed. */
+    WON,
+    /** A mine has been revealed. */
+    LOST;
+
+    /**
+     * Checks if the game has ended.
+     *
+     * @return true if the game is won or lost, false otherwise
+     */
+    public boolean isFinished() {
+        return this == WON || this == LOST;
+    }
+}
@@ -0,0 +1,108 @@
+package minesweeper.engine;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints. Used as a reusable queue, stack or result buffer
+ * so the hot game paths never box indices.
+ */
+public final class IntList {
+    private int[] values;
+    private int size = 0;
+
+    /**
+     * Constructor for the IntList class.
+     */
+    public IntList() {
+        this(16);
+    }
+
+    /**
+     * Constructor for the IntList class.
+     *
+     * @param capacity the initial capacity
+     */
+    public IntList(int capacity) {
+        this.values = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * Appends a value to the end of the list.
+     *
+     * @param value the value to add
+     */
+    public void add(int value) {
+        if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.values.length * 2);
+        }
+        this.values[this.size++] = value;
+    }
+
+    /**
+     * Removes and returns the last value of the list.
+     *
+     * @return the last value
+     */
+    public int pop() {
+        return this.values[--this.size];
+    }
+
+    /**
+     * Gets the value at the given position.
+     *
+     * @param i the position of the value
+     * @return the value
+     */
+    public int get(int i) {
+        if (i >= this.size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return this.values[i];
+    }
+
+    /**
+     * Gets the number of values in the list.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks if the list is empty.
+     *
+     * @return true if the list has no values, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Removes every value, keeping the capacity.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Removes every value from the given position on, keeping the capacity.
+     *
+     * @param size the number of values to keep
+     */
+    public void truncate(int size) {
+        if (size < 0 || size > this.size) {
+            throw new IndexOutOfBoundsException(size);
+        }
+        this.size = size;
+    }
+
+    /**
+     * Copies the values into a new array.
+     *
+     * @return the values of the list
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(this.values, this.size);
+    }
+}
@@ -0,0 +1,653 @@
+package minesweeper.engine;
+
+import minesweeper.CommandLine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * A board of up to {@link #MAX_SIDE} by {@link #MAX_SIDE} spaces stored off the heap in a memory-mapped file,
+ * for stress tests far beyond what a {@link Board} can hold.
+ *
+ * <p>Only what the player changes is stored: two bits per space, revealed and flagged, four spaces to a byte,
+ * in a {@link MemorySegment} over the file. The file is sparse, so a 100000x100000 board takes 2.5 GB of address
+ * space but the OS only reads and writes the pages around the spaces that were played. Spaces are addressed by
+ * long row-major indices.</p>
+ *
+ * <p>Mines are never stored. They are derived from the seed, the mine count and the first click whenever they
+ * are needed, so the same file always plays the same board. The board is split into 64x64 tiles and the mines
+ * are divided between the tiles by splitting the range of tiles in halves, each half getting a seeded
+ * hypergeometric share of the mines of the range. A tile is only placed when one of its spaces is looked at,
+ * with a Fisher-Yates shuffle over its spaces outside the safe zone, and the last placed tiles are cached.
+ * The board has exactly the requested number of mines and none in the 3x3 safe zone around the first click,
+ * as with {@link MinePlacer}.</p>
+ *
+ * <p>The file starts with a 64-byte header that is updated on every move, so a game is resumed by opening the file again:</p>
+ * <pre>
+ * int "MSB" version, int rows, int cols, int status, long mines, long seed, long safeIndex (-1 before the first click),
+ * long revealed, long flagged, long unused, then ceil(rows * cols / 4) bytes of space states
+ * </pre>
+ */
+public final class MappedBoard implements Closeable {
+    /**
+     * The largest number of rows or columns.
+     */
+    public static final int MAX_SIDE = 1_000_000;
+
+    private static final int MAGIC = ('M' << 16) | ('S' << 8) | 'B';
+    private static final int VERSION = 1;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private static final long HEADER_SIZE = 64;
+    private static final long ROWS = 4;
+    private static final long COLS = 8;
+    private static final long STATUS = 12;
+    private static final long MINES = 16;
+    private static final long SEED = 24;
+    private static final long SAFE_INDEX = 32;
+    private static final long REVEALED = 40;
+    private static final long FLAGGED = 48;
+
+    private static final int REVEALED_BIT = 1;
+    private static final int FLAGGED_BIT = 2;
+
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_SIDE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIDE - 1;
+    private static final int CACHE_SIZE = 256; // Tiles, direct-mapped, 512 bytes each
+
+    private final FileChannel channel;
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final int rows;
+    private final int cols;
+    private final long size;
+    private final long mines;
+    private final long seed;
+    private final int tilesPerRow;
+    private final int tiles;
+
+    private long safeIndex;
+    private long revealed;
+    private long flagged;
+    private GameStatus status;
+
+    // Safe zone spaces, set by the first click
+    private final long[] safe = new long[9];
+    private final int[] safeTiles = new int[9];
+    private int numSafe = 0;
+
+    private final int[] cacheKeys = new int[CACHE_SIZE];
+    private final long[] cacheBits = new long[CACHE_SIZE * TILE_SIDE]; // One long per tile row, one bit per column
+    private final int[] scratch = new int[TILE_SIDE * TILE_SIDE];
+
+    private long[] worklist = new long[256];
+    private int worklistSize = 0;
+
+    private MappedBoard(FileChannel channel, int rows, int cols, long mines, long seed) throws IOException {
+        this.channel = channel;
+        this.rows = rows;
+        this.cols = cols;
+        this.size = (long) rows * cols;
+        this.mines = mines;
+        this.seed = seed;
+        this.tilesPerRow = (cols + TILE_MASK) >>> TILE_SHIFT;
+        this.tiles = this.tilesPerRow * ((rows + TILE_MASK) >>> TILE_SHIFT);
+        Arrays.fill(this.cacheKeys, -1);
+
+        // Mapping past the end of the file extends it without writing, so untouched pages stay unallocated
+        this.arena = Arena.ofShared();
+        this.segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (this.size + 3) / 4, this.arena);
+    }
+
+    /**
+     * Creates a board file. The mines are placed around the first reveal.
+     *
+     * @param file  the file to create, which must not exist
+     * @param rows  the number of rows, from 1 to {@link #MAX_SIDE}
+     * @param cols  the number of columns, from 1 to {@link #MAX_SIDE}
+     * @param mines the number of mines, leaving room for the 3x3 safe zone of the first click
+     * @param seed  the seed the mines are placed with
+     * @return the board, ready to play
+     * @throws IOException if the file cannot be created
+     */
+    public static MappedBoard create(Path file, int rows, int cols, long mines, long seed) throws IOException {
+        if (rows < 1 || cols < 1 || rows > MAX_SIDE || cols > MAX_SIDE) {
+            throw new IllegalArgumentException("Board size must be between 1x1 and " + MAX_SIDE + "x" + MAX_SIDE + ": " + rows + "x" + cols);
+        }
+        long maxMines = (long) rows * cols - (long) Math.min(rows, 3) * Math.min(cols, 3);
+        if (mines < 0 || mines > maxMines) {
+            throw new IllegalArgumentException("Number of mines must be between 0 and " + maxMines + ": " + mines);
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedBoard board = new MappedBoard(channel, rows, cols, mines, seed);
+        MemorySegment header = board.segment;
+        header.set(INT, 0, (MAGIC << 8) | VERSION);
+        header.set(INT, ROWS, rows);
+        header.set(INT, COLS, cols);
+        header.set(LONG, MINES, mines);
+        header.set(LONG, SEED, seed);
+        board.safeIndex = -1;
+        board.status = GameStatus.READY;
+        board.writeHeader();
+        return board;
+    }
+
+    /**
+     * Opens a board file to resume its game.
+     *
+     * @param file the file of the board
+     * @return the board, in the state it was last saved in
+     * @throws IOException if the file cannot be opened or is not a board file
+     */
+    public static MappedBoard open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MemorySegment header;
+        try (Arena arena = Arena.ofConfined()) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a board file: " + file);
+            }
+            header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE, arena);
+            if (header.get(INT, 0) >>> 8 != MAGIC || (header.get(INT, 0) & 0xFF) != VERSION) {
+                throw new IOException("Not a board file: " + file);
+            }
+            header = MemorySegment.ofArray(header.toArray(ValueLayout.JAVA_BYTE));
+        }
+        catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        MappedBoard board = new MappedBoard(channel, header.get(INT, ROWS), header.get(INT, COLS),
+                header.get(LONG, MINES), header.get(LONG, SEED));
+        board.status = GameStatus.values()[header.get(INT, STATUS)];
+        board.revealed = header.get(LONG, REVEALED);
+        board.flagged = header.get(LONG, FLAGGED);
+        board.safeIndex = header.get(LONG, SAFE_INDEX);
+        if (board.safeIndex >= 0) {
+            board.collectSafeZone(board.safeIndex);
+        }
+        return board;
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Gets the number of columns.
+     *
+     * @return the number of columns
+     */
+    public int getCols() {
+        return this.cols;
+    }
+
+    /**
+     * Gets the total number of spaces.
+     *
+     * @return the number of spaces
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Converts a row and column to the index of the space.
+     *
+     * @param row the row of the space
+     * @param col the column of the space
+     * @return the row-major index of the space
+     */
+    public long index(int row, int col) {
+        return (long) row * this.cols + col;
+    }
+
+    /**
+     * Gets the packed state of the space, in the same format as {@link Board#get(int)}.
+     * Mines and adjacent mine counts are only set once the mines are placed.
+     *
+     * @param index the index of the space
+     * @return the packed state
+     */
+    public int get(long index) {
+        int bits = this.bits(index);
+        int state = ((bits & REVEALED_BIT) != 0 ? Board.REVEALED : 0) | ((bits & FLAGGED_BIT) != 0 ? Board.FLAGGED : 0);
+        if (this.safeIndex < 0) {
+            return state;
+        }
+        int row = (int) (index / this.cols);
+        int col = (int) (index - (long) row * this.cols);
+        return state | (this.isMine(row, col) ? Board.MINE : 0) | this.countAdjacentMines(row, col);
+    }
+
+    /**
+     * Checks if the space is revealed.
+     *
+     * @param index the index of the space
+     * @return true if the space is revealed, false otherwise
+     */
+    public boolean isRevealed(long index) {
+        return (this.bits(index) & REVEALED_BIT) != 0;
+    }
+
+    /**
+     * Checks if the space is flagged.
+     *
+     * @param index the index of the space
+     * @return true if the space is flagged, false otherwise
+     */
+    public boolean isFlagged(long index) {
+        return (this.bits(index) & FLAGGED_BIT) != 0;
+    }
+
+    /**
+     * Reveals a space and opens the area around it if it has no adjacent mines. The first reveal of a game
+     * places the mines around it. Flagged and already revealed spaces are left alone.
+     *
+     * <p>Openings are filled with a worklist of long indices that grows with the border of the opening,
+     * so a board with very few mines can open hundreds of millions of spaces in one reveal.</p>
+     *
+     * @param index the index of the space
+     * @return the number of newly revealed spaces
+     */
+    public long reveal(long index) {
+        if (this.status.isFinished() || this.bits(index) != 0) {
+            return 0;
+        }
+        if (this.status == GameStatus.READY) {
+            this.safeIndex = index;
+            this.collectSafeZone(index);
+            this.status = GameStatus.PLAYING;
+        }
+
+        long count = this.open(index);
+        if (this.status == GameStatus.PLAYING && this.revealed == this.size - this.mines) {
+            this.status = GameStatus.WON;
+        }
+        this.writeHeader();
+        return count;
+    }
+
+    /**
+     * Places or removes a flag on a covered space.
+     *
+     * @param index the index of the space
+     * @return true if the space is flagged now
+     */
+    public boolean toggleFlag(long index) {
+        int bits = this.bits(index);
+        if (this.status.isFinished() || (bits & REVEALED_BIT) != 0) {
+            return false;
+        }
+        this.setBits(index, bits ^ FLAGGED_BIT);
+        this.flagged += (bits & FLAGGED_BIT) == 0 ? 1 : -1;
+        this.writeHeader();
+        return (bits & FLAGGED_BIT) == 0;
+    }
+
+    /**
+     * Reveals every covered, unflagged neighbor of a revealed number that has as many flags around it as its number.
+     *
+     * @param index the index of the revealed number
+     * @return the number of newly revealed spaces
+     */
+    public long chord(long index) {
+        if (this.status != GameStatus.PLAYING || !this.isRevealed(index)) {
+            return 0;
+        }
+        int row = (int) (index / this.cols);
+        int col = (int) (index - (long) row * this.cols);
+        int flags = 0;
+        for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, this.rows - 1); i++) {
+            for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, this.cols - 1); j++) {
+                flags += this.isFlagged(this.index(i, j)) ? 1 : 0;
+            }
+        }
+        int adjacent = this.countAdjacentMines(row, col);
+        if (adjacent == 0 || flags != adjacent) {
+            return 0;
+        }
+
+        long count = 0;
+        for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, this.rows - 1); i++) {
+            for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, this.cols - 1); j++) {
+                if (this.status == GameStatus.PLAYING && this.bits(this.index(i, j)) == 0) {
+                    count += this.open(this.index(i, j));
+                }
+            }
+        }
+        if (this.status == GameStatus.PLAYING && this.revealed == this.size - this.mines) {
+            this.status = GameStatus.WON;
+        }
+        this.writeHeader();
+        return count;
+    }
+
+    /**
+     * Gets the status of the game.
+     *
+     * @return the status of the game
+     */
+    public GameStatus getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Gets the number of mines on the board.
+     *
+     * @return the number of mines
+     */
+    public long getMines() {
+        return this.mines;
+    }
+
+    /**
+     * Gets the number of revealed spaces without a mine.
+     *
+     * @return the number of revealed spaces
+     */
+    public long getRevealedSpaces() {
+        return this.revealed;
+    }
+
+    /**
+     * Gets the number of flagged spaces.
+     *
+     * @return the number of flagged spaces
+     */
+    public long getFlaggedSpaces() {
+        return this.flagged;
+    }
+
+    /**
+     * Writes the changed pages of the board to the file.
+     */
+    public void sync() {
+        this.segment.force();
+    }
+
+    /**
+     * Writes the board to the file and closes it.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.sync();
+        this.arena.close();
+        this.channel.close();
+    }
+
+    /**
+     * Reveals a covered space, and the area around it if it has no adjacent mines.
+     * Loses the game if the space is a mine.
+     */
+    private long open(long start) {
+        this.setBits(start, REVEALED_BIT);
+        int startRow = (int) (start / this.cols);
+        int startCol = (int) (start - (long) startRow * this.cols);
+        if (this.isMine(startRow, startCol)) {
+            this.status = GameStatus.LOST;
+            return 1;
+        }
+
+        long count = 1;
+        this.worklistSize = 0;
+        if (this.countAdjacentMines(startRow, startCol) == 0) {
+            this.push(start);
+        }
+        while (this.worklistSize > 0) {
+            long index = this.worklist[--this.worklistSize];
+            int row = (int) (index / this.cols);
+            int col = (int) (index - (long) row * this.cols);
+            for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, this.rows - 1); i++) {
+                for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, this.cols - 1); j++) {
+                    // Neighbors of a space with no adjacent mines are never mines themselves
+                    long neighbor = this.index(i, j);
+                    if (this.bits(neighbor) != 0) {
+                        continue;
+                    }
+                    this.setBits(neighbor, REVEALED_BIT);
+                    count++;
+                    if (this.countAdjacentMines(i, j) == 0) {
+                        this.push(neighbor);
+                    }
+                }
+            }
+        }
+        this.revealed += count;
+        return count;
+    }
+
+    private void push(long index) {
+        if (this.worklistSize == this.worklist.length) {
+            this.worklist = Arrays.copyOf(this.worklist, this.worklist.length * 2);
+        }
+        this.worklist[this.worklistSize++] = index;
+    }
+
+    private int bits(long index) {
+        return (this.segment.get(ValueLayout.JAVA_BYTE, HEADER_SIZE + (index >>> 2)) >>> ((int) (index & 3) << 1)) & 3;
+    }
+
+    private void setBits(long index, int bits) {
+        long offset = HEADER_SIZE + (index >>> 2);
+        int shift = (int) (index & 3) << 1;
+        int packed = this.segment.get(ValueLayout.JAVA_BYTE, offset);
+        this.segment.set(ValueLayout.JAVA_BYTE, offset, (byte) ((packed & ~(3 << shift)) | (bits << shift)));
+    }
+
+    private void writeHeader() {
+        this.segment.set(INT, STATUS, this.status.ordinal());
+        this.segment.set(LONG, SAFE_INDEX, this.safeIndex);
+        this.segment.set(LONG, REVEALED, this.revealed);
+        this.segment.set(LONG, FLAGGED, this.flagged);
+    }
+
+    private int countAdjacentMines(int row, int col) {
+        int count = 0;
+        for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, this.rows - 1); i++) {
+            for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, this.cols - 1); j++) {
+                if ((i != row || j != col) && this.isMine(i, j)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean isMine(int row, int col) {
+        if (this.safeIndex < 0) {
+            return false;
+        }
+        int tile = (row >>> TILE_SHIFT) * this.tilesPerRow + (col >>> TILE_SHIFT);
+        int slot = this.placeTile(tile);
+        return (this.cacheBits[slot * TILE_SIDE + (row & TILE_MASK)] >>> (col & TILE_MASK) & 1) != 0;
+    }
+
+    /**
+     * Collects the spaces of the 3x3 safe zone around the first click that are on the board.
+     */
+    private void collectSafeZone(long index) {
+        int row = (int) (index / this.cols);
+        int col = (int) (index - (long) row * this.cols);
+        this.numSafe = 0;
+        for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, this.rows - 1); i++) {
+            for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, this.cols - 1); j++) {
+                this.safe[this.numSafe] = this.index(i, j);
+                this.safeTiles[this.numSafe++] = (i >>> TILE_SHIFT) * this.tilesPerRow + (j >>> TILE_SHIFT);
+            }
+        }
+        Arrays.fill(this.cacheKeys, -1);
+    }
+
+    /**
+     * Places the mines of a tile, unless it is cached.
+     *
+     * @return the cache slot of the tile
+     */
+    private int placeTile(int tile) {
+        int slot = tile & (CACHE_SIZE - 1);
+        if (this.cacheKeys[slot] == tile) {
+            return slot;
+        }
+
+        // Divide the mines between halves of the range of tiles until only this tile is left
+        int lo = 0;
+        int hi = this.tiles;
+        long tileMines = this.mines;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            long left = this.splitMines(lo, mid, hi, tileMines);
+            if (tile < mid) {
+                hi = mid;
+                tileMines = left;
+            }
+            else {
+                lo = mid;
+                tileMines -= left;
+            }
+        }
+
+        // Shuffle the eligible spaces of the tile and keep the first ones as mines
+        int firstRow = (tile / this.tilesPerRow) << TILE_SHIFT;
+        int firstCol = (tile % this.tilesPerRow) << TILE_SHIFT;
+        int height = Math.min(TILE_SIDE, this.rows - firstRow);
+        int width = Math.min(TILE_SIDE, this.cols - firstCol);
+        int eligible = 0;
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                if (!this.isSafe(this.index(firstRow + i, firstCol + j))) {
+                    this.scratch[eligible++] = (i << TILE_SHIFT) | j;
+                }
+            }
+        }
+        long[] bits = this.cacheBits;
+        int base = slot * TILE_SIDE;
+        Arrays.fill(bits, base, base + TILE_SIDE, 0L);
+        SplittableRandom random = new SplittableRandom(Seeds.mix(this.seed, -1L - tile));
+        for (int m = 0; m < tileMines; m++) {
+            int k = m + random.nextInt(eligible - m);
+            int picked = this.scratch[k];
+            this.scratch[k] = this.scratch[m];
+            bits[base + (picked >>> TILE_SHIFT)] |= 1L << (picked & TILE_MASK);
+        }
+        this.cacheKeys[slot] = tile;
+        return slot;
+    }
+
+    /**
+     * Picks how many of the mines of the tiles {@code [lo, hi)} fall in {@code [lo, mid)}, following a normal
+     * approximation of the hypergeometric distribution. Always the same for the same range and seed.
+     */
+    private long splitMines(int lo, int mid, int hi, long rangeMines) {
+        long leftSpaces = this.eligibleBefore(mid) - this.eligibleBefore(lo);
+        long rightSpaces = this.eligibleBefore(hi) - this.eligibleBefore(mid);
+        long total = leftSpaces + rightSpaces;
+        long min = Math.max(0, rangeMines - rightSpaces);
+        long max = Math.min(rangeMines, leftSpaces);
+        if (min >= max) {
+            return min;
+        }
+
+        double mean = (double) rangeMines * leftSpaces / total;
+        double variance = mean * rightSpaces / total * (total - rangeMines) / (total - 1);
+        double gaussian = new SplittableRandom(Seeds.mix(this.seed, (long) lo * this.tiles + hi)).nextGaussian();
+        return Math.min(max, Math.max(min, Math.round(mean + Math.sqrt(variance) * gaussian)));
+    }
+
+    /**
+     * Counts the spaces outside the safe zone in the tiles before the given one, in row-major tile order.
+     */
+    private long eligibleBefore(int tile) {
+        int tileRow = tile / this.tilesPerRow;
+        int tileCol = tile % this.tilesPerRow;
+        int rowsBefore = Math.min(tileRow << TILE_SHIFT, this.rows);
+        int height = Math.max(0, Math.min(TILE_SIDE, this.rows - rowsBefore));
+        long spaces = (long) rowsBefore * this.cols + (long) height * Math.min(tileCol << TILE_SHIFT, this.cols);
+        for (int s = 0; s < this.numSafe; s++) {
+            if (this.safeTiles[s] < tile) {
+                spaces--;
+            }
+        }
+        return spaces;
+    }
+
+    private boolean isSafe(long index) {
+        for (int s = 0; s < this.numSafe; s++) {
+            if (this.safe[s] == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates or resumes a board file and reveals random spaces without a mine on it from the command line,
+     * printing the time per reveal and the heap in use.
+     *
+     * @param args options in the form {@code --name=value}: file, rows, cols, mines, seed and reveals
+     * @throws IOException if the board file cannot be created or opened
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = CommandLine.parseOptions(args);
+        Path file = Path.of(options.getOrDefault("file", "board.msb"));
+        int reveals = Integer.parseInt(options.getOrDefault("reveals", "1000"));
+
+        long start = System.nanoTime();
+        MappedBoard board;
+        if (Files.exists(file)) {
+            board = open(file);
+            System.out.printf("Resumed %dx%d board with %d mines, %d revealed%n", board.rows, board.cols, board.mines, board.revealed);
+        }
+        else {
+            int rows = Integer.parseInt(options.getOrDefault("rows", "100000"));
+            int cols = Integer.parseInt(options.getOrDefault("cols", "100000"));
+            long mines = Long.parseLong(options.getOrDefault("mines", String.valueOf((long) rows * cols / 5)));
+            long seed = Long.parseLong(options.getOrDefault("seed", String.valueOf(System.nanoTime())));
+            board = create(file, rows, cols, mines, seed);
+            System.out.printf("Created %dx%d board with %d mines%n", rows, cols, mines);
+        }
+        System.out.printf("Opened in %.2f ms%n", (System.nanoTime() - start) / 1e6);
+
+        try (board) {
+            SplittableRandom random = new SplittableRandom();
+            long revealedSpaces = 0;
+            int played = 0;
+            start = System.nanoTime();
+            while (played < reveals && !board.status.isFinished()) {
+                long index = random.nextLong(board.size);
+                if (board.bits(index) != 0 || (board.get(index) & Board.MINE) != 0) {
+                    continue;
+                }
+                revealedSpaces += board.reveal(index);
+                played++;
+            }
+            long nanos = System.nanoTime() - start;
+            Runtime runtime = Runtime.getRuntime();
+            System.out.printf("%d reveals opened %d spaces in %.2f ms (%.3f ms per reveal), game %s%n", played, revealedSpaces,
+                    nanos / 1e6, played == 0 ? 0 : nanos / 1e6 / played, board.status);
+            System.out.printf("Heap in use: %.1f MB, board file: %.1f MB of address space%n",
+                    (runtime.totalMemory() - runtime.freeMemory()) / 1e6, board.segment.byteSize() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package minesweeper.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Places mines on a board with a partial Fisher-Yates shuffle over every space outside the 3x3 safe zone
+ * around the first click. On sparse boards only swapped positions are remembered, so placement takes
+ * O(mines) time and memory no matter how large the board is. Dense boards shuffle a plain array of every
+ * position instead, which is smaller than the map would be and still O(mines) at that density. Both draw
+ * the same random numbers, so the same seed always produces the same board.
+ */
+public final class MinePlacer {
+    // Boards with at least one mine per this many free spaces are shuffled densely
+    private static final int DENSE_FRACTION = 8;
+
+    private final IntList mines = new IntList(128);
+    private final int[] safe = new int[9];
+
+    // Open addressing map of shuffled positions, keys are stored + 1 so 0 means empty
+    private int[] swapKeys = new int[0];
+    private int[] swapValues = new int[0];
+    private int swapMask;
+    private final IntList usedSlots = new IntList(128); // Cleared after each placement instead of the whole map
+
+    private int[] positions = new int[0]; // Every free position, for dense boards
+
+    /**
+     * Places mines on a cleared board and computes the adjacent mine counts.
+     *
+     * @param board    the board to place the mines on
+     * @param numMines the number of mines to place
+     * @param safeRow  the row of the first click
+     * @param safeCol  the column of the first click
+     * @param random   the random number generator, seeded for reproducible boards
+     * @return the indices of the placed mines. The list is reused by the next call.
+     */
+    public IntList place(Board board, int numMines, int safeRow, int safeCol, SplittableRandom random) {
+        int numSafe = this.collectSafeZone(board, safeRow, safeCol);
+        int eligible = board.getSize() - numSafe;
+        if (numMines < 0 || numMines > eligible) {
+            throw new IllegalArgumentException("Cannot place " + numMines + " mines on " + eligible + " free spaces");
+        }
+
+        this.mines.clear();
+        if ((long) numMines * DENSE_FRACTION >= eligible) {
+            this.placeDense(board, numMines, eligible, numSafe, random);
+        } else {
+            this.placeSparse(board, numMines, eligible, numSafe, random);
+        }
+
+        board.computeAdjacentMines(this.mines);
+        return this.mines;
+    }
+
+    private void placeSparse(Board board, int numMines, int eligible, int numSafe, SplittableRandom random) {
+        this.growSwaps(numMines);
+        for (int i = 0; i < numMines; i++) {
+            // Swap position i with a random position in [i, eligible) and keep what lands at i
+            int j = i + random.nextInt(eligible - i);
+            int picked = this.getSwap(j);
+            this.putSwap(j, this.getSwap(i));
+            this.addMine(board, this.toBoardIndex(picked, numSafe));
+        }
+
+        for (int k = 0; k < this.usedSlots.size(); k++) {
+            this.swapKeys[this.usedSlots.get(k)] = 0;
+        }
+        this.usedSlots.clear();
+    }
+
+    private void placeDense(Board board, int numMines, int eligible, int numSafe, SplittableRandom random) {
+        if (this.positions.length < eligible) {
+            this.positions = new int[eligible];
+        }
+        final int[] positions = this.positions;
+        for (int i = 0; i < eligible; i++) {
+            positions[i] = i;
+        }
+        for (int i = 0; i < numMines; i++) {
+            int j = i + random.nextInt(eligible - i);
+            int picked = positions[j];
+            positions[j] = positions[i];
+            this.addMine(board, this.toBoardIndex(picked, numSafe));
+        }
+    }
+
+    private void addMine(Board board, int index) {
+        board.setMine(index, true);
+        this.mines.add(index);
+    }
+
+    /**
+     * Collects the sorted indices of the safe zone that are on the board.
+     *
+     * @return the number of safe spaces
+     */
+    private int collectSafeZone(Board board, int safeRow, int safeCol) {
+        int count = 0;
+        for (int i = safeRow - 1; i <= safeRow + 1; i++) {
+            for (int j = safeCol - 1; j <= safeCol + 1; j++) {
+                if (board.inBounds(i, j)) {
+                    this.safe[count++] = board.index(i, j);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Maps a position among the eligible spaces to the board index by skipping the sorted safe spaces.
+     */
+    private int toBoardIndex(int position, int numSafe) {
+        int index = position;
+        for (int i = 0; i < numSafe; i++) {
+            if (this.safe[i] <= index) {
+                index++;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Makes the map large enough for the swaps of the given number of mines, at most two per mine,
+     * so it stays at most half full.
+     */
+    private void growSwaps(int numMines) {
+        long capacity = Long.highestOneBit(Math.max(16L, numMines * 4L) - 1) << 1;
+        if (capacity > this.swapKeys.length) {
+            this.swapKeys = new int[Math.toIntExact(capacity)];
+            this.swapValues = new int[this.swapKeys.length];
+            this.swapMask = this.swapKeys.length - 1;
+        }
+    }
+
+    private int getSwap(int position) {
+        int slot = this.slot(position);
+        return this.swapKeys[slot] == 0 ? position : this.swapValues[slot];
+    }
+
+    private void putSwap(int position, int value) {
+        int slot = this.slot(position);
+        if (this.swapKeys[slot] == 0) {
+            this.usedSlots.add(slot);
+        }
+        this.swapKeys[slot] = position + 1;
+        this.swapValues[slot] = value;
+    }
+
+    private int slot(int position) {
+        int hash = position * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & this.swapMask;
+        while (this.swapKeys[slot] != 0 && this.swapKeys[slot] != position + 1) {
+            slot = (slot + 1) & this.swapMask;
+        }
+        return slot;
+    }
+}
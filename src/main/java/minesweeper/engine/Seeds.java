@@ -0,0 +1,24 @@
+package minesweeper.engine;
+
+/**
+ * Derives independent seeds from a board seed, for boards that place their mines piece by piece.
+ */
+final class Seeds {
+    private Seeds() {
+    }
+
+    /**
+     * Mixes a board seed with a key, such as the position of a chunk, with the SplitMix64 finalizer.
+     * Nearby keys give unrelated seeds, and the same seed and key always give the same result.
+     *
+     * @param seed the seed of the board
+     * @param key  the key of the piece of the board
+     * @return the seed of the piece
+     */
+    static long mix(long seed, long key) {
+        long z = seed + key * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
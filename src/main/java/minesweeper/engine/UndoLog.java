@@ -0,0 +1,124 @@
+package minesweeper.engine;
+
+/**
+ * History of the actions of a game for undo and redo, kept as deltas in one packed int log.
+ * An action takes a header word (its kind and the game status before and after it), the index it was made on
+ * and the index of every space it changed, so undoing or redoing it costs time in proportion to the spaces
+ * it changed, and a long game costs four bytes per changed space instead of a copy of the board per move.
+ */
+final class UndoLog {
+    static final int REVEAL = 0; // Reveals and chords, which only ever reveal spaces
+    static final int FLAG = 1;
+
+    private static final GameStatus[] STATUSES = GameStatus.values();
+
+    private final IntList log = new IntList(1024);
+    private final IntList starts = new IntList(64); // Where each action starts in the log
+    private int position = 0; // The number of actions that are not undone
+
+    /**
+     * Forgets every action, at the start of a new game.
+     */
+    void clear() {
+        this.log.clear();
+        this.starts.clear();
+        this.position = 0;
+    }
+
+    /**
+     * Appends an action, forgetting every action that was undone before it.
+     *
+     * @param kind   {@link #REVEAL} or {@link #FLAG}
+     * @param index  the index of the space the action was made on
+     * @param before the status of the game before the action
+     * @param after  the status of the game after the action
+     * @param cells  the spaces the action changed
+     */
+    void record(int kind, int index, GameStatus before, GameStatus after, IntList cells) {
+        if (this.position < this.starts.size()) {
+            this.log.truncate(this.starts.get(this.position));
+            this.starts.truncate(this.position);
+        }
+        this.starts.add(this.log.size());
+        this.log.add(kind | before.ordinal() << 1 | after.ordinal() << 3);
+        this.log.add(index);
+        for (int i = 0; i < cells.size(); i++) {
+            this.log.add(cells.get(i));
+        }
+        this.position++;
+    }
+
+    /**
+     * Checks if there is an action to undo.
+     *
+     * @return true if an action can be undone, false otherwise
+     */
+    boolean canUndo() {
+        return this.position > 0;
+    }
+
+    /**
+     * Checks if there is an undone action to redo.
+     *
+     * @return true if an action can be redone, false otherwise
+     */
+    boolean canRedo() {
+        return this.position < this.starts.size();
+    }
+
+    /**
+     * Steps back over the last action that is not undone.
+     *
+     * @return the action to undo, or -1 if there is none
+     */
+    int undo() {
+        return this.canUndo() ? --this.position : -1;
+    }
+
+    /**
+     * Steps forward over the first undone action.
+     *
+     * @return the action to redo, or -1 if there is none
+     */
+    int redo() {
+        return this.canRedo() ? this.position++ : -1;
+    }
+
+    int getKind(int action) {
+        return this.log.get(this.starts.get(action)) & 1;
+    }
+
+    GameStatus getBefore(int action) {
+        return STATUSES[this.log.get(this.starts.get(action)) >>> 1 & 3];
+    }
+
+    GameStatus getAfter(int action) {
+        return STATUSES[this.log.get(this.starts.get(action)) >>> 3 & 3];
+    }
+
+    int getIndex(int action) {
+        return this.log.get(this.starts.get(action) + 1);
+    }
+
+    /**
+     * Gets the number of spaces an action changed.
+     *
+     * @param action the action
+     * @return the number of changed spaces
+     */
+    int getCells(int action) {
+        int end = action + 1 < this.starts.size() ? this.starts.get(action + 1) : this.log.size();
+        return end - this.starts.get(action) - 2;
+    }
+
+    /**
+     * Gets a space an action changed.
+     *
+     * @param action the action
+     * @param i      the position of the space in the action, in the order it was changed
+     * @return the index of the changed space
+     */
+    int getCell(int action, int i) {
+        return this.log.get(this.starts.get(action) + 2 + i);
+    }
+}
@@ -0,0 +1,209 @@
+package minesweeper.generator;
+
+import minesweeper.Difficulty;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A bounded pool of no-guess boards generated on background threads.
+ *
+ * <p>Each difficulty is split into 3x3 regions and every region keeps a few boards whose safe zone covers it,
+ * so whichever space the first click lands on, a board is usually ready and the click responds instantly.
+ * Taking a board starts refilling its region in the background. When no ready board fits the click,
+ * one is generated on the spot for that exact space.</p>
+ */
+public final class BoardPool {
+    /**
+     * The default number of boards kept ready per region.
+     */
+    public static final int DEFAULT_CAPACITY = 4;
+
+    private static final int REGION_SIZE = 3;
+    private static final int BACKGROUND_ATTEMPTS = 50_000;
+    private static final int FOREGROUND_ATTEMPTS = 5_000;
+    private static final long FOREGROUND_NANOS = 30_000_000L; // The first click runs on the FX thread, so keep it under two frames
+
+    /**
+     * The ready boards of one region, all with their safe zone centered on the same space.
+     */
+    private static final class Region {
+        private final int safeIndex;
+        private final ArrayDeque<NoGuessGenerator.Layout> ready = new ArrayDeque<>();
+        private boolean filling = false;
+
+        private Region(int safeIndex) {
+            this.safeIndex = safeIndex;
+        }
+    }
+
+    private final Map<Difficulty, Region[]> regions = new EnumMap<>(Difficulty.class);
+    private final ThreadLocal<NoGuessGenerator> generators = ThreadLocal.withInitial(NoGuessGenerator::new);
+    private final SplittableRandom seeds;
+    private final ExecutorService workers;
+    private final int capacity;
+
+    /**
+     * Constructor for the BoardPool class, using every core but one.
+     */
+    public BoardPool() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), DEFAULT_CAPACITY, System.nanoTime());
+    }
+
+    /**
+     * Constructor for the BoardPool class.
+     *
+     * @param threads  the number of background threads
+     * @param capacity the number of boards kept ready per region
+     * @param seed     the seed the candidate boards are drawn from
+     */
+    public BoardPool(int threads, int capacity, long seed) {
+        this.capacity = capacity;
+        this.seeds = new SplittableRandom(seed);
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "board-pool");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+        for (Difficulty difficulty : Difficulty.values()) {
+            final int rows = difficulty.getRows();
+            final int cols = difficulty.getCols();
+            final int regionCols = (cols + REGION_SIZE - 1) / REGION_SIZE;
+            Region[] difficultyRegions = new Region[((rows + REGION_SIZE - 1) / REGION_SIZE) * regionCols];
+            for (int r = 0; r < difficultyRegions.length; r++) {
+                // Center the safe zone on the region, so every space of the region is inside it
+                int row = Math.min((r / regionCols) * REGION_SIZE + 1, rows - 1);
+                int col = Math.min((r % regionCols) * REGION_SIZE + 1, cols - 1);
+                difficultyRegions[r] = new Region(row * cols + col);
+            }
+            this.regions.put(difficulty, difficultyRegions);
+        }
+    }
+
+    /**
+     * Starts filling every region of the given difficulties in the background.
+     *
+     * @param difficulties the difficulties to fill, in order of priority
+     */
+    public void warmUp(Difficulty... difficulties) {
+        for (Difficulty difficulty : difficulties) {
+            for (Region region : this.regions.get(difficulty)) {
+                this.refill(difficulty, region);
+            }
+        }
+    }
+
+    /**
+     * Takes a board that can be won without guessing from the given first click.
+     *
+     * @param difficulty the difficulty of the game
+     * @param row        the row of the first click
+     * @param col        the column of the first click
+     * @return the board. If none is ready and none is generated within a few frames, an ordinary random board with its safe zone around the click is
+     * returned, whose {@link NoGuessGenerator.Layout#validFrom()} is 0.
+     */
+    public NoGuessGenerator.Layout take(Difficulty difficulty, int row, int col) {
+        final int cols = difficulty.getCols();
+        final int regionCols = (cols + REGION_SIZE - 1) / REGION_SIZE;
+        Region region = this.regions.get(difficulty)[(row / REGION_SIZE) * regionCols + col / REGION_SIZE];
+
+        synchronized (region) {
+            Iterator<NoGuessGenerator.Layout> iterator = region.ready.iterator();
+            while (iterator.hasNext()) {
+                NoGuessGenerator.Layout layout = iterator.next();
+                if (layout.isValidFrom(row, col, cols)) {
+                    iterator.remove();
+                    this.refill(difficulty, region);
+                    return layout;
+                }
+            }
+        }
+
+        // Nothing ready fits this click, so generate a board around the click itself
+        int click = row * cols + col;
+        SplittableRandom random = this.nextRandom();
+        NoGuessGenerator.Layout layout = this.generators.get().generate(difficulty.getRows(), cols, difficulty.getMines(), click,
+                random, FOREGROUND_ATTEMPTS, FOREGROUND_NANOS);
+        return layout != null ? layout : new NoGuessGenerator.Layout(random.nextLong(), click, 0);
+    }
+
+    /**
+     * Gets the number of boards ready for a difficulty.
+     *
+     * @param difficulty the difficulty
+     * @return the number of ready boards over all regions
+     */
+    public int getReady(Difficulty difficulty) {
+        int ready = 0;
+        for (Region region : this.regions.get(difficulty)) {
+            synchronized (region) {
+                ready += region.ready.size();
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * Stops the background threads. Boards already generated can still be taken.
+     */
+    public void shutdown() {
+        this.workers.shutdownNow();
+    }
+
+    /**
+     * Schedules a region to be filled up to capacity, unless it is full or already being filled.
+     */
+    private void refill(Difficulty difficulty, Region region) {
+        synchronized (region) {
+            if (region.filling || region.ready.size() >= this.capacity || this.workers.isShutdown()) {
+                return;
+            }
+            region.filling = true;
+        }
+        this.workers.execute(() -> this.fill(difficulty, region));
+    }
+
+    /**
+     * Generates boards for a region until it is full, the thread is interrupted or the attempts run out.
+     */
+    private void fill(Difficulty difficulty, Region region) {
+        NoGuessGenerator generator = this.generators.get();
+        SplittableRandom random = this.nextRandom();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                synchronized (region) {
+                    if (region.ready.size() >= this.capacity) {
+                        return;
+                    }
+                }
+                NoGuessGenerator.Layout layout = generator.generate(difficulty.getRows(), difficulty.getCols(), difficulty.getMines(),
+                        region.safeIndex, random, BACKGROUND_ATTEMPTS);
+                if (layout == null) {
+                    return; // Too dense to find a no-guess board, leave the region to the foreground fallback
+                }
+                synchronized (region) {
+                    region.ready.add(layout);
+                }
+            }
+        }
+        finally {
+            synchronized (region) {
+                region.filling = false;
+            }
+        }
+    }
+
+    /**
+     * Splits off an independent random number generator for one batch of candidates.
+     */
+    private synchronized SplittableRandom nextRandom() {
+        return this.seeds.split();
+    }
+}
@@ -0,0 +1,142 @@
+package minesweeper.generator;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.GameEngine;
+import minesweeper.engine.GameStatus;
+import minesweeper.solver.Solver;
+
+import java.util.SplittableRandom;
+
+/**
+ * Finds boards that can be won from the first click without guessing.
+ * A board is accepted when the {@link Solver} alone reveals every safe space, starting from the first click.
+ * Each instance keeps its own engine and solver, so use one per thread.
+ */
+public final class NoGuessGenerator {
+    /**
+     * A board that was generated ahead of time, reproduced by starting a game with
+     * {@link GameEngine#newGame(int, int, int, long, int)}.
+     *
+     * @param seed      the seed the mines are placed with
+     * @param safeIndex the space the safe zone is centered on
+     * @param validFrom bit {@code (dr + 1) * 3 + (dc + 1)} is set if the board can be won without guessing
+     *                  when the first click is at row offset dr and column offset dc from the safe space; 0 if unvalidated
+     */
+    public record Layout(long seed, int safeIndex, int validFrom) {
+        /**
+         * Checks if the board can be won without guessing from a first click.
+         *
+         * @param row  the row of the first click
+         * @param col  the column of the first click
+         * @param cols the number of columns of the board
+         * @return true if the first click is in the safe zone and the board was validated from it
+         */
+        public boolean isValidFrom(int row, int col, int cols) {
+            int dr = row - this.safeIndex / cols;
+            int dc = col - this.safeIndex % cols;
+            return Math.abs(dr) <= 1 && Math.abs(dc) <= 1 && (this.validFrom & (1 << ((dr + 1) * 3 + dc + 1))) != 0;
+        }
+    }
+
+    private final GameEngine engine = new GameEngine(0, 0, 0, 0);
+    private final Solver solver = new Solver();
+    private long attempts = 0;
+
+    /**
+     * Searches for a board with its safe zone around the given space that can be won without guessing from it.
+     *
+     * @param rows        the number of rows
+     * @param cols        the number of columns
+     * @param mines       the number of mines
+     * @param safeIndex   the space the safe zone is centered on, which is also the first click
+     * @param random      the random number generator the candidate seeds are drawn from
+     * @param maxAttempts the number of candidate boards to try
+     * @return the board, or null if none of the candidates could be won without guessing
+     */
+    public Layout generate(int rows, int cols, int mines, int safeIndex, SplittableRandom random, int maxAttempts) {
+        return this.generate(rows, cols, mines, safeIndex, random, maxAttempts, Long.MAX_VALUE);
+    }
+
+    /**
+     * Searches for a board like {@link #generate(int, int, int, int, SplittableRandom, int)}, but gives up once a
+     * time limit has passed. At least one candidate is always tried.
+     *
+     * @param rows        the number of rows
+     * @param cols        the number of columns
+     * @param mines       the number of mines
+     * @param safeIndex   the space the safe zone is centered on, which is also the first click
+     * @param random      the random number generator the candidate seeds are drawn from
+     * @param maxAttempts the number of candidate boards to try
+     * @param maxNanos    the time limit in nanoseconds
+     * @return the board, or null if none of the candidates tried in time could be won without guessing
+     */
+    public Layout generate(int rows, int cols, int mines, int safeIndex, SplittableRandom random, int maxAttempts, long maxNanos) {
+        final int safeRow = safeIndex / cols;
+        final int safeCol = safeIndex % cols;
+        final long start = System.nanoTime();
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            if (attempt > 0 && System.nanoTime() - start >= maxNanos) {
+                return null;
+            }
+            long seed = random.nextLong();
+            if (!this.isNoGuess(rows, cols, mines, seed, safeIndex, safeIndex)) {
+                continue;
+            }
+
+            // Also record the other first clicks in the safe zone the board works from
+            int validFrom = 0;
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    int row = safeRow + dr;
+                    int col = safeCol + dc;
+                    if (row < 0 || row >= rows || col < 0 || col >= cols) {
+                        continue;
+                    }
+                    int click = row * cols + col;
+                    if (click == safeIndex || this.isNoGuess(rows, cols, mines, seed, safeIndex, click)) {
+                        validFrom |= 1 << ((dr + 1) * 3 + dc + 1);
+                    }
+                }
+            }
+            return new Layout(seed, safeIndex, validFrom);
+        }
+        return null;
+    }
+
+    /**
+     * Plays a board with the solver alone.
+     *
+     * @param rows      the number of rows
+     * @param cols      the number of columns
+     * @param mines     the number of mines
+     * @param seed      the seed the mines are placed with
+     * @param safeIndex the space the safe zone is centered on
+     * @param click     the first click
+     * @return true if the solver wins the game without guessing
+     */
+    public boolean isNoGuess(int rows, int cols, int mines, long seed, int safeIndex, int click) {
+        this.attempts++;
+        this.engine.newGame(rows, cols, mines, seed, safeIndex);
+        final Board board = this.engine.getBoard();
+        this.solver.reset(board);
+        this.solver.update(this.engine.reveal(board.row(click), board.col(click)));
+        while (this.engine.getStatus() == GameStatus.PLAYING) {
+            this.solver.solve();
+            int safe = this.solver.nextSafe();
+            if (safe < 0) {
+                return false;
+            }
+            this.solver.update(this.engine.reveal(board.row(safe), board.col(safe)));
+        }
+        return this.engine.getStatus() == GameStatus.WON;
+    }
+
+    /**
+     * Gets the number of boards played by this generator so far.
+     *
+     * @return the number of attempts
+     */
+    public long getAttempts() {
+        return this.attempts;
+    }
+}
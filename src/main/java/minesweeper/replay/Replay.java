@@ -0,0 +1,314 @@
+package minesweeper.replay;
+
+import minesweeper.engine.ChangeSet;
+import minesweeper.engine.GameEngine;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A recorded game: the board it was played on and every move with the time it was made.
+ *
+ * <p>The board is stored as its seed and safe space, since the engine places the same mines from them every time.
+ * Each move is two varints: the milliseconds since the previous move, and the distance from the previous move's
+ * space, zigzag encoded and shifted left by two with the move type in the low bits. Players mostly click near their
+ * last click, so that usually fits in one byte and a typical Expert game takes a few hundred bytes.</p>
+ *
+ * <pre>
+ * 'M' 'S' 'R' version
+ * varint rows, varint cols, varint mines, 8 byte seed, varint safeIndex + 1, varint moves
+ * moves x (varint deltaMillis, varint zigzag(index - previousIndex) &lt;&lt; 2 | type)
+ * </pre>
+ */
+public final class Replay {
+    /** A left click on a covered space. */
+    public static final int REVEAL = 0;
+    /** A right click, placing or removing a flag. */
+    public static final int FLAG = 1;
+    /** A left click on a revealed number. */
+    public static final int CHORD = 2;
+
+    private static final byte[] MAGIC = {'M', 'S', 'R'};
+    private static final int VERSION = 1;
+
+    private final int rows;
+    private final int cols;
+    private final int mines;
+    private final long seed;
+    private final int safeIndex;
+    private final int[] moves; // index << 2 | type
+    private final int[] times; // milliseconds since the start of the game
+
+    /**
+     * Constructor for the Replay class.
+     *
+     * @param rows      the number of rows
+     * @param cols      the number of columns
+     * @param mines     the number of mines
+     * @param seed      the seed the mines are placed with
+     * @param safeIndex the space the safe zone is centered on, or -1 for the first click
+     * @param moves     the moves, each {@code index << 2 | type}
+     * @param times     the time of each move in milliseconds since the start of the game
+     */
+    Replay(int rows, int cols, int mines, long seed, int safeIndex, int[] moves, int[] times) {
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+        this.seed = seed;
+        this.safeIndex = safeIndex;
+        this.moves = moves;
+        this.times = times;
+    }
+
+    /**
+     * Encodes the replay in its compact binary form.
+     *
+     * @return the encoded replay
+     */
+    public byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(MAGIC.length + 1 + 5 * 5 + Long.BYTES + this.moves.length * 10);
+        buffer.put(MAGIC).put((byte) VERSION);
+        putVarint(buffer, this.rows);
+        putVarint(buffer, this.cols);
+        putVarint(buffer, this.mines);
+        buffer.putLong(this.seed);
+        putVarint(buffer, this.safeIndex + 1);
+        putVarint(buffer, this.moves.length);
+        int previousTime = 0;
+        int previousIndex = 0;
+        for (int move = 0; move < this.moves.length; move++) {
+            int index = this.getIndex(move);
+            int delta = index - previousIndex;
+            putVarint(buffer, this.times[move] - previousTime);
+            putVarint(buffer, ((delta << 1) ^ (delta >> 31)) << 2 | this.getType(move));
+            previousTime = this.times[move];
+            previousIndex = index;
+        }
+
+        byte[] data = new byte[buffer.position()];
+        buffer.flip().get(data);
+        return data;
+    }
+
+    /**
+     * Decodes a replay.
+     *
+     * @param data the encoded replay
+     * @return the replay
+     * @throws IllegalArgumentException if the data is not a valid replay
+     */
+    public static Replay decode(byte[] data) {
+        return decode(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Decodes a replay from the current position of a buffer, which is left after the replay.
+     * The buffer can be a slice of a memory-mapped file, so the replay is read without copying the file.
+     *
+     * @param buffer the buffer holding the encoded replay
+     * @return the replay
+     * @throws IllegalArgumentException if the data is not a valid replay
+     */
+    public static Replay decode(ByteBuffer buffer) {
+        try {
+            for (byte b : MAGIC) {
+                if (buffer.get() != b) {
+                    throw new IllegalArgumentException("Not a replay");
+                }
+            }
+            int version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported replay version: " + version);
+            }
+
+            int rows = getVarint(buffer);
+            int cols = getVarint(buffer);
+            int mines = getVarint(buffer);
+            long seed = buffer.getLong();
+            int safeIndex = getVarint(buffer) - 1;
+            int count = getVarint(buffer);
+            int[] moves = new int[count];
+            int[] times = new int[count];
+            int time = 0;
+            int index = 0;
+            for (int move = 0; move < count; move++) {
+                time += getVarint(buffer);
+                times[move] = time;
+                int value = getVarint(buffer);
+                int zigzag = value >>> 2;
+                index += (zigzag >>> 1) ^ -(zigzag & 1);
+                if (index < 0 || index >= (long) rows * cols || (value & 3) > CHORD) {
+                    throw new IllegalArgumentException("Invalid move " + move + " in replay");
+                }
+                moves[move] = index << 2 | (value & 3);
+            }
+            return new Replay(rows, cols, mines, seed, safeIndex, moves, times);
+        }
+        catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated replay", e);
+        }
+    }
+
+    /**
+     * Starts a new engine on the board of the replay, before any move.
+     *
+     * @return the engine
+     */
+    public GameEngine newEngine() {
+        GameEngine engine = new GameEngine(0, 0, 0, 0);
+        this.restart(engine);
+        return engine;
+    }
+
+    /**
+     * Starts the board of the replay on an existing engine, before any move.
+     *
+     * @param engine the engine to reuse
+     */
+    public void restart(GameEngine engine) {
+        engine.newGame(this.rows, this.cols, this.mines, this.seed, this.safeIndex);
+    }
+
+    /**
+     * Plays one move on an engine.
+     *
+     * @param engine the engine, in the state right before the move
+     * @param move   the number of the move
+     * @return the spaces changed by the move
+     */
+    public ChangeSet apply(GameEngine engine, int move) {
+        int index = this.getIndex(move);
+        return switch (this.getType(move)) {
+            case FLAG -> engine.toggleFlag(index);
+            case CHORD -> engine.chord(index);
+            default -> engine.reveal(index);
+        };
+    }
+
+    /**
+     * Plays the first moves of the replay on a new engine, without any delay.
+     *
+     * @param moves the number of moves to play
+     * @return the engine in the state after those moves
+     */
+    public GameEngine seek(int moves) {
+        GameEngine engine = this.newEngine();
+        for (int move = 0; move < Math.min(moves, this.moves.length); move++) {
+            this.apply(engine, move);
+        }
+        return engine;
+    }
+
+    /**
+     * Gets the number of rows of the board.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Gets the number of columns of the board.
+     *
+     * @return the number of columns
+     */
+    public int getCols() {
+        return this.cols;
+    }
+
+    /**
+     * Gets the number of mines on the board.
+     *
+     * @return the number of mines
+     */
+    public int getMines() {
+        return this.mines;
+    }
+
+    /**
+     * Gets the seed the mines are placed with.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Gets the number of recorded moves.
+     *
+     * @return the number of moves
+     */
+    public int getMoves() {
+        return this.moves.length;
+    }
+
+    /**
+     * Gets the type of a move.
+     *
+     * @param move the number of the move
+     * @return {@link #REVEAL}, {@link #FLAG} or {@link #CHORD}
+     */
+    public int getType(int move) {
+        return this.moves[move] & 3;
+    }
+
+    /**
+     * Gets the space of a move.
+     *
+     * @param move the number of the move
+     * @return the index of the space
+     */
+    public int getIndex(int move) {
+        return this.moves[move] >>> 2;
+    }
+
+    /**
+     * Gets the time a move was made.
+     *
+     * @param move the number of the move
+     * @return the time in milliseconds since the start of the game
+     */
+    public int getTimeMillis(int move) {
+        return this.times[move];
+    }
+
+    /**
+     * Gets the length of the game.
+     *
+     * @return the time of the last move in milliseconds, or 0 for an empty replay
+     */
+    public int getDurationMillis() {
+        return this.times.length == 0 ? 0 : this.times[this.times.length - 1];
+    }
+
+    /**
+     * Gets the time the game was played, from the first move to the last. This is the time games are ranked by.
+     *
+     * @return the time in milliseconds, or 0 for an empty replay
+     */
+    public int getPlayMillis() {
+        return this.times.length == 0 ? 0 : this.times[this.times.length - 1] - this.times[0];
+    }
+
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in replay");
+    }
+}
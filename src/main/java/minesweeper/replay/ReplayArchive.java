@@ -0,0 +1,285 @@
+package minesweeper.replay;
+
+import minesweeper.CommandLine;
+import minesweeper.Difficulty;
+import minesweeper.engine.IntList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * An append-only archive of replays, made of a data file with the encoded replays back to back
+ * and an index file with one fixed-width record per game.
+ *
+ * <p>Both files are memory-mapped for reading. Listing and filtering only touch the index, 64 bytes per game,
+ * and a replay is decoded straight from the mapped data file without reading it into the heap first.
+ * Appends write the replay before its index record, so a crash in between leaves a replay without a record,
+ * which is ignored, and never a record without its replay.</p>
+ *
+ * <pre>
+ * index record: long offset, int length, byte difficulty (-1 if custom), byte won, short unused,
+ *               int durationMillis, long playedAtMillis, 36 bytes player name (UTF-8, zero padded)
+ * </pre>
+ */
+public final class ReplayArchive implements Closeable {
+    public static final String DATA_FILENAME = "replays.dat";
+    public static final String INDEX_FILENAME = "replays.idx";
+
+    private static final int RECORD_SIZE = 64;
+    private static final int OFFSET = 0;
+    private static final int LENGTH = 8;
+    private static final int DIFFICULTY = 12;
+    private static final int WON = 13;
+    private static final int DURATION = 16;
+    private static final int PLAYED_AT = 20;
+    private static final int PLAYER = 28;
+    private static final int PLAYER_BYTES = RECORD_SIZE - PLAYER;
+
+    /**
+     * One game of the archive, as read from its index record.
+     *
+     * @param position       the position of the game in the archive
+     * @param difficulty     the difficulty, or null for a custom board
+     * @param won            true if the game was won
+     * @param durationMillis the time from the first to the last move
+     * @param playedAt       when the game ended
+     * @param player         the name of the player
+     */
+    public record Entry(int position, Difficulty difficulty, boolean won, int durationMillis, Instant playedAt, String player) {
+    }
+
+    private final FileChannel data;
+    private final FileChannel index;
+    private MappedByteBuffer dataMap;
+    private MappedByteBuffer indexMap;
+    private int size;
+
+    private ReplayArchive(FileChannel data, FileChannel index) throws IOException {
+        this.data = data;
+        this.index = index;
+
+        // Drop a torn record or records whose replay never made it to the data file
+        long dataSize = data.size();
+        int records = (int) (index.size() / RECORD_SIZE);
+        this.remap(records);
+        while (records > 0) {
+            int base = (records - 1) * RECORD_SIZE;
+            if (this.indexMap.getLong(base + OFFSET) + this.indexMap.getInt(base + LENGTH) <= dataSize) {
+                break;
+            }
+            records--;
+        }
+        if (index.size() != (long) records * RECORD_SIZE) {
+            index.truncate((long) records * RECORD_SIZE);
+        }
+        this.size = records;
+        this.remap(records);
+    }
+
+    /**
+     * Opens the archive in a directory, creating its files if they do not exist.
+     *
+     * @param directory the directory of the archive
+     * @return the archive
+     * @throws IOException if the files cannot be opened
+     */
+    public static ReplayArchive open(Path directory) throws IOException {
+        FileChannel data = FileChannel.open(directory.resolve(DATA_FILENAME),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel index = FileChannel.open(directory.resolve(INDEX_FILENAME),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new ReplayArchive(data, index);
+    }
+
+    /**
+     * Appends a finished game.
+     *
+     * @param replay     the replay of the game
+     * @param difficulty the difficulty, or null for a custom board
+     * @param won        true if the game was won
+     * @param player     the name of the player, cut to 36 bytes
+     * @param playedAt   when the game ended
+     * @return the position of the game in the archive
+     * @throws IOException if the archive cannot be written
+     */
+    public synchronized int append(Replay replay, Difficulty difficulty, boolean won, String player, Instant playedAt) throws IOException {
+        byte[] encoded = replay.encode();
+        long offset = this.data.size();
+        this.data.write(ByteBuffer.wrap(encoded), offset);
+
+        int duration = replay.getPlayMillis();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putLong(OFFSET, offset)
+                .putInt(LENGTH, encoded.length)
+                .put(DIFFICULTY, (byte) (difficulty == null ? -1 : difficulty.ordinal()))
+                .put(WON, (byte) (won ? 1 : 0))
+                .putInt(DURATION, duration)
+                .putLong(PLAYED_AT, playedAt.toEpochMilli());
+        byte[] name = player == null ? new byte[0] : player.getBytes(StandardCharsets.UTF_8);
+        record.put(PLAYER, name, 0, Math.min(name.length, PLAYER_BYTES));
+        this.index.write(record, (long) this.size * RECORD_SIZE);
+        return this.size++;
+    }
+
+    /**
+     * Gets the number of games in the archive.
+     *
+     * @return the number of games
+     */
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * Reads the index record of a game.
+     *
+     * @param position the position of the game
+     * @return the entry
+     */
+    public synchronized Entry get(int position) {
+        MappedByteBuffer map = this.indexFor(position);
+        int base = position * RECORD_SIZE;
+        return new Entry(position, this.difficultyAt(map, base), map.get(base + WON) != 0, map.getInt(base + DURATION),
+                Instant.ofEpochMilli(map.getLong(base + PLAYED_AT)), this.playerAt(map, base));
+    }
+
+    /**
+     * Finds the games matching a filter. Only the index is read, and player names are only compared
+     * for games that already match the other criteria.
+     *
+     * @param difficulty the difficulty to match, or null for any
+     * @param won        true for won games, false for lost games, or null for both
+     * @param player     the player to match, or null for any
+     * @return the positions of the matching games, oldest first
+     */
+    public synchronized IntList find(Difficulty difficulty, Boolean won, String player) {
+        MappedByteBuffer map = this.indexFor(this.size - 1);
+        byte[] name = player == null ? null : Arrays.copyOf(player.getBytes(StandardCharsets.UTF_8), PLAYER_BYTES);
+        byte wanted = (byte) (difficulty == null ? 0 : difficulty.ordinal());
+        IntList matches = new IntList();
+        for (int position = 0; position < this.size; position++) {
+            int base = position * RECORD_SIZE;
+            if (difficulty != null && map.get(base + DIFFICULTY) != wanted) {
+                continue;
+            }
+            if (won != null && (map.get(base + WON) != 0) != won) {
+                continue;
+            }
+            if (name != null && !this.playerEquals(map, base, name)) {
+                continue;
+            }
+            matches.add(position);
+        }
+        return matches;
+    }
+
+    /**
+     * Reads the replay of a game, decoding it directly from the mapped data file.
+     *
+     * @param position the position of the game
+     * @return the replay
+     * @throws IOException if the data file cannot be mapped
+     */
+    public synchronized Replay load(int position) throws IOException {
+        MappedByteBuffer map = this.indexFor(position);
+        int base = position * RECORD_SIZE;
+        long offset = map.getLong(base + OFFSET);
+        int length = map.getInt(base + LENGTH);
+        if (this.dataMap == null || this.dataMap.capacity() < offset + length) {
+            this.dataMap = this.data.map(FileChannel.MapMode.READ_ONLY, 0, this.data.size());
+        }
+        return Replay.decode(this.dataMap.slice((int) offset, length));
+    }
+
+    /**
+     * Closes the files of the archive.
+     *
+     * @throws IOException if a file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.data.close();
+        this.index.close();
+    }
+
+    /**
+     * Lists the archived games in the working directory from the command line, newest first.
+     *
+     * @param args filters in the form {@code --name=value}: difficulty, won, player and limit
+     * @throws IOException if the archive cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = CommandLine.parseOptions(args);
+        Difficulty difficulty = options.containsKey("difficulty") ? Difficulty.fromString(options.get("difficulty")) : null;
+        Boolean won = options.containsKey("won") ? Boolean.parseBoolean(options.get("won")) : null;
+        int limit = Integer.parseInt(options.getOrDefault("limit", "50"));
+
+        try (ReplayArchive archive = open(Path.of(""))) {
+            long start = System.nanoTime();
+            IntList matches = archive.find(difficulty, won, options.get("player"));
+            long nanos = System.nanoTime() - start;
+            for (int k = matches.size() - 1; k >= Math.max(0, matches.size() - limit); k--) {
+                Entry entry = archive.get(matches.get(k));
+                System.out.printf("%6d  %-12s %-4s %8.3fs  %s  %s%n", entry.position(),
+                        entry.difficulty() == null ? "Custom" : entry.difficulty().getName(), entry.won() ? "won" : "lost",
+                        entry.durationMillis() / 1000.0, entry.playedAt(), entry.player());
+            }
+            System.out.printf("%d of %d games match (%.2f ms)%n", matches.size(), archive.size(), nanos / 1e6);
+        }
+    }
+
+    /**
+     * Gets the index map, mapping it again if records were appended since it was mapped.
+     */
+    private MappedByteBuffer indexFor(int position) {
+        if (position < -1 || position >= this.size) {
+            throw new IndexOutOfBoundsException("Game " + position + " of " + this.size);
+        }
+        if (this.indexMap.capacity() < this.size * RECORD_SIZE) {
+            try {
+                this.remap(this.size);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Cannot map the replay index", e);
+            }
+        }
+        return this.indexMap;
+    }
+
+    private void remap(int records) throws IOException {
+        this.indexMap = this.index.map(FileChannel.MapMode.READ_ONLY, 0, (long) records * RECORD_SIZE);
+    }
+
+    private Difficulty difficultyAt(MappedByteBuffer map, int base) {
+        int ordinal = map.get(base + DIFFICULTY);
+        return ordinal < 0 || ordinal >= Difficulty.values().length ? null : Difficulty.values()[ordinal];
+    }
+
+    private boolean playerEquals(MappedByteBuffer map, int base, byte[] name) {
+        for (int i = 0; i < PLAYER_BYTES; i++) {
+            if (map.get(base + PLAYER + i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String playerAt(MappedByteBuffer map, int base) {
+        byte[] name = new byte[PLAYER_BYTES];
+        map.get(base + PLAYER, name);
+        int length = 0;
+        while (length < name.length && name[length] != 0) {
+            length++;
+        }
+        return new String(name, 0, length, StandardCharsets.UTF_8);
+    }
+}
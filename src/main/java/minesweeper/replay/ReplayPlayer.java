@@ -0,0 +1,98 @@
+package minesweeper.replay;
+
+import minesweeper.engine.ChangeSet;
+import minesweeper.engine.GameEngine;
+
+/**
+ * Plays a replay back on its own headless engine, either by time or by jumping straight to a move.
+ * The caller drives it with the elapsed time, so the same player runs at real speed, faster or slower.
+ */
+public final class ReplayPlayer {
+    /**
+     * Receives every move as it is played back.
+     */
+    public interface MoveListener {
+        /**
+         * Called after each move.
+         *
+         * @param move    the number of the move
+         * @param changes the spaces changed by the move, only valid until the next move
+         */
+        void onMove(int move, ChangeSet changes);
+    }
+
+    private final Replay replay;
+    private final GameEngine engine;
+    private int position = 0;
+
+    /**
+     * Constructor for the ReplayPlayer class.
+     *
+     * @param replay the replay to play
+     */
+    public ReplayPlayer(Replay replay) {
+        this.replay = replay;
+        this.engine = replay.newEngine();
+    }
+
+    /**
+     * Plays every move made up to the given time of the game.
+     *
+     * @param millis   the time of the game in milliseconds, e.g. the real elapsed time multiplied by the speed
+     * @param listener the listener that receives the moves
+     * @return the number of moves played
+     */
+    public int advanceTo(long millis, MoveListener listener) {
+        int played = 0;
+        while (this.position < this.replay.getMoves() && this.replay.getTimeMillis(this.position) <= millis) {
+            ChangeSet changes = this.replay.apply(this.engine, this.position);
+            listener.onMove(this.position++, changes);
+            played++;
+        }
+        return played;
+    }
+
+    /**
+     * Jumps to the state right before a move. Jumping back restarts the board and plays the moves again,
+     * which takes microseconds even for long games.
+     *
+     * @param move the number of the move, or {@link Replay#getMoves()} for the end of the game. Clamped to the replay.
+     */
+    public void seek(int move) {
+        move = Math.clamp(move, 0, this.replay.getMoves());
+        if (move < this.position) {
+            this.replay.restart(this.engine);
+            this.position = 0;
+        }
+        while (this.position < move) {
+            this.replay.apply(this.engine, this.position++);
+        }
+    }
+
+    /**
+     * Checks if every move has been played.
+     *
+     * @return true if the replay is over
+     */
+    public boolean isFinished() {
+        return this.position >= this.replay.getMoves();
+    }
+
+    /**
+     * Gets the number of the next move to play.
+     *
+     * @return the position in the replay
+     */
+    public int getPosition() {
+        return this.position;
+    }
+
+    /**
+     * Gets the engine the replay is played on.
+     *
+     * @return the engine
+     */
+    public GameEngine getEngine() {
+        return this.engine;
+    }
+}
@@ -0,0 +1,72 @@
+package minesweeper.replay;
+
+import minesweeper.engine.GameEngine;
+import minesweeper.engine.IntList;
+
+/**
+ * Records the moves of a game as they are made. The lists are reused from game to game.
+ */
+public final class ReplayRecorder {
+    private final IntList moves = new IntList();
+    private final IntList times = new IntList();
+    private long startMillis;
+
+    /**
+     * Starts recording a new game.
+     *
+     * @param nowMillis the current time in milliseconds
+     */
+    public void reset(long nowMillis) {
+        this.moves.clear();
+        this.times.clear();
+        this.startMillis = nowMillis;
+    }
+
+    /**
+     * Continues recording a saved game. The time the game was closed does not count,
+     * so the next move follows the last recorded one.
+     *
+     * @param replay    the moves recorded before the game was saved
+     * @param nowMillis the current time in milliseconds
+     */
+    public void resume(Replay replay, long nowMillis) {
+        this.reset(nowMillis - replay.getDurationMillis());
+        for (int move = 0; move < replay.getMoves(); move++) {
+            this.moves.add(replay.getIndex(move) << 2 | replay.getType(move));
+            this.times.add(replay.getTimeMillis(move));
+        }
+    }
+
+    /**
+     * Records a move. Only moves the engine accepts should be recorded.
+     *
+     * @param type      {@link Replay#REVEAL}, {@link Replay#FLAG} or {@link Replay#CHORD}
+     * @param index     the index of the space
+     * @param nowMillis the current time in milliseconds
+     */
+    public void record(int type, int index, long nowMillis) {
+        this.moves.add(index << 2 | type);
+        this.times.add((int) Math.min(Integer.MAX_VALUE, nowMillis - this.startMillis));
+    }
+
+    /**
+     * Gets the number of moves recorded so far.
+     *
+     * @return the number of moves
+     */
+    public int getMoves() {
+        return this.moves.size();
+    }
+
+    /**
+     * Creates the replay of the recorded game. The board is taken from the engine, so call this after the
+     * first move, once the engine knows which seed and safe space the game uses.
+     *
+     * @param engine the engine the game was played on
+     * @return the replay
+     */
+    public Replay finish(GameEngine engine) {
+        return new Replay(engine.getBoard().getRows(), engine.getBoard().getCols(), engine.getMines(), engine.getSeed(),
+                engine.getSafeIndex(), this.moves.toArray(), this.times.toArray());
+    }
+}
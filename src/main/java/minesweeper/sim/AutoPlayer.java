@@ -0,0 +1,123 @@
+package minesweeper.sim;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.ChangeSet;
+import minesweeper.engine.GameEngine;
+import minesweeper.engine.GameStatus;
+import minesweeper.solver.ProbabilityEngine;
+import minesweeper.solver.Solver;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * An automatic player for headless games. It reveals the spaces the {@link Solver} proves safe
+ * and, when nothing is provably safe, guesses the space the {@link ProbabilityEngine} finds least likely to be a mine.
+ * Flags are never placed, since they are not needed to win.
+ */
+public class AutoPlayer {
+    /**
+     * Receives the cost of each engine action, so the caller can measure without the player knowing how.
+     */
+    public interface ActionListener {
+        /**
+         * Called after each action.
+         *
+         * @param changes the spaces changed by the action
+         * @param nanos   the time the engine spent on the action
+         */
+        void onAction(ChangeSet changes, long nanos);
+    }
+
+    private static final ActionListener NO_LISTENER = (changes, nanos) -> {
+    };
+
+    /**
+     * The states the probability engine may visit per component. A state limit instead of a time limit keeps the
+     * guesses, and so the whole game, the same for the same seed on any machine and under any load.
+     */
+    private static final int MAX_STATES = 20_000;
+
+    private final Solver solver = new Solver();
+    private final ProbabilityEngine probabilityEngine = new ProbabilityEngine(ForkJoinPool.commonPool(),
+            ProbabilityEngine.NO_TIME_LIMIT, MAX_STATES);
+    private boolean useProbabilities = true;
+
+    /**
+     * Plays a game from the first click until it is won or lost.
+     *
+     * @param engine   the engine with a new game
+     * @param random   the random number generator used for guesses
+     * @param listener the listener that receives every action
+     * @return the status of the finished game
+     */
+    public GameStatus play(GameEngine engine, SplittableRandom random, ActionListener listener) {
+        final Board board = engine.getBoard();
+        if (listener == null) {
+            listener = NO_LISTENER;
+        }
+
+        // Open in the middle of the board, like most players do
+        this.solver.reset(board);
+        this.reveal(engine, listener, board.index(board.getRows() / 2, board.getCols() / 2));
+        while (!engine.getStatus().isFinished()) {
+            this.solver.solve();
+            int safe = this.solver.nextSafe();
+            this.reveal(engine, listener, safe >= 0 ? safe : this.guess(engine, random));
+        }
+        return engine.getStatus();
+    }
+
+    /**
+     * Gets the solver used by this player, for inspecting its last deductions.
+     *
+     * @return the solver
+     */
+    public Solver getSolver() {
+        return this.solver;
+    }
+
+    /**
+     * Enables or disables guessing by mine probability.
+     *
+     * @param useProbabilities true to guess the safest space, false to guess a random one
+     */
+    public void setUseProbabilities(boolean useProbabilities) {
+        this.useProbabilities = useProbabilities;
+    }
+
+    /**
+     * Picks the covered space least likely to be a mine, or a random one that is not a known mine.
+     *
+     * @return the index of the space
+     */
+    private int guess(GameEngine engine, SplittableRandom random) {
+        final Board board = engine.getBoard();
+        if (this.useProbabilities) {
+            int safest = this.probabilityEngine.compute(board, this.solver, engine.getMines()).safest();
+            if (safest >= 0) {
+                return safest;
+            }
+        }
+
+        int candidates = board.getSize() - engine.getRevealedSpaces() - this.solver.getKnownMines().cardinality();
+        int pick = random.nextInt(candidates);
+        for (int index = 0; index < board.getSize(); index++) {
+            if (!board.isRevealed(index) && !this.solver.isMine(index) && pick-- == 0) {
+                return index;
+            }
+        }
+        throw new IllegalStateException("No covered space left to guess");
+    }
+
+    /**
+     * Reveals a space, reports the cost to the listener and feeds the changes to the solver.
+     */
+    private void reveal(GameEngine engine, ActionListener listener, int index) {
+        final Board board = engine.getBoard();
+        long start = System.nanoTime();
+        ChangeSet changes = engine.reveal(board.row(index), board.col(index));
+        listener.onAction(changes, System.nanoTime() - start);
+        this.solver.update(changes);
+    }
+}
@@ -0,0 +1,216 @@
+package minesweeper.sim;
+
+import minesweeper.CommandLine;
+import minesweeper.Difficulty;
+import minesweeper.engine.BoardMetrics;
+import minesweeper.engine.GameEngine;
+import minesweeper.engine.GameStatus;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Serial;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays large batches of seeded games with the {@link AutoPlayer} on every core, without a JavaFX stage.
+ * Games are split into fork/join tasks; each worker thread reuses one engine and keeps its own counters,
+ * so the batch scales with the number of cores. Game i of a batch always uses the same seed.
+ *
+ * <p>Run with {@code java -cp target/classes minesweeper.sim.BatchSimulator --games=100000 --difficulty=expert}.
+ * Options: {@code --games}, {@code --difficulty} (beginner, intermediate, expert or all), {@code --rows},
+ * {@code --cols} and {@code --mines} for a custom board, {@code --threads}, {@code --seed} and {@code --out}.</p>
+ */
+public class BatchSimulator {
+    private static final int GAMES_PER_TASK = 256;
+
+    private final int rows;
+    private final int cols;
+    private final int mines;
+    private final int threads;
+    private final long seed;
+    private final ThreadLocal<GameEngine> engines;
+
+    /**
+     * Constructor for the BatchSimulator class.
+     *
+     * @param rows    the number of rows of each board
+     * @param cols    the number of columns of each board
+     * @param mines   the number of mines of each board
+     * @param threads the number of worker threads
+     * @param seed    the seed of the batch, each game derives its own seed from it
+     */
+    public BatchSimulator(int rows, int cols, int mines, int threads, long seed) {
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+        this.threads = threads;
+        this.seed = seed;
+        this.engines = ThreadLocal.withInitial(() -> new GameEngine(rows, cols, mines, 0));
+    }
+
+    /**
+     * Plays a batch of games.
+     *
+     * @param games the number of games to play
+     * @return the merged counters of every game
+     */
+    public SimulationResult run(long games) {
+        ForkJoinPool pool = new ForkJoinPool(this.threads);
+        try {
+            long start = System.nanoTime();
+            SimulationResult result = pool.invoke(new BatchTask(0, games));
+            result.setWallNanos(System.nanoTime() - start);
+            return result;
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays games with consecutive numbers on the current thread.
+     *
+     * @param first the number of the first game
+     * @param end   the number after the last game
+     * @return the counters of the games
+     */
+    private SimulationResult playGames(long first, long end) {
+        SimulationResult result = new SimulationResult();
+        GameEngine engine = this.engines.get();
+        AutoPlayer player = new AutoPlayer();
+        BoardMetrics metrics = new BoardMetrics();
+        final int safe = this.rows * this.cols - this.mines;
+
+        long allocatedBefore = allocatedBytes();
+        for (long game = first; game < end; game++) {
+            long gameSeed = gameSeed(this.seed, game);
+            engine.newGame(this.rows, this.cols, this.mines, gameSeed);
+            GameStatus status = player.play(engine, new SplittableRandom(~gameSeed), result);
+            result.addGame(status, engine.getRevealedSpaces(), safe);
+            metrics.compute(engine.getBoard());
+            result.addMetrics(metrics, status);
+        }
+        long allocatedAfter = allocatedBytes();
+        if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+            result.addAllocatedBytes(allocatedAfter - allocatedBefore);
+        }
+        return result;
+    }
+
+    /**
+     * Derives the seed of a single game from the seed of the batch (the SplitMix64 finalizer).
+     *
+     * @param batchSeed the seed of the batch
+     * @param game      the number of the game
+     * @return the seed of the game
+     */
+    public static long gameSeed(long batchSeed, long game) {
+        long z = batchSeed + (game + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Gets the number of bytes allocated by the current thread so far.
+     *
+     * @return the allocated bytes, or -1 if the JVM does not support measuring it
+     */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            return bean.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Splits a range of games in halves until it is small enough to play on one thread.
+     */
+    private class BatchTask extends RecursiveTask<SimulationResult> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final long first;
+        private final long end;
+
+        BatchTask(long first, long end) {
+            this.first = first;
+            this.end = end;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (this.end - this.first <= GAMES_PER_TASK) {
+                return playGames(this.first, this.end);
+            }
+
+            long middle = (this.first + this.end) >>> 1;
+            BatchTask left = new BatchTask(this.first, middle);
+            left.fork();
+            SimulationResult right = new BatchTask(middle, this.end).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    /**
+     * Runs the simulation from the command line and writes the results as CSV.
+     *
+     * @param args options in the form {@code --name=value}
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = CommandLine.parseOptions(args);
+
+        long games = Long.parseLong(options.getOrDefault("games", "100000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        String out = options.getOrDefault("out", "simulation.csv");
+
+        // Each board is {name, rows, cols, mines}
+        List<Object[]> boards = new ArrayList<>();
+        if (options.containsKey("rows") || options.containsKey("cols") || options.containsKey("mines")) {
+            int rows = Integer.parseInt(options.getOrDefault("rows", "16"));
+            int cols = Integer.parseInt(options.getOrDefault("cols", "30"));
+            int mines = Integer.parseInt(options.getOrDefault("mines", "99"));
+            boards.add(new Object[]{"Custom", rows, cols, mines});
+        } else {
+            String name = options.getOrDefault("difficulty", "all");
+            for (Difficulty difficulty : Difficulty.values()) {
+                if (name.equalsIgnoreCase("all") || name.equalsIgnoreCase(difficulty.getName())) {
+                    boards.add(new Object[]{difficulty.getName(), difficulty.getRows(), difficulty.getCols(), difficulty.getMines()});
+                }
+            }
+        }
+
+        File file = new File(out);
+        boolean writeHeader = !file.exists() || file.length() == 0;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
+            if (writeHeader) {
+                writer.write(SimulationResult.CSV_HEADER);
+                writer.newLine();
+            }
+            System.out.println(SimulationResult.CSV_HEADER);
+            for (Object[] board : boards) {
+                int rows = (int) board[1];
+                int cols = (int) board[2];
+                int mines = (int) board[3];
+                SimulationResult result = new BatchSimulator(rows, cols, mines, threads, seed).run(games);
+                String row = result.toCsvRow((String) board[0], rows, cols, mines, threads);
+                System.out.println(row);
+                writer.write(row);
+                writer.newLine();
+            }
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
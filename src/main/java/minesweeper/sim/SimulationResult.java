@@ -0,0 +1,181 @@
+package minesweeper.sim;
+
+import minesweeper.engine.BoardMetrics;
+import minesweeper.engine.ChangeSet;
+import minesweeper.engine.GameStatus;
+
+import java.util.Locale;
+
+/**
+ * Counters collected while simulating a batch of games. Each worker fills its own result and
+ * the results are merged at the end, so no counter is shared between threads.
+ */
+public class SimulationResult implements AutoPlayer.ActionListener {
+    public static final int PROGRESS_BUCKETS = 10;
+    public static final String CSV_HEADER = "board,rows,cols,mines,threads,games,wins,losses,win_rate,games_per_sec,"
+            + "mean_reveals,mean_spaces_per_reveal,mean_reveal_ns,alloc_bytes_per_game,"
+            + "loss_progress_0_10,loss_progress_10_20,loss_progress_20_30,loss_progress_30_40,loss_progress_40_50,"
+            + "loss_progress_50_60,loss_progress_60_70,loss_progress_70_80,loss_progress_80_90,loss_progress_90_100,"
+            + "mean_3bv,mean_zini,mean_3bv_won";
+
+    private long games = 0;
+    private long wins = 0;
+    private long actions = 0;
+    private long revealNanos = 0;
+    private long revealedSpaces = 0;
+    private long allocatedBytes = 0;
+    private final long[] lossProgress = new long[PROGRESS_BUCKETS];
+    private long bbbv = 0;
+    private long zini = 0;
+    private long wonBbbv = 0;
+    private long wallNanos = 0;
+
+    @Override
+    public void onAction(ChangeSet changes, long nanos) {
+        this.actions++;
+        this.revealNanos += nanos;
+        this.revealedSpaces += changes.size();
+    }
+
+    /**
+     * Records the outcome of a finished game.
+     *
+     * @param status   the status of the finished game
+     * @param revealed the number of revealed spaces without a mine
+     * @param safe     the number of spaces without a mine
+     */
+    public void addGame(GameStatus status, int revealed, int safe) {
+        this.games++;
+        if (status == GameStatus.WON) {
+            this.wins++;
+            return;
+        }
+        int bucket = (int) ((long) revealed * PROGRESS_BUCKETS / Math.max(1, safe));
+        this.lossProgress[Math.min(bucket, PROGRESS_BUCKETS - 1)]++;
+    }
+
+    /**
+     * Records how hard the board of a finished game was.
+     *
+     * @param metrics the metrics computed on the board of the game
+     * @param status  the status of the finished game
+     */
+    public void addMetrics(BoardMetrics metrics, GameStatus status) {
+        this.bbbv += metrics.getBbbv();
+        this.zini += metrics.getZini();
+        if (status == GameStatus.WON) {
+            this.wonBbbv += metrics.getBbbv();
+        }
+    }
+
+    /**
+     * Adds the bytes a worker allocated while playing its games.
+     *
+     * @param bytes the allocated bytes, or a negative number if unknown
+     */
+    public void addAllocatedBytes(long bytes) {
+        if (bytes > 0) {
+            this.allocatedBytes += bytes;
+        }
+    }
+
+    /**
+     * Sets the wall clock time the whole batch took.
+     *
+     * @param wallNanos the elapsed time in nanoseconds
+     */
+    public void setWallNanos(long wallNanos) {
+        this.wallNanos = wallNanos;
+    }
+
+    /**
+     * Adds the counters of another result to this one.
+     *
+     * @param other the result to merge
+     * @return this result
+     */
+    public SimulationResult merge(SimulationResult other) {
+        this.games += other.games;
+        this.wins += other.wins;
+        this.actions += other.actions;
+        this.revealNanos += other.revealNanos;
+        this.revealedSpaces += other.revealedSpaces;
+        this.allocatedBytes += other.allocatedBytes;
+        for (int i = 0; i < PROGRESS_BUCKETS; i++) {
+            this.lossProgress[i] += other.lossProgress[i];
+        }
+        this.bbbv += other.bbbv;
+        this.zini += other.zini;
+        this.wonBbbv += other.wonBbbv;
+        return this;
+    }
+
+    public long getGames() {
+        return this.games;
+    }
+
+    public long getWins() {
+        return this.wins;
+    }
+
+    /**
+     * Gets the fraction of games that were won.
+     *
+     * @return the win rate between 0 and 1
+     */
+    public double getWinRate() {
+        return this.games == 0 ? 0 : (double) this.wins / this.games;
+    }
+
+    /**
+     * Gets the throughput of the batch.
+     *
+     * @return the number of games simulated per second of wall clock time
+     */
+    public double getGamesPerSecond() {
+        return this.wallNanos == 0 ? 0 : this.games * 1e9 / this.wallNanos;
+    }
+
+    /**
+     * Gets the mean time the engine spent on a reveal.
+     *
+     * @return the mean reveal cost in nanoseconds
+     */
+    public double getMeanRevealNanos() {
+        return this.actions == 0 ? 0 : (double) this.revealNanos / this.actions;
+    }
+
+    /**
+     * Gets the mean number of bytes allocated per game.
+     *
+     * @return the allocated bytes per game
+     */
+    public double getAllocatedBytesPerGame() {
+        return this.games == 0 ? 0 : (double) this.allocatedBytes / this.games;
+    }
+
+    /**
+     * Formats the result as a CSV row matching {@link #CSV_HEADER}.
+     *
+     * @param board   the name of the board configuration
+     * @param rows    the number of rows
+     * @param cols    the number of columns
+     * @param mines   the number of mines
+     * @param threads the number of worker threads
+     * @return the CSV row
+     */
+    public String toCsvRow(String board, int rows, int cols, int mines, int threads) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%d,%d,%.5f,%.1f,%.2f,%.1f,%.1f,%.1f",
+                board, rows, cols, mines, threads, this.games, this.wins, this.games - this.wins, this.getWinRate(),
+                this.getGamesPerSecond(), this.games == 0 ? 0 : (double) this.actions / this.games,
+                this.actions == 0 ? 0 : (double) this.revealedSpaces / this.actions, this.getMeanRevealNanos(),
+                this.getAllocatedBytesPerGame()));
+        for (long count : this.lossProgress) {
+            sb.append(',').append(count);
+        }
+        sb.append(String.format(Locale.ROOT, ",%.2f,%.2f,%.2f", this.games == 0 ? 0 : (double) this.bbbv / this.games,
+                this.games == 0 ? 0 : (double) this.zini / this.games, this.wins == 0 ? 0 : (double) this.wonBbbv / this.wins));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,192 @@
+package minesweeper.solver;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.IntList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The frontier of a board split into independent components.
+ * A constraint is a revealed number that still has unknown neighbors; two constraints are in the same component
+ * when they are linked through shared unknown spaces, so each component can be solved on its own.
+ */
+public final class Frontier {
+    /**
+     * One independent group of constraints and the unknown spaces they touch.
+     *
+     * @param cells       the board indices of the unknown spaces, the variables of the component
+     * @param constraints the board indices of the revealed numbers
+     * @param vars        for each constraint, the positions in {@code cells} of its unknown neighbors
+     * @param remaining   for each constraint, the number of mines left among its unknown neighbors
+     */
+    public record Component(int[] cells, int[] constraints, int[][] vars, int[] remaining) {
+    }
+
+    private final List<Component> components;
+    private final int frontierCells;
+
+    private Frontier(List<Component> components, int frontierCells) {
+        this.components = components;
+        this.frontierCells = frontierCells;
+    }
+
+    /**
+     * Splits the given constraints into independent components.
+     *
+     * @param board       the board the constraints are on
+     * @param constraints the revealed numbers to include
+     * @param knownMines  spaces proven to be mines, which count towards the numbers instead of being variables
+     * @param knownSafe   spaces proven to be safe, which are not variables
+     * @return the frontier
+     */
+    public static Frontier build(Board board, BitSet constraints, BitSet knownMines, BitSet knownSafe) {
+        final int rows = board.getRows();
+        final int cols = board.getCols();
+        IntList candidates = new IntList();
+        IntList constraintCells = new IntList();
+
+        // Collect every unknown neighbor of a constraint
+        for (int c = constraints.nextSetBit(0); c >= 0; c = constraints.nextSetBit(c + 1)) {
+            int row = c / cols;
+            int col = c - row * cols;
+            boolean hasUnknown = false;
+            for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+                for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                    int n = i * cols + j;
+                    if (board.isRevealed(n) || knownMines.get(n) || knownSafe.get(n)) {
+                        continue;
+                    }
+                    hasUnknown = true;
+                    candidates.add(n);
+                }
+            }
+            if (hasUnknown) {
+                constraintCells.add(c);
+            }
+        }
+
+        // Number the unknowns in index order, so a variable is found with a binary search instead of a board-sized map
+        int[] sorted = candidates.toArray();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int k = 0; k < sorted.length; k++) {
+            if (k == 0 || sorted[k] != sorted[k - 1]) {
+                sorted[distinct++] = sorted[k];
+            }
+        }
+        final int[] cells = Arrays.copyOf(sorted, distinct);
+
+        // Link the unknowns of each constraint
+        int[] parent = new int[cells.length];
+        for (int v = 0; v < parent.length; v++) {
+            parent[v] = v;
+        }
+        int[][] constraintVars = new int[constraintCells.size()][];
+        int[] remaining = new int[constraintCells.size()];
+        int[] buffer = new int[8];
+        for (int k = 0; k < constraintCells.size(); k++) {
+            int c = constraintCells.get(k);
+            int row = c / cols;
+            int col = c - row * cols;
+            int count = 0;
+            int mines = 0;
+            for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+                for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                    int n = i * cols + j;
+                    if (knownMines.get(n)) {
+                        mines++;
+                    } else if (!board.isRevealed(n) && !knownSafe.get(n)) {
+                        buffer[count++] = Arrays.binarySearch(cells, n);
+                    }
+                }
+            }
+            constraintVars[k] = Arrays.copyOf(buffer, count);
+            remaining[k] = board.getAdjacentMines(c) - mines;
+            for (int v = 1; v < count; v++) {
+                union(parent, buffer[0], buffer[v]);
+            }
+        }
+
+        // Group the variables and constraints by their root
+        int[] componentOf = new int[cells.length];
+        Arrays.fill(componentOf, -1);
+        List<IntList> componentVars = new ArrayList<>();
+        List<IntList> componentConstraints = new ArrayList<>();
+        for (int v = 0; v < cells.length; v++) {
+            int root = find(parent, v);
+            if (componentOf[root] < 0) {
+                componentOf[root] = componentVars.size();
+                componentVars.add(new IntList());
+                componentConstraints.add(new IntList());
+            }
+            componentVars.get(componentOf[root]).add(v);
+        }
+        for (int k = 0; k < constraintCells.size(); k++) {
+            componentConstraints.get(componentOf[find(parent, constraintVars[k][0])]).add(k);
+        }
+
+        List<Component> components = new ArrayList<>(componentVars.size());
+        int[] local = new int[cells.length];
+        for (int comp = 0; comp < componentVars.size(); comp++) {
+            IntList vars = componentVars.get(comp);
+            int[] compCells = new int[vars.size()];
+            for (int v = 0; v < vars.size(); v++) {
+                local[vars.get(v)] = v;
+                compCells[v] = cells[vars.get(v)];
+            }
+
+            IntList ks = componentConstraints.get(comp);
+            int[] compConstraints = new int[ks.size()];
+            int[][] compVars = new int[ks.size()][];
+            int[] compRemaining = new int[ks.size()];
+            for (int k = 0; k < ks.size(); k++) {
+                int global = ks.get(k);
+                compConstraints[k] = constraintCells.get(global);
+                compRemaining[k] = remaining[global];
+                compVars[k] = new int[constraintVars[global].length];
+                for (int v = 0; v < compVars[k].length; v++) {
+                    compVars[k][v] = local[constraintVars[global][v]];
+                }
+            }
+            components.add(new Component(compCells, compConstraints, compVars, compRemaining));
+        }
+        return new Frontier(components, cells.length);
+    }
+
+    /**
+     * Gets the independent components of the frontier.
+     *
+     * @return the components
+     */
+    public List<Component> getComponents() {
+        return this.components;
+    }
+
+    /**
+     * Gets the number of unknown spaces next to a revealed number.
+     *
+     * @return the number of frontier spaces
+     */
+    public int getFrontierCells() {
+        return this.frontierCells;
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[rootB] = rootA;
+        }
+    }
+}
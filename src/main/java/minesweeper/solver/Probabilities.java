@@ -0,0 +1,101 @@
+package minesweeper.solver;
+
+import minesweeper.engine.Board;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Mine probabilities for every covered space of a board, as computed by the {@link ProbabilityEngine}.
+ * Frontier spaces have their own probability; every other unknown space shares the interior probability.
+ */
+public final class Probabilities {
+    private final Board board;
+    private final BitSet knownMines;
+    private final BitSet knownSafe;
+    private final int[] cells;
+    private final double[] probabilities;
+    private final double interior;
+    private final boolean exact;
+
+    /**
+     * Constructor for the Probabilities class.
+     *
+     * @param board         the board the probabilities are for
+     * @param knownMines    spaces proven to be mines
+     * @param knownSafe     spaces proven to be safe
+     * @param cells         the frontier spaces, sorted by index
+     * @param probabilities the mine probability of each frontier space
+     * @param interior      the mine probability of every unknown space off the frontier
+     * @param exact         false if any component had to be approximated
+     */
+    Probabilities(Board board, BitSet knownMines, BitSet knownSafe, int[] cells, double[] probabilities, double interior, boolean exact) {
+        this.board = board;
+        this.knownMines = knownMines;
+        this.knownSafe = knownSafe;
+        this.cells = cells;
+        this.probabilities = probabilities;
+        this.interior = interior;
+        this.exact = exact;
+    }
+
+    /**
+     * Gets the probability that a space is a mine.
+     *
+     * @param index the index of the space
+     * @return the mine probability, 0 for revealed spaces
+     */
+    public double get(int index) {
+        if (this.board.isRevealed(index) || this.knownSafe.get(index)) {
+            return 0;
+        }
+        if (this.knownMines.get(index)) {
+            return 1;
+        }
+
+        int position = Arrays.binarySearch(this.cells, index);
+        return position >= 0 ? this.probabilities[position] : this.interior;
+    }
+
+    /**
+     * Gets the mine probability shared by every unknown space that is not next to a revealed number.
+     *
+     * @return the interior mine probability
+     */
+    public double getInterior() {
+        return this.interior;
+    }
+
+    /**
+     * Checks if every component was solved exactly.
+     *
+     * @return true if the probabilities are exact, false if some were approximated within the time budget
+     */
+    public boolean isExact() {
+        return this.exact;
+    }
+
+    /**
+     * Gets the covered space least likely to be a mine.
+     *
+     * @return the index of the safest space, or -1 if every covered space is a known mine
+     */
+    public int safest() {
+        int best = -1;
+        double bestProbability = 2;
+        for (int i = 0; i < this.cells.length; i++) {
+            if (this.probabilities[i] < bestProbability) {
+                bestProbability = this.probabilities[i];
+                best = this.cells[i];
+            }
+        }
+        if (this.interior < bestProbability) {
+            for (int index = 0; index < this.board.getSize(); index++) {
+                if (!this.board.isRevealed(index) && !this.knownMines.get(index) && Arrays.binarySearch(this.cells, index) < 0) {
+                    return index;
+                }
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,620 @@
+package minesweeper.solver;
+
+import minesweeper.engine.Board;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Computes the exact probability that each covered space is a mine.
+ *
+ * <p>Every frontier component is solved on its own. Its variables are visited in breadth-first order and the
+ * assignments so far are merged by the mines still owed to each open number, so identical partial assignments
+ * are only counted once. A forward and a backward pass give, for every number of mines in the component, how many
+ * assignments there are and how many of them put a mine on each space. The components are then combined with the
+ * mines left for the rest of the board, weighting each total by the number of ways to place the remaining mines
+ * in the interior.</p>
+ *
+ * <p>Large components are solved in parallel. A component that is too wide, does not finish within the time
+ * budget or needs more states than the state limit falls back to a local estimate, and the result is then marked
+ * as inexact. Only the state limit gives the same result on every run.</p>
+ */
+public final class ProbabilityEngine {
+    /**
+     * The default time budget, short enough to run within one frame.
+     */
+    public static final long DEFAULT_BUDGET_NANOS = 10_000_000L;
+
+    /**
+     * The time budget that never runs out, for callers that need reproducible results and use the state limit.
+     */
+    public static final long NO_TIME_LIMIT = Long.MAX_VALUE;
+
+    private static final int MAX_OPEN_CONSTRAINTS = 16; // residuals are packed 4 bits each into a long
+    private static final int PARALLEL_VARIABLES = 24;
+
+    private final ForkJoinPool pool;
+    private final long budgetNanos;
+    private final int maxStates;
+
+    /**
+     * Result of solving a single component. The weights are scaled by an arbitrary common factor.
+     *
+     * @param weights     for each number of mines in the component, the number of assignments
+     * @param conditional for each variable and number of mines, the probability the variable is a mine
+     * @param exact       false if the component was estimated
+     */
+    private record Solution(double[] weights, double[][] conditional, boolean exact) {
+    }
+
+    /**
+     * Constructor for the ProbabilityEngine class, using the common pool and the default budget.
+     */
+    public ProbabilityEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BUDGET_NANOS);
+    }
+
+    /**
+     * Constructor for the ProbabilityEngine class.
+     *
+     * @param pool        the pool large components are solved on when not already called from a pool
+     * @param budgetNanos the time budget for a single computation in nanoseconds
+     */
+    public ProbabilityEngine(ForkJoinPool pool, long budgetNanos) {
+        this(pool, budgetNanos, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructor for the ProbabilityEngine class.
+     *
+     * @param pool        the pool large components are solved on when not already called from a pool
+     * @param budgetNanos the time budget for a single computation in nanoseconds, or {@link #NO_TIME_LIMIT}
+     * @param maxStates   the number of states a single component may visit in the forward pass
+     */
+    public ProbabilityEngine(ForkJoinPool pool, long budgetNanos, int maxStates) {
+        this.pool = pool;
+        this.budgetNanos = budgetNanos;
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * Computes the mine probabilities for the current state of a game.
+     * Only spaces proven by the solver count as mines; flags placed by the player are ignored.
+     *
+     * @param board      the board of the game
+     * @param solver     a solver that is up to date with the board
+     * @param totalMines the number of mines on the board
+     * @return the probabilities
+     */
+    public Probabilities compute(Board board, Solver solver, int totalMines) {
+        final long start = System.nanoTime();
+        BitSet knownMines = solver.getKnownMines();
+        BitSet knownSafe = solver.getKnownSafe();
+        Frontier frontier = Frontier.build(board, solver.getActiveConstraints(), knownMines, knownSafe);
+        List<Frontier.Component> components = frontier.getComponents();
+
+        // Solve the large components in parallel and the small ones inline
+        Solution[] solutions = new Solution[components.size()];
+        List<ForkJoinTask<Solution>> tasks = new ArrayList<>();
+        List<Integer> taskComponents = new ArrayList<>();
+        for (int c = 0; c < components.size(); c++) {
+            Frontier.Component component = components.get(c);
+            if (component.cells().length >= PARALLEL_VARIABLES) {
+                ForkJoinTask<Solution> task = ForkJoinTask.adapt(() -> solve(component, start, this.budgetNanos, this.maxStates));
+                // Inside a pool, such as the batch simulator's, fork into it instead of blocking a worker on another pool
+                tasks.add(ForkJoinTask.inForkJoinPool() ? task.fork() : this.pool.submit(task));
+                taskComponents.add(c);
+            } else {
+                solutions[c] = solve(component, start, this.budgetNanos, this.maxStates);
+            }
+        }
+        for (int t = 0; t < tasks.size(); t++) {
+            int c = taskComponents.get(t);
+            try {
+                solutions[c] = tasks.get(t).get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                solutions[c] = estimate(components.get(c));
+            }
+            catch (ExecutionException e) {
+                e.printStackTrace();
+                solutions[c] = estimate(components.get(c));
+            }
+        }
+
+        // Unknown spaces that are not next to any number
+        int interiorCells = 0;
+        for (int index = 0; index < board.getSize(); index++) {
+            if (!board.isRevealed(index) && !knownMines.get(index) && !knownSafe.get(index)) {
+                interiorCells++;
+            }
+        }
+        interiorCells -= frontier.getFrontierCells();
+        int minesLeft = totalMines - knownMines.cardinality();
+
+        return combine(board, knownMines, knownSafe, components, solutions, interiorCells, minesLeft);
+    }
+
+    /**
+     * Combines the component solutions with the mines left for the interior.
+     */
+    private static Probabilities combine(Board board, BitSet knownMines, BitSet knownSafe, List<Frontier.Component> components,
+                                         Solution[] solutions, int interiorCells, int minesLeft) {
+        final int count = solutions.length;
+        boolean exact = true;
+        int frontierCells = 0;
+        for (int c = 0; c < count; c++) {
+            exact &= solutions[c].exact();
+            frontierCells += components.get(c).cells().length;
+        }
+
+        // Weight of each total number of frontier mines from the ways to place the rest in the interior
+        // C(interior, rest) only matters relative to the other totals, so start from 0 and step with the ratio
+        double[] interiorWeights = new double[frontierCells + 1];
+        double maxLog = Double.NEGATIVE_INFINITY;
+        double log = 0;
+        for (int k = 0; k <= frontierCells; k++) {
+            int rest = minesLeft - k;
+            if (k > 0 && rest + 1 >= 1 && rest + 1 <= interiorCells) {
+                // C(u, r) = C(u, r + 1) * (r + 1) / (u - r)
+                log += Math.log(rest + 1) - Math.log(interiorCells - rest);
+            } else if (rest > interiorCells) {
+                log = 0;
+            }
+            interiorWeights[k] = rest >= 0 && rest <= interiorCells ? log : Double.NEGATIVE_INFINITY;
+            maxLog = Math.max(maxLog, interiorWeights[k]);
+        }
+        for (int k = 0; k <= frontierCells; k++) {
+            interiorWeights[k] = Math.exp(interiorWeights[k] - maxLog);
+        }
+
+        // Distribution of the mines in all components before and after each one
+        double[][] prefix = new double[count + 1][];
+        double[][] suffix = new double[count + 1][];
+        prefix[0] = new double[]{1};
+        suffix[count] = new double[]{1};
+        for (int c = 0; c < count; c++) {
+            prefix[c + 1] = convolve(prefix[c], solutions[c].weights());
+        }
+        for (int c = count - 1; c >= 0; c--) {
+            suffix[c] = convolve(solutions[c].weights(), suffix[c + 1]);
+        }
+
+        double[] total = prefix[count];
+        double norm = 0;
+        double interiorMines = 0;
+        for (int k = 0; k < total.length; k++) {
+            double weight = total[k] * interiorWeights[k];
+            norm += weight;
+            interiorMines += weight * (minesLeft - k);
+        }
+        if (norm == 0 || Double.isNaN(norm)) {
+            // The counts are inconsistent with the mine total, estimate every component instead
+            for (int c = 0; c < count; c++) {
+                if (solutions[c].exact()) {
+                    solutions[c] = estimate(components.get(c));
+                }
+            }
+            return combineEstimates(board, knownMines, knownSafe, components, solutions, interiorCells, minesLeft);
+        }
+        double interior = interiorCells > 0 ? interiorMines / norm / interiorCells : 0;
+
+        int[] cells = new int[frontierCells];
+        double[] probabilities = new double[frontierCells];
+        int position = 0;
+        for (int c = 0; c < count; c++) {
+            double[] weights = solutions[c].weights();
+            double[] others = convolve(prefix[c], suffix[c + 1]);
+            // Weight of each mine count of this component given everything else
+            double[] given = new double[weights.length];
+            double componentNorm = 0;
+            for (int k = 0; k < weights.length; k++) {
+                double sum = 0;
+                for (int j = 0; j < others.length; j++) {
+                    sum += others[j] * interiorWeights[k + j];
+                }
+                given[k] = weights[k] * sum;
+                componentNorm += given[k];
+            }
+
+            int[] componentCells = components.get(c).cells();
+            double[][] conditional = solutions[c].conditional();
+            for (int v = 0; v < componentCells.length; v++) {
+                double sum = 0;
+                for (int k = 0; k < given.length; k++) {
+                    sum += given[k] * conditional[v][k];
+                }
+                cells[position] = componentCells[v];
+                probabilities[position++] = componentNorm > 0 ? sum / componentNorm : 0;
+            }
+        }
+        return sorted(board, knownMines, knownSafe, cells, probabilities, interior, exact);
+    }
+
+    /**
+     * Combines estimated components, spreading the mines they do not account for over the interior.
+     */
+    private static Probabilities combineEstimates(Board board, BitSet knownMines, BitSet knownSafe, List<Frontier.Component> components,
+                                                  Solution[] solutions, int interiorCells, int minesLeft) {
+        int frontierCells = 0;
+        for (Frontier.Component component : components) {
+            frontierCells += component.cells().length;
+        }
+
+        int[] cells = new int[frontierCells];
+        double[] probabilities = new double[frontierCells];
+        double frontierMines = 0;
+        int position = 0;
+        for (int c = 0; c < solutions.length; c++) {
+            int[] componentCells = components.get(c).cells();
+            for (int v = 0; v < componentCells.length; v++) {
+                cells[position] = componentCells[v];
+                probabilities[position] = solutions[c].conditional()[v][0];
+                frontierMines += probabilities[position++];
+            }
+        }
+        double interior = interiorCells > 0 ? Math.clamp((minesLeft - frontierMines) / interiorCells, 0.0, 1.0) : 0;
+        return sorted(board, knownMines, knownSafe, cells, probabilities, interior, false);
+    }
+
+    /**
+     * Sorts the frontier spaces by index so they can be found with a binary search.
+     */
+    private static Probabilities sorted(Board board, BitSet knownMines, BitSet knownSafe, int[] cells, double[] probabilities,
+                                        double interior, boolean exact) {
+        Integer[] order = new Integer[cells.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(cells[a], cells[b]));
+        int[] sortedCells = new int[cells.length];
+        double[] sortedProbabilities = new double[cells.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedCells[i] = cells[order[i]];
+            sortedProbabilities[i] = probabilities[order[i]];
+        }
+        return new Probabilities(board, (BitSet) knownMines.clone(), (BitSet) knownSafe.clone(), sortedCells, sortedProbabilities, interior, exact);
+    }
+
+    /**
+     * Solves a component exactly, or estimates it if it is too wide, runs past the budget or needs too many states.
+     *
+     * @param component   the component
+     * @param start       the {@link System#nanoTime()} the computation started at
+     * @param budgetNanos the time budget in nanoseconds
+     * @param maxStates   the number of states the forward pass may visit
+     * @return the solution
+     */
+    private static Solution solve(Frontier.Component component, long start, long budgetNanos, int maxStates) {
+        final int n = component.cells().length;
+        final int[][] vars = component.vars();
+        final int[] remaining = component.remaining();
+        final int m = vars.length;
+
+        // Visit the variables breadth first so each number is open for as short a stretch as possible
+        int[][] varConstraints = constraintsOfVars(n, vars);
+        int[] order = new int[n];
+        int[] position = new int[n];
+        Arrays.fill(position, -1);
+        int head = 0;
+        int tail = 0;
+        for (int root = 0; root < n; root++) {
+            if (position[root] >= 0) {
+                continue;
+            }
+            position[root] = tail;
+            order[tail++] = root;
+            while (head < tail) {
+                int v = order[head++];
+                for (int k : varConstraints[v]) {
+                    for (int w : vars[k]) {
+                        if (position[w] < 0) {
+                            position[w] = tail;
+                            order[tail++] = w;
+                        }
+                    }
+                }
+            }
+        }
+
+        // A number is open from its first variable until its last one
+        int[] first = new int[m];
+        int[] last = new int[m];
+        for (int k = 0; k < m; k++) {
+            first[k] = Integer.MAX_VALUE;
+            for (int v : vars[k]) {
+                first[k] = Math.min(first[k], position[v]);
+                last[k] = Math.max(last[k], position[v]);
+            }
+        }
+        // For each step: the numbers open before it, and the numbers of its variable with how many variables follow
+        int[][] open = new int[n + 1][];
+        int[][] touching = new int[n][];
+        int[][] after = new int[n][];
+        int[] slot = new int[m];
+        for (int i = 0; i <= n; i++) {
+            int size = 0;
+            int[] list = new int[m];
+            for (int k = 0; k < m; k++) {
+                if (first[k] < i && last[k] >= i) {
+                    list[size++] = k;
+                }
+            }
+            if (size > MAX_OPEN_CONSTRAINTS) {
+                return estimate(component);
+            }
+            open[i] = Arrays.copyOf(list, size);
+        }
+        for (int i = 0; i < n; i++) {
+            touching[i] = varConstraints[order[i]];
+            after[i] = new int[touching[i].length];
+            for (int t = 0; t < touching[i].length; t++) {
+                int k = touching[i][t];
+                for (int v : vars[k]) {
+                    if (position[v] > i) {
+                        after[i][t]++;
+                    }
+                }
+            }
+        }
+
+        // Forward pass: number of partial assignments per state and mine count, with the transitions kept for later
+        long[][] keys = new long[n + 1][];
+        double[][][] forward = new double[n + 1][][];
+        int[][][] next = new int[n][][];
+        double[] forwardScale = new double[n + 1];
+        keys[0] = new long[]{0L};
+        forward[0] = new double[][]{{1}};
+        int[] residual = new int[m];
+        int[] updated = new int[m];
+        long states = 0;
+        for (int i = 0; i < n; i++) {
+            if (System.nanoTime() - start > budgetNanos) {
+                return estimate(component);
+            }
+
+            Map<Long, Integer> index = new HashMap<>();
+            List<double[]> counts = new ArrayList<>();
+            long[] layerKeys = keys[i];
+            next[i] = new int[layerKeys.length][2];
+            double max = 0;
+            for (int s = 0; s < layerKeys.length; s++) {
+                decode(layerKeys[s], open[i], residual);
+                for (int mine = 0; mine <= 1; mine++) {
+                    long key = step(i, mine, first, remaining, touching[i], after[i], open[i + 1], residual, updated, slot);
+                    if (key < 0) {
+                        next[i][s][mine] = -1;
+                        continue;
+                    }
+                    Integer target = index.get(key);
+                    if (target == null) {
+                        target = counts.size();
+                        index.put(key, target);
+                        counts.add(new double[i + 2]);
+                    }
+                    next[i][s][mine] = target;
+                    double[] from = forward[i][s];
+                    double[] to = counts.get(target);
+                    for (int k = 0; k < from.length; k++) {
+                        to[k + mine] += from[k];
+                        max = Math.max(max, to[k + mine]);
+                    }
+                }
+            }
+
+            if (counts.isEmpty()) {
+                return estimate(component); // no consistent assignment, the board is contradictory
+            }
+            states += counts.size();
+            if (states > maxStates) {
+                return estimate(component);
+            }
+            keys[i + 1] = new long[counts.size()];
+            for (Map.Entry<Long, Integer> entry : index.entrySet()) {
+                keys[i + 1][entry.getValue()] = entry.getKey();
+            }
+            forward[i + 1] = counts.toArray(new double[0][]);
+            forwardScale[i + 1] = forwardScale[i] + rescale(forward[i + 1], max);
+        }
+
+        // Backward pass: number of completions per state and mine count
+        double[][][] backward = new double[n + 1][][];
+        double[] backwardScale = new double[n + 1];
+        backward[n] = new double[][]{{1}};
+        for (int i = n - 1; i >= 0; i--) {
+            if (System.nanoTime() - start > budgetNanos) {
+                return estimate(component);
+            }
+
+            double[][] layer = new double[keys[i].length][n - i + 1];
+            double max = 0;
+            for (int s = 0; s < layer.length; s++) {
+                for (int mine = 0; mine <= 1; mine++) {
+                    int target = next[i][s][mine];
+                    if (target < 0) {
+                        continue;
+                    }
+                    double[] from = backward[i + 1][target];
+                    for (int k = 0; k < from.length; k++) {
+                        layer[s][k + mine] += from[k];
+                        max = Math.max(max, layer[s][k + mine]);
+                    }
+                }
+            }
+            backward[i] = layer;
+            backwardScale[i] = backwardScale[i + 1] + rescale(layer, max);
+        }
+
+        // Every assignment ends in the empty state, so the last layer holds the weight of each mine count
+        double[] weights = forward[n][0];
+        double[][] conditional = new double[n][n + 1];
+        for (int i = 0; i < n; i++) {
+            double[] mines = conditional[order[i]];
+            for (int s = 0; s < keys[i].length; s++) {
+                int target = next[i][s][1];
+                if (target < 0) {
+                    continue;
+                }
+                double[] before = forward[i][s];
+                double[] rest = backward[i + 1][target];
+                for (int a = 0; a < before.length; a++) {
+                    if (before[a] == 0) {
+                        continue;
+                    }
+                    for (int b = 0; b < rest.length; b++) {
+                        mines[a + b + 1] += before[a] * rest[b];
+                    }
+                }
+            }
+            // Bring the counts back to the scale of the weights and divide
+            double scale = Math.exp(forwardScale[i] + backwardScale[i + 1] - forwardScale[n]);
+            for (int k = 0; k <= n; k++) {
+                mines[k] = weights[k] > 0 ? Math.min(1, mines[k] * scale / weights[k]) : 0;
+            }
+        }
+        return new Solution(weights, conditional, true);
+    }
+
+    /**
+     * Assigns a variable and packs the residuals of the numbers that are still open afterwards.
+     *
+     * @return the packed state, or -1 if the assignment breaks a number
+     */
+    private static long step(int i, int mine, int[] first, int[] remaining, int[] touching, int[] after, int[] openAfter,
+                             int[] residual, int[] updated, int[] slot) {
+        for (int t = 0; t < touching.length; t++) {
+            int k = touching[t];
+            int r = (first[k] == i ? remaining[k] : residual[k]) - mine;
+            if (r < 0 || r > after[t]) {
+                return -1;
+            }
+            updated[k] = r;
+            slot[k] = i + 1; // marks the residual as updated in this step
+        }
+
+        long key = 0;
+        for (int o = 0; o < openAfter.length; o++) {
+            int k = openAfter[o];
+            int r = slot[k] == i + 1 ? updated[k] : residual[k];
+            key |= (long) r << (o * 4);
+        }
+        for (int k : touching) {
+            slot[k] = 0;
+        }
+        return key;
+    }
+
+    /**
+     * Unpacks the residuals of the open numbers.
+     */
+    private static void decode(long key, int[] open, int[] residual) {
+        for (int o = 0; o < open.length; o++) {
+            residual[open[o]] = (int) (key >>> (o * 4)) & 0xF;
+        }
+    }
+
+    /**
+     * Estimates a component from its numbers alone: each space gets the average density of the numbers around it.
+     *
+     * @param component the component
+     * @return an inexact solution that does not depend on the mine count
+     */
+    private static Solution estimate(Frontier.Component component) {
+        final int n = component.cells().length;
+        double[] sum = new double[n];
+        int[] seen = new int[n];
+        for (int k = 0; k < component.vars().length; k++) {
+            int[] vars = component.vars()[k];
+            double density = (double) component.remaining()[k] / vars.length;
+            for (int v : vars) {
+                sum[v] += density;
+                seen[v]++;
+            }
+        }
+
+        double expected = 0;
+        double[][] conditional = new double[n][];
+        for (int v = 0; v < n; v++) {
+            double p = seen[v] > 0 ? Math.clamp(sum[v] / seen[v], 0.0, 1.0) : 0;
+            expected += p;
+            conditional[v] = new double[n + 1];
+            Arrays.fill(conditional[v], p);
+        }
+        double[] weights = new double[n + 1];
+        weights[(int) Math.round(expected)] = 1;
+        return new Solution(weights, conditional, false);
+    }
+
+    /**
+     * Lists, for each variable, the numbers it belongs to.
+     */
+    private static int[][] constraintsOfVars(int n, int[][] vars) {
+        int[] degree = new int[n];
+        for (int[] constraint : vars) {
+            for (int v : constraint) {
+                degree[v]++;
+            }
+        }
+        int[][] result = new int[n][];
+        for (int v = 0; v < n; v++) {
+            result[v] = new int[degree[v]];
+            degree[v] = 0;
+        }
+        for (int k = 0; k < vars.length; k++) {
+            for (int v : vars[k]) {
+                result[v][degree[v]++] = k;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Divides every count of a layer by its largest count so the doubles never overflow.
+     *
+     * @return the natural log of the factor that was divided out
+     */
+    private static double rescale(double[][] layer, double max) {
+        if (max <= 0 || max == 1) {
+            return 0;
+        }
+        for (double[] counts : layer) {
+            for (int k = 0; k < counts.length; k++) {
+                counts[k] /= max;
+            }
+        }
+        return Math.log(max);
+    }
+
+    /**
+     * Convolves two mine-count distributions, normalized to a largest entry of 1.
+     */
+    private static double[] convolve(double[] a, double[] b) {
+        double[] result = new double[a.length + b.length - 1];
+        double max = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == 0) {
+                continue;
+            }
+            for (int j = 0; j < b.length; j++) {
+                result[i + j] += a[i] * b[j];
+            }
+        }
+        for (double value : result) {
+            max = Math.max(max, value);
+        }
+        if (max > 0) {
+            for (int k = 0; k < result.length; k++) {
+                result[k] /= max;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,460 @@
+package minesweeper.solver;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.ChangeSet;
+import minesweeper.engine.IntList;
+
+import java.util.BitSet;
+
+/**
+ * Finds spaces that are provably safe or provably mines from the revealed numbers.
+ * Flags placed by the player are ignored, so every deduction holds no matter how the board was flagged.
+ *
+ * <p>The solver is updated with the change set of each action and only re-examines the numbers around
+ * the changed spaces. Single-number rules and the subset rule between neighboring numbers run first;
+ * Gaussian elimination over each independent frontier component only runs when they find nothing.</p>
+ */
+public final class Solver {
+    // Elimination is cubic in the variables of a component, so larger components are left to the local rules
+    private static final int MAX_GAUSSIAN_VARS = 128;
+
+    private Board board;
+
+    private final BitSet knownSafe = new BitSet();
+    private final BitSet knownMines = new BitSet();
+    private final BitSet active = new BitSet(); // revealed numbers that still have unknown neighbors
+
+    private final IntList queue = new IntList();
+    private final BitSet queued = new BitSet();
+    private final IntList touched = new IntList();
+    private final int[] unknownsA = new int[8];
+    private final int[] unknownsB = new int[8];
+
+
+    /**
+     * Starts solving a new game.
+     *
+     * @param board the board of the game, read but never modified
+     */
+    public void reset(Board board) {
+        this.board = board;
+        this.knownSafe.clear();
+        this.knownMines.clear();
+        this.active.clear();
+        this.queue.clear();
+        this.queued.clear();
+    }
+
+    /**
+     * Marks the numbers around the changed spaces for re-examination.
+     *
+     * @param changes the spaces changed by an action
+     */
+    public void update(ChangeSet changes) {
+        final int rows = this.board.getRows();
+        final int cols = this.board.getCols();
+        for (int k = 0; k < changes.size(); k++) {
+            int index = changes.get(k);
+            if (!this.board.isRevealed(index)) {
+                continue; // Flags are ignored
+            }
+
+            this.knownSafe.clear(index);
+            int row = index / cols;
+            int col = index - row * cols;
+            for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+                for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                    this.enqueue(i * cols + j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts solving the same game again from every number revealed on the board, e.g. after moves were undone
+     * and what was deduced from them no longer holds for the player. Scans the whole board once.
+     */
+    public void rescan() {
+        this.reset(this.board);
+        final int size = this.board.getSize();
+        for (int index = 0; index < size; index++) {
+            this.enqueue(index);
+        }
+    }
+
+    /**
+     * Deduces everything the rules allow from the pending changes, until neither the local rules nor Gaussian
+     * elimination find anything new.
+     *
+     * @return true if any new safe space or mine was found, false otherwise
+     */
+    public boolean solve() {
+        boolean found = false;
+        while (true) {
+            this.touched.clear();
+            while (!this.queue.isEmpty()) {
+                int c = this.queue.pop();
+                this.queued.clear(c);
+                found |= this.applySingle(c);
+                if (this.active.get(c)) {
+                    this.touched.add(c);
+                }
+            }
+
+            boolean subset = false;
+            for (int k = 0; k < this.touched.size(); k++) {
+                subset |= this.applySubset(this.touched.get(k));
+            }
+            if (subset) {
+                found = true;
+                continue;
+            }
+            if (!this.queue.isEmpty()) {
+                continue;
+            }
+
+            // The local rules are stuck, even if they found something this call, so try elimination before stopping
+            if (!this.active.isEmpty() && this.applyGaussian()) {
+                found = true;
+                continue;
+            }
+            break;
+        }
+        return found;
+    }
+
+    /**
+     * Checks if a space is proven safe and still covered.
+     *
+     * @param index the index of the space
+     * @return true if the space is safe to reveal, false otherwise
+     */
+    public boolean isSafe(int index) {
+        return this.knownSafe.get(index);
+    }
+
+    /**
+     * Checks if a space is proven to be a mine.
+     *
+     * @param index the index of the space
+     * @return true if the space is a mine, false otherwise
+     */
+    public boolean isMine(int index) {
+        return this.knownMines.get(index);
+    }
+
+    /**
+     * Gets a covered space that is proven safe.
+     *
+     * @return the index of a safe space, or -1 if none is known
+     */
+    public int nextSafe() {
+        return this.knownSafe.nextSetBit(0);
+    }
+
+    /**
+     * Gets every covered space proven safe. The set belongs to the solver and must not be modified.
+     *
+     * @return the safe spaces
+     */
+    public BitSet getKnownSafe() {
+        return this.knownSafe;
+    }
+
+    /**
+     * Gets every space proven to be a mine. The set belongs to the solver and must not be modified.
+     *
+     * @return the mines
+     */
+    public BitSet getKnownMines() {
+        return this.knownMines;
+    }
+
+    /**
+     * Gets the revealed numbers that still have unknown neighbors. The set belongs to the solver and must not be modified.
+     *
+     * @return the constraint spaces of the frontier
+     */
+    public BitSet getActiveConstraints() {
+        return this.active;
+    }
+
+    private void enqueue(int index) {
+        if (this.board.isRevealed(index) && this.board.getAdjacentMines(index) > 0 && !this.queued.get(index)) {
+            this.queued.set(index);
+            this.queue.add(index);
+        }
+    }
+
+    /**
+     * Collects the unknown neighbors of a revealed number.
+     *
+     * @param c        the index of the revealed number
+     * @param unknowns the array to write the unknown neighbors to
+     * @return the number of unknown neighbors, and the number of mines left among them shifted left by 8
+     */
+    private int collect(int c, int[] unknowns) {
+        final int rows = this.board.getRows();
+        final int cols = this.board.getCols();
+        int row = c / cols;
+        int col = c - row * cols;
+        int count = 0;
+        int mines = 0;
+        for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+            for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                int n = i * cols + j;
+                if (this.knownMines.get(n)) {
+                    mines++;
+                } else if (!this.board.isRevealed(n) && !this.knownSafe.get(n)) {
+                    unknowns[count++] = n;
+                }
+            }
+        }
+        return count | (this.board.getAdjacentMines(c) - mines) << 8;
+    }
+
+    /**
+     * Applies the single-number rules: a number with all its mines found makes the rest safe,
+     * and a number with as many unknowns as mines left makes them all mines.
+     */
+    private boolean applySingle(int c) {
+        int packed = this.collect(c, this.unknownsA);
+        int count = packed & 0xFF;
+        int remaining = packed >> 8;
+        if (count == 0) {
+            this.active.clear(c);
+            return false;
+        }
+
+        if (remaining == 0) {
+            this.markAll(this.unknownsA, count, false);
+            this.active.clear(c);
+            return true;
+        }
+        if (remaining == count) {
+            this.markAll(this.unknownsA, count, true);
+            this.active.clear(c);
+            return true;
+        }
+        this.active.set(c);
+        return false;
+    }
+
+    /**
+     * Applies the subset rule between a number and every active number within two spaces of it:
+     * if the unknowns of A are a subset of the unknowns of B, the unknowns only B has hold the difference of their mines.
+     */
+    private boolean applySubset(int a) {
+        if (!this.active.get(a)) {
+            return false;
+        }
+
+        final int rows = this.board.getRows();
+        final int cols = this.board.getCols();
+        int row = a / cols;
+        int col = a - row * cols;
+        for (int i = Math.max(row - 2, 0); i <= Math.min(row + 2, rows - 1); i++) {
+            for (int j = Math.max(col - 2, 0); j <= Math.min(col + 2, cols - 1); j++) {
+                int b = i * cols + j;
+                if (b == a || !this.active.get(b)) {
+                    continue;
+                }
+                if (this.subset(a, b) || this.subset(b, a)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean subset(int a, int b) {
+        int packedA = this.collect(a, this.unknownsA);
+        int packedB = this.collect(b, this.unknownsB);
+        int countA = packedA & 0xFF;
+        int countB = packedB & 0xFF;
+        if (countA == 0 || countA >= countB) {
+            return false;
+        }
+
+        // Move the unknowns only B has to the front of unknownsB
+        int extra = 0;
+        for (int v = 0; v < countB; v++) {
+            int n = this.unknownsB[v];
+            boolean shared = false;
+            for (int w = 0; w < countA; w++) {
+                if (this.unknownsA[w] == n) {
+                    shared = true;
+                    break;
+                }
+            }
+            if (!shared) {
+                this.unknownsB[extra++] = n;
+            }
+        }
+        if (countB - extra != countA) {
+            return false; // A is not a subset of B
+        }
+
+        int difference = (packedB >> 8) - (packedA >> 8);
+        if (difference == 0) {
+            this.markAll(this.unknownsB, extra, false);
+            return true;
+        }
+        if (difference == extra) {
+            this.markAll(this.unknownsB, extra, true);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Runs Gaussian elimination on every frontier component and applies the rows that force their variables.
+     */
+    private boolean applyGaussian() {
+        boolean found = false;
+        Frontier frontier = Frontier.build(this.board, this.active, this.knownMines, this.knownSafe);
+        for (Frontier.Component component : frontier.getComponents()) {
+            if (component.cells().length <= MAX_GAUSSIAN_VARS) {
+                found |= this.eliminate(component);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Eliminates a component with fraction-free integer row operations. The coefficients can grow with each step,
+     * so every operation is checked and the component is left alone if one overflows.
+     */
+    private boolean eliminate(Frontier.Component component) {
+        try {
+            return this.eliminateExact(component);
+        }
+        catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private boolean eliminateExact(Frontier.Component component) {
+        final int vars = component.cells().length;
+        final int equations = component.constraints().length;
+        long[][] matrix = new long[equations][vars + 1];
+        for (int k = 0; k < equations; k++) {
+            for (int v : component.vars()[k]) {
+                matrix[k][v] = 1;
+            }
+            matrix[k][vars] = component.remaining()[k];
+        }
+
+        // Reduce to row echelon form with integer row operations
+        int pivotRow = 0;
+        for (int v = 0; v < vars && pivotRow < equations; v++) {
+            int pivot = -1;
+            for (int k = pivotRow; k < equations; k++) {
+                if (matrix[k][v] != 0) {
+                    pivot = k;
+                    break;
+                }
+            }
+            if (pivot < 0) {
+                continue;
+            }
+
+            long[] swap = matrix[pivot];
+            matrix[pivot] = matrix[pivotRow];
+            matrix[pivotRow] = swap;
+            for (int k = 0; k < equations; k++) {
+                if (k == pivotRow || matrix[k][v] == 0) {
+                    continue;
+                }
+                long factor = matrix[k][v];
+                long scale = matrix[pivotRow][v];
+                for (int x = 0; x <= vars; x++) {
+                    matrix[k][x] = Math.subtractExact(Math.multiplyExact(matrix[k][x], scale),
+                            Math.multiplyExact(matrix[pivotRow][x], factor));
+                }
+                normalize(matrix[k]);
+            }
+            pivotRow++;
+        }
+
+        // A row forces its variables when its right side equals the sum of its positive or its negative coefficients
+        boolean found = false;
+        for (int k = 0; k < pivotRow; k++) {
+            long positive = 0;
+            long negative = 0;
+            for (int v = 0; v < vars; v++) {
+                if (matrix[k][v] > 0) {
+                    positive = Math.addExact(positive, matrix[k][v]);
+                } else {
+                    negative = Math.addExact(negative, matrix[k][v]);
+                }
+            }
+            long rhs = matrix[k][vars];
+            if (rhs != positive && rhs != negative) {
+                continue;
+            }
+            boolean positiveMines = rhs == positive;
+            for (int v = 0; v < vars; v++) {
+                if (matrix[k][v] != 0) {
+                    found |= this.mark(component.cells()[v], (matrix[k][v] > 0) == positiveMines);
+                }
+            }
+        }
+        return found;
+    }
+
+    private static void normalize(long[] row) {
+        long gcd = 0;
+        for (long value : row) {
+            gcd = gcd(gcd, Math.absExact(value));
+        }
+        if (gcd > 1) {
+            for (int x = 0; x < row.length; x++) {
+                row[x] /= gcd;
+            }
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    private void markAll(int[] cells, int count, boolean mine) {
+        for (int v = 0; v < count; v++) {
+            this.mark(cells[v], mine);
+        }
+    }
+
+    /**
+     * Records a deduction and queues the numbers around the space, since their unknowns changed.
+     *
+     * @return true if the space was not known before, false otherwise
+     */
+    private boolean mark(int index, boolean mine) {
+        if (this.knownMines.get(index) || this.knownSafe.get(index) || this.board.isRevealed(index)) {
+            return false;
+        }
+
+        if (mine) {
+            this.knownMines.set(index);
+        } else {
+            this.knownSafe.set(index);
+        }
+
+        final int rows = this.board.getRows();
+        final int cols = this.board.getCols();
+        int row = index / cols;
+        int col = index - row * cols;
+        for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+            for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                this.enqueue(i * cols + j);
+            }
+        }
+        return true;
+    }
+}
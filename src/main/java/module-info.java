@@ -1,6 +1,12 @@
 module minesweeper {
     requires javafx.controls;
+    requires jdk.management;
 
     requires org.kordamp.bootstrapfx.core;
     exports minesweeper;
-}
\ No newline at end of file
+    exports minesweeper.engine;
+    exports minesweeper.generator;
+    exports minesweeper.replay;
+    exports minesweeper.sim;
+    exports minesweeper.solver;
+}
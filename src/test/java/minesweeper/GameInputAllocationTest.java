@@ -0,0 +1,126 @@
+package minesweeper;
+
+import javafx.scene.Node;
+import minesweeper.engine.Board;
+import minesweeper.engine.GameEngine;
+import minesweeper.engine.GameStatus;
+import minesweeper.engine.IntList;
+import minesweeper.replay.ReplayRecorder;
+import minesweeper.solver.Solver;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the moves of the controller allocate nothing once warmed up, from the engine through the replay
+ * recorder and the solver update to the board view, and that the view ends up showing the board.
+ */
+class GameInputAllocationTest {
+    private static final int ROWS = 16;
+    private static final int COLS = 30;
+    private static final int MINES = 99;
+    private static final int CENTER = (ROWS / 2) * COLS + COLS / 2;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    /**
+     * A board view that only remembers the last tile shown on each space.
+     */
+    private static final class TileArrayView implements BoardView {
+        private final Tile[] tiles = new Tile[ROWS * COLS];
+
+        @Override
+        public Node getNode() {
+            return null;
+        }
+
+        @Override
+        public void setTile(int index, Tile tile) {
+            this.tiles[index] = tile;
+        }
+
+        @Override
+        public void reset() {
+            Arrays.fill(this.tiles, Tile.COVER);
+        }
+    }
+
+    private final GameEngine engine = new GameEngine(ROWS, COLS, MINES, 0);
+    private final ReplayRecorder recorder = new ReplayRecorder();
+    private final Solver solver = new Solver();
+    private final GameInput input = new GameInput(this.engine, this.recorder, this.solver);
+    private final TileArrayView view = new TileArrayView();
+    private long now = 0;
+
+    @BeforeAll
+    static void enableAllocationCounting() {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    void movesThroughTheControllerPathDoNotAllocate() {
+        this.input.setBoardView(this.view);
+        // Grow the recorder lists, the solver queue and the engine buffers, and let the JIT compile the paths
+        for (long seed = 0; seed < 2000; seed++) {
+            this.start(seed);
+            this.finish();
+        }
+
+        for (long seed = 2000; seed < 2100; seed++) {
+            this.start(seed); // Places the mines, which seeds a new random generator
+            long before = threads.getCurrentThreadAllocatedBytes();
+            this.finish();
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+            assertEquals(GameStatus.WON, this.engine.getStatus());
+            assertEquals(0, allocated, "bytes allocated by the game with seed " + seed);
+            Board board = this.engine.getBoard();
+            for (int index = 0; index < board.getSize(); index++) {
+                Tile expected = board.isMine(index) ? Tile.FLAG : Tile.number(board.getAdjacentMines(index));
+                assertEquals(expected, this.view.tiles[index], "space " + index + " of the game with seed " + seed);
+            }
+        }
+    }
+
+    /**
+     * Starts a game the way the controller does and makes its first click.
+     */
+    private void start(long seed) {
+        this.engine.newGame(ROWS, COLS, MINES, seed);
+        this.solver.reset(this.engine.getBoard());
+        this.recorder.reset(this.now);
+        this.view.reset();
+        this.input.apply(this.input.click(CENTER, this.now));
+    }
+
+    /**
+     * Wins a started game with every kind of move: flags that are placed, removed and placed again,
+     * chords on every revealed number and reveals of the spaces left.
+     */
+    private void finish() {
+        Board board = this.engine.getBoard();
+        IntList mines = this.engine.getMineIndices();
+        for (int k = 0; k < mines.size(); k++) {
+            for (int toggle = 0; toggle < 3; toggle++) {
+                this.input.apply(this.input.toggleFlag(mines.get(k), ++this.now));
+            }
+        }
+        for (int index = 0; index < board.getSize(); index++) {
+            if (board.isRevealed(index)) {
+                this.input.apply(this.input.click(index, ++this.now));
+            }
+        }
+        for (int index = 0; index < board.getSize(); index++) {
+            if (!board.isMine(index)) {
+                this.input.apply(this.input.click(index, ++this.now));
+            }
+        }
+    }
+}
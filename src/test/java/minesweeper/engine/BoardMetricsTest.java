@@ -0,0 +1,88 @@
+package minesweeper.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the 3BV and openings of boards built by hand against counts worked out on paper.
+ */
+class BoardMetricsTest {
+    private final BoardMetrics metrics = new BoardMetrics();
+
+    @Test
+    void openingsOnBothSidesOfAMine() {
+        // 0 1 * 1 0: two openings that each reveal their number
+        Board board = board(new String[]{
+                "..*.."
+        });
+        this.metrics.compute(board);
+        assertEquals(2, this.metrics.getOpenings());
+        assertEquals(2, this.metrics.getBbbv());
+    }
+
+    @Test
+    void numbersWithoutAnOpeningCountOneEach() {
+        Board board = board(new String[]{
+                "...",
+                ".*.",
+                "..."
+        });
+        this.metrics.compute(board);
+        assertEquals(0, this.metrics.getOpenings());
+        assertEquals(8, this.metrics.getBbbv());
+        assertTrue(this.metrics.getZini() <= this.metrics.getBbbv());
+    }
+
+    @Test
+    void openingsAndIsolatedNumbers() {
+        // 0 0 1 * 1
+        // 0 0 2 2 2
+        // 1 1 1 * 1
+        // * 1 1 1 1
+        // One opening reveals the four 0s and the five numbers around them, which leaves eight numbers to click
+        Board board = board(new String[]{
+                "...*.",
+                ".....",
+                "...*.",
+                "*...."
+        });
+        this.metrics.compute(board);
+        assertEquals(1, this.metrics.getOpenings());
+        assertEquals(9, this.metrics.getBbbv());
+        assertTrue(this.metrics.getZini() <= this.metrics.getBbbv());
+    }
+
+    @Test
+    void solvedBbbvCountsOnlyWhatWasRevealed() {
+        Board board = board(new String[]{
+                "..*.."
+        });
+        board.setRevealed(0, true);
+        board.setRevealed(1, true);
+        this.metrics.compute(board);
+        assertEquals(2, this.metrics.getBbbv());
+        assertEquals(1, this.metrics.getSolvedBbbv());
+        assertEquals(0.5, this.metrics.getEfficiency(2));
+        assertEquals(0.5, this.metrics.getBbbvPerSecond(2000));
+    }
+
+    /**
+     * Builds a board from rows of '*' for mines and '.' for safe spaces.
+     */
+    private static Board board(String[] rows) {
+        Board board = new Board(rows.length, rows[0].length());
+        IntList mines = new IntList();
+        for (int row = 0; row < rows.length; row++) {
+            for (int col = 0; col < rows[row].length(); col++) {
+                if (rows[row].charAt(col) == '*') {
+                    board.setMine(board.index(row, col), true);
+                    mines.add(board.index(row, col));
+                }
+            }
+        }
+        board.computeAdjacentMines(mines);
+        return board;
+    }
+}
@@ -0,0 +1,142 @@
+package minesweeper.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that an endless board plays the same whether its chunks stay in memory or keep being written to the store
+ * file and read back, and that a store file resumes on the same board, even when the game was never closed.
+ */
+class ChunkedBoardTest {
+    private static final long SEED = 23;
+    private static final int MOVES = 145_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void smallCacheAndResumePlayLikeAnUnboundedCache() throws IOException {
+        Path file = this.dir.resolve("small.dat");
+        Walk walk = new Walk(new SplittableRandom(7), MOVES);
+        try (ChunkedBoard unbounded = ChunkedBoard.open(this.dir.resolve("unbounded.dat"), SEED, ChunkedBoard.DEFAULT_MINES_PER_CHUNK, 1 << 16)) {
+            try (ChunkedBoard small = ChunkedBoard.open(file, SEED, ChunkedBoard.DEFAULT_MINES_PER_CHUNK, 9)) {
+                walk.play(small, unbounded, 0, MOVES);
+                assertTrue(small.getStoredChunks() > 9 * 10, "chunks written to the store: " + small.getStoredChunks());
+                assertSameGame(unbounded, small, walk, MOVES, "after playing");
+            }
+
+            // The seed and the mine count of a resumed game come from the file
+            try (ChunkedBoard resumed = ChunkedBoard.open(file, SEED + 1, ChunkedBoard.MAX_MINES_PER_CHUNK, 9)) {
+                assertSameGame(unbounded, resumed, walk, MOVES, "after resuming");
+                Walk more = new Walk(new SplittableRandom(8), 5_000).from(walk);
+                more.play(resumed, unbounded, 0, 5_000);
+                assertSameGame(unbounded, resumed, more, 5_000, "after playing on");
+            }
+        }
+    }
+
+    @Test
+    void storeLeftByACrashResumesOnTheSameBoard() throws IOException {
+        Path file = this.dir.resolve("crash.dat");
+        Walk walk = new Walk(new SplittableRandom(9), MOVES);
+        try (ChunkedBoard board = ChunkedBoard.open(file, SEED, ChunkedBoard.DEFAULT_MINES_PER_CHUNK, 9)) {
+            int moves = 0;
+            while (board.getStoredChunks() < 20) {
+                walk.play(board, null, moves, moves + 100);
+                moves += 100;
+            }
+
+            // Open the file while the game is still running, as if it had crashed without closing the store
+            try (ChunkedBoard crashed = ChunkedBoard.open(file, SEED + 1, ChunkedBoard.MAX_MINES_PER_CHUNK, 9)) {
+                assertEquals(GameStatus.PLAYING, crashed.getStatus());
+                assertEquals(board.getStartRow(), crashed.getStartRow());
+                assertEquals(board.getStartCol(), crashed.getStartCol());
+                for (int move = 0; move < moves; move++) {
+                    int row = walk.rows[move];
+                    int col = walk.cols[move];
+                    String message = "space " + row + ", " + col;
+                    assertEquals(board.get(row, col) & Board.MINE, crashed.get(row, col) & Board.MINE, message);
+                    // Only the chunks that were dropped from memory are in the store, so the crashed game may be behind
+                    assertTrue(!crashed.isRevealed(row, col) || board.isRevealed(row, col), message);
+                }
+            }
+        }
+    }
+
+    private static void assertSameGame(ChunkedBoard expected, ChunkedBoard actual, Walk walk, int moves, String message) {
+        assertEquals(expected.getStatus(), actual.getStatus(), message);
+        assertEquals(expected.getRevealedSpaces(), actual.getRevealedSpaces(), message);
+        assertEquals(expected.getFlaggedSpaces(), actual.getFlaggedSpaces(), message);
+        assertEquals(expected.getStartRow(), actual.getStartRow(), message);
+        assertEquals(expected.getStartCol(), actual.getStartCol(), message);
+        for (int move = 0; move < moves; move++) {
+            for (int i = walk.rows[move] - 1; i <= walk.rows[move] + 1; i++) {
+                for (int j = walk.cols[move] - 1; j <= walk.cols[move] + 1; j++) {
+                    assertEquals(expected.get(i, j), actual.get(i, j), message + ", space " + i + ", " + j);
+                }
+            }
+        }
+    }
+
+    /**
+     * A random walk away from the start, like the one of {@link ChunkedBoard#main(String[])}, so chunks keep being
+     * created and dropped. Every move reveals a space without a mine, flags a mine or chords a revealed number,
+     * so the game goes on.
+     */
+    private static final class Walk {
+        private final SplittableRandom random;
+        private final int[] rows;
+        private final int[] cols;
+        private int row = 0;
+        private int col = 0;
+
+        private Walk(SplittableRandom random, int moves) {
+            this.random = random;
+            this.rows = new int[moves];
+            this.cols = new int[moves];
+        }
+
+        private Walk from(Walk walk) {
+            this.row = walk.row;
+            this.col = walk.col;
+            return this;
+        }
+
+        /**
+         * Makes the moves from {@code first} up to {@code last} on the board, and the same moves on the other board
+         * if there is one, checking that both change the same number of spaces.
+         */
+        private void play(ChunkedBoard board, ChunkedBoard other, int first, int last) {
+            for (int move = first; move < last; move++) {
+                this.row += this.random.nextInt(-40, 41);
+                this.col += this.random.nextInt(-40, 41);
+                this.rows[move] = this.row;
+                this.cols[move] = this.col;
+                int state = board.get(this.row, this.col);
+                long changed;
+                long otherChanged;
+                if ((state & Board.REVEALED) != 0) {
+                    changed = board.chord(this.row, this.col);
+                    otherChanged = other == null ? changed : other.chord(this.row, this.col);
+                }
+                else if ((state & Board.MINE) != 0 && board.getStatus() == GameStatus.PLAYING) {
+                    changed = board.toggleFlag(this.row, this.col) ? 1 : 0;
+                    otherChanged = other == null ? changed : other.toggleFlag(this.row, this.col) ? 1 : 0;
+                }
+                else {
+                    changed = board.reveal(this.row, this.col);
+                    otherChanged = other == null ? changed : other.reveal(this.row, this.col);
+                }
+                assertEquals(changed, otherChanged, "move " + move + " at " + this.row + ", " + this.col);
+            }
+            assertEquals(GameStatus.PLAYING, board.getStatus());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package minesweeper.engine;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the index based input paths of a reused {@link GameEngine} allocate nothing once it has warmed up.
+ */
+class GameEngineAllocationTest {
+    private static final int ROWS = 16;
+    private static final int COLS = 30;
+    private static final int MINES = 99;
+    private static final int CENTER = (ROWS / 2) * COLS + COLS / 2;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeAll
+    static void enableAllocationCounting() {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    void clickFlagAndChordByIndexDoNotAllocate() {
+        GameEngine engine = new GameEngine(ROWS, COLS, MINES, 0);
+        // Grow the reused buffers and let the JIT compile the paths before measuring
+        for (long seed = 0; seed < 2000; seed++) {
+            play(engine, seed);
+        }
+
+        for (long seed = 2000; seed < 2100; seed++) {
+            engine.newGame(ROWS, COLS, MINES, seed);
+            engine.click(CENTER); // Places the mines, which seeds a new random generator
+            long before = threads.getCurrentThreadAllocatedBytes();
+            finish(engine);
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+            assertEquals(GameStatus.WON, engine.getStatus());
+            assertEquals(0, allocated, "bytes allocated by the game with seed " + seed);
+        }
+    }
+
+    private static void play(GameEngine engine, long seed) {
+        engine.newGame(ROWS, COLS, MINES, seed);
+        engine.click(CENTER);
+        finish(engine);
+    }
+
+    /**
+     * Wins a started game with every kind of move: flags that are placed, removed and placed again,
+     * chords on every revealed number and reveals of the spaces left.
+     */
+    private static void finish(GameEngine engine) {
+        Board board = engine.getBoard();
+        IntList mines = engine.getMineIndices();
+        for (int k = 0; k < mines.size(); k++) {
+            engine.toggleFlag(mines.get(k));
+            engine.toggleFlag(mines.get(k));
+            engine.toggleFlag(mines.get(k));
+        }
+        for (int index = 0; index < board.getSize(); index++) {
+            if (board.isRevealed(index)) {
+                engine.chord(index);
+            }
+        }
+        for (int index = 0; index < board.getSize(); index++) {
+            if (!board.isMine(index)) {
+                engine.click(index);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package minesweeper.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that undo restores the state before each action and redo the state after it.
+ */
+class GameEngineUndoTest {
+    private record State(byte[] cells, int revealed, int flagged, GameStatus status, BitSet flags) {
+        static State of(GameEngine engine) {
+            return new State(engine.getBoard().copyCells(), engine.getRevealedSpaces(), engine.getFlaggedSpaces(),
+                    engine.getStatus(), (BitSet) engine.getFlags().clone());
+        }
+
+        void assertMatches(GameEngine engine, String message) {
+            State actual = of(engine);
+            assertArrayEquals(this.cells, actual.cells, message);
+            assertEquals(this.revealed, actual.revealed, message);
+            assertEquals(this.flagged, actual.flagged, message);
+            assertEquals(this.status, actual.status, message);
+            assertEquals(this.flags, actual.flags, message);
+        }
+    }
+
+    @Test
+    void undoAndRedoRoundTripEveryAction() {
+        SplittableRandom random = new SplittableRandom(25);
+        for (int game = 0; game < 500; game++) {
+            int rows = 1 + random.nextInt(20);
+            int cols = 1 + random.nextInt(20);
+            int mines = random.nextInt(Math.max(1, rows * cols - 9));
+            GameEngine engine = new GameEngine(rows, cols, mines, random.nextLong());
+            engine.setUndoEnabled(true);
+
+            List<State> states = new ArrayList<>();
+            states.add(State.of(engine));
+            for (int k = 0; k < 100 && !engine.getStatus().isFinished(); k++) {
+                int index = random.nextInt(rows * cols);
+                ChangeSet changes = random.nextInt(4) == 0 ? engine.toggleFlag(index) : engine.click(index);
+                if (!changes.isEmpty()) {
+                    states.add(State.of(engine));
+                }
+            }
+
+            int actions = states.size() - 1;
+            for (int i = actions - 1; i >= 0; i--) {
+                engine.undo();
+                states.get(i).assertMatches(engine, "game " + game + " after undoing to action " + i);
+            }
+            assertFalse(engine.canUndo());
+            assertTrue(engine.undo().isEmpty());
+            for (int i = 1; i <= actions; i++) {
+                engine.redo();
+                states.get(i).assertMatches(engine, "game " + game + " after redoing action " + i);
+            }
+            assertFalse(engine.canRedo());
+        }
+    }
+
+    @Test
+    void undoingTheFirstRevealRemovesTheMinesAndKeepsTheFlags() {
+        GameEngine engine = new GameEngine(16, 30, 99, 7);
+        engine.setUndoEnabled(true);
+        engine.toggleFlag(0);
+        State ready = State.of(engine);
+        engine.click(8 * 30 + 15);
+        State started = State.of(engine);
+
+        ChangeSet changes = engine.undo();
+        ready.assertMatches(engine, "after undoing the first reveal");
+        assertEquals(started.revealed(), changes.size());
+        assertNull(engine.getMineIndices());
+
+        engine.redo();
+        started.assertMatches(engine, "after redoing the first reveal");
+    }
+
+    @Test
+    void newActionForgetsUndoneActions() {
+        GameEngine engine = new GameEngine(9, 9, 10, 3);
+        engine.setUndoEnabled(true);
+        engine.click(40);
+        engine.toggleFlag(0);
+        engine.undo();
+        assertTrue(engine.canRedo());
+
+        engine.toggleFlag(1);
+        assertFalse(engine.canRedo());
+        engine.undo();
+        assertFalse(engine.getBoard().isFlagged(0));
+        assertFalse(engine.getBoard().isFlagged(1));
+    }
+
+    @Test
+    void undoIsOffByDefault() {
+        GameEngine engine = new GameEngine(9, 9, 10, 3);
+        engine.click(40);
+        byte[] cells = engine.getBoard().copyCells();
+        assertFalse(engine.canUndo());
+        assertTrue(engine.undo().isEmpty());
+        assertArrayEquals(cells, engine.getBoard().copyCells());
+    }
+}
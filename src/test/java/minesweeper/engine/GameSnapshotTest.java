@@ -0,0 +1,122 @@
+package minesweeper.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a written and read snapshot restores the same game, for board sizes that fill the last 64-space word
+ * of each bitmap exactly, partly or with a single space.
+ */
+class GameSnapshotTest {
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 4 + 8 + 4 + 1;
+
+    @Test
+    void restoredGamePlaysOnLikeTheOriginal() throws IOException {
+        SplittableRandom random = new SplittableRandom(24);
+        int[][] sizes = {{1, 1}, {8, 8}, {5, 13}, {7, 9}, {9, 9}, {16, 30}, {1, 127}, {31, 33}};
+        for (int game = 0; game < 400; game++) {
+            int[] size = sizes[game % sizes.length];
+            int rows = size[0];
+            int cols = size[1];
+            GameEngine engine = new GameEngine(rows, cols, random.nextInt(Math.max(1, rows * cols / 4)), random.nextLong());
+            play(engine, random, random.nextInt(20));
+
+            GameEngine restored = new GameEngine(0, 0, 0, 0);
+            restored.restore(roundTrip(engine.snapshot()));
+            assertSameGame(engine, restored, "game " + game + " on " + rows + "x" + cols);
+
+            // The mine list and counters are rebuilt too, so both games go on the same way
+            long seed = random.nextLong();
+            play(engine, new SplittableRandom(seed), 50);
+            play(restored, new SplittableRandom(seed), 50);
+            assertSameGame(engine, restored, "game " + game + " on " + rows + "x" + cols + " after playing on");
+        }
+    }
+
+    @Test
+    void lastPartialWordKeepsItsSpaces() throws IOException {
+        // 81 spaces: one full word and a last word of 17 spaces per bitmap
+        GameEngine engine = new GameEngine(9, 9, 10, 5);
+        engine.click(0);
+        int last = 80;
+        while (engine.getBoard().isRevealed(last)) {
+            last--;
+        }
+        engine.toggleFlag(last);
+
+        GameSnapshot snapshot = engine.snapshot();
+        byte[] data = write(snapshot);
+        assertEquals(HEADER_BYTES + 3 * 2 * Long.BYTES, data.length);
+
+        GameSnapshot read = GameSnapshot.readFrom(new DataInputStream(new ByteArrayInputStream(data)));
+        for (int index = 0; index < 81; index++) {
+            assertEquals(snapshot.get(index) & (Board.MINE | Board.REVEALED | Board.FLAGGED), read.get(index), "space " + index);
+        }
+        assertTrue((read.get(last) & Board.FLAGGED) != 0);
+    }
+
+    @Test
+    void readyGameHasNoMineBitmap() throws IOException {
+        GameEngine engine = new GameEngine(16, 30, 99, 3);
+        engine.toggleFlag(479);
+        byte[] data = write(engine.snapshot());
+        assertEquals(HEADER_BYTES + 2 * 8 * Long.BYTES, data.length);
+
+        GameEngine restored = new GameEngine(0, 0, 0, 0);
+        restored.restore(GameSnapshot.readFrom(new DataInputStream(new ByteArrayInputStream(data))));
+        assertEquals(GameStatus.READY, restored.getStatus());
+        assertTrue(restored.getBoard().isFlagged(479));
+    }
+
+    @Test
+    void readFromRejectsOtherData() {
+        byte[] data = new byte[HEADER_BYTES];
+        assertThrows(IOException.class, () -> GameSnapshot.readFrom(new DataInputStream(new ByteArrayInputStream(data))));
+    }
+
+    /**
+     * Clicks and flags random spaces until the game ends or the moves run out.
+     */
+    private static void play(GameEngine engine, SplittableRandom random, int moves) {
+        int size = engine.getBoard().getSize();
+        for (int k = 0; k < moves && !engine.getStatus().isFinished(); k++) {
+            int index = random.nextInt(size);
+            if (random.nextInt(4) == 0) {
+                engine.toggleFlag(index);
+            } else {
+                engine.click(index);
+            }
+        }
+    }
+
+    private static void assertSameGame(GameEngine expected, GameEngine actual, String message) {
+        assertArrayEquals(expected.getBoard().copyCells(), actual.getBoard().copyCells(), message);
+        assertEquals(expected.getStatus(), actual.getStatus(), message);
+        assertEquals(expected.getRevealedSpaces(), actual.getRevealedSpaces(), message);
+        assertEquals(expected.getFlaggedSpaces(), actual.getFlaggedSpaces(), message);
+        assertEquals(expected.getFlags(), actual.getFlags(), message);
+        assertEquals(expected.getSeed(), actual.getSeed(), message);
+        assertEquals(expected.getSafeIndex(), actual.getSafeIndex(), message);
+    }
+
+    private static GameSnapshot roundTrip(GameSnapshot snapshot) throws IOException {
+        return GameSnapshot.readFrom(new DataInputStream(new ByteArrayInputStream(write(snapshot))));
+    }
+
+    private static byte[] write(GameSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        snapshot.writeTo(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,169 @@
+package minesweeper.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a {@link MappedBoard} places exactly the requested mines outside the safe zone, follows the same
+ * reveal, flag and chord rules as the {@link GameEngine}, and plays on the same way after being closed and opened.
+ */
+class MappedBoardTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void placesExactlyTheRequestedMines() throws IOException {
+        SplittableRandom random = new SplittableRandom(22);
+        // Single tiles, partial edge tiles and several rows of tiles, from empty to as dense as allowed
+        int[][] sizes = {{1, 1, 0}, {3, 3, 0}, {4, 4, 7}, {10, 10, 20}, {64, 64, 500}, {65, 129, 2000}, {200, 150, 6000},
+                {130, 70, 9000}, {2, 300, 594}};
+        int file = 0;
+        for (int[] size : sizes) {
+            for (int game = 0; game < 5; game++) {
+                int rows = size[0];
+                int cols = size[1];
+                long first = random.nextLong((long) rows * cols);
+                try (MappedBoard board = MappedBoard.create(this.dir.resolve("mines" + file++ + ".msb"), rows, cols, size[2], random.nextLong())) {
+                    board.reveal(first);
+                    String message = rows + "x" + cols + " with " + size[2] + " mines, first click " + first;
+                    assertEquals(size[2], countMines(board), message);
+                    int firstRow = (int) (first / cols);
+                    int firstCol = (int) (first % cols);
+                    for (int row = Math.max(firstRow - 1, 0); row <= Math.min(firstRow + 1, rows - 1); row++) {
+                        for (int col = Math.max(firstCol - 1, 0); col <= Math.min(firstCol + 1, cols - 1); col++) {
+                            assertEquals(0, board.get(board.index(row, col)) & Board.MINE, message + ", safe zone " + row + ", " + col);
+                        }
+                    }
+                    assertRules(board, message);
+                }
+            }
+        }
+    }
+
+    @Test
+    void reopenedBoardPlaysOnLikeTheOriginal() throws IOException {
+        SplittableRandom random = new SplittableRandom(23);
+        for (int game = 0; game < 40; game++) {
+            int rows = 1 + random.nextInt(150);
+            int cols = 1 + random.nextInt(150);
+            long maxMines = (long) rows * cols - (long) Math.min(rows, 3) * Math.min(cols, 3);
+            long mines = random.nextLong(maxMines / 4 + 1);
+            long seed = random.nextLong();
+            Path reopened = this.dir.resolve("reopened" + game + ".msb");
+            String message = "game " + game + " on " + rows + "x" + cols + " with " + mines + " mines";
+
+            // The same moves on a board that stays open and on one that is closed and opened between moves
+            try (MappedBoard original = MappedBoard.create(this.dir.resolve("original" + game + ".msb"), rows, cols, mines, seed)) {
+                MappedBoard copy = MappedBoard.create(reopened, rows, cols, mines, seed);
+                try {
+                    for (int move = 0; move < 200 && !original.getStatus().isFinished(); move++) {
+                        long index = random.nextLong(original.getSize());
+                        int type = random.nextInt(4);
+                        assertEquals(play(original, type, index), play(copy, type, index), message + ", move " + move);
+                        if (random.nextInt(10) == 0) {
+                            copy.close();
+                            copy = MappedBoard.open(reopened);
+                            assertSameBoard(original, copy, message + ", reopened after move " + move);
+                        }
+                    }
+                }
+                finally {
+                    copy.close();
+                }
+                assertRules(original, message);
+            }
+            try (MappedBoard copy = MappedBoard.open(reopened);
+                 MappedBoard original = MappedBoard.open(this.dir.resolve("original" + game + ".msb"))) {
+                assertSameBoard(original, copy, message + ", reopened at the end");
+            }
+        }
+    }
+
+    @Test
+    void createRejectsBoardsThatDoNotFit() {
+        assertThrows(IllegalArgumentException.class, () -> MappedBoard.create(this.dir.resolve("a.msb"), 0, 10, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> MappedBoard.create(this.dir.resolve("b.msb"), 10, MappedBoard.MAX_SIDE + 1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> MappedBoard.create(this.dir.resolve("c.msb"), 3, 3, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> MappedBoard.create(this.dir.resolve("d.msb"), 10, 10, 92, 1));
+    }
+
+    /**
+     * Makes the move the type picks and returns how many spaces it changed. Half of the reveals skip mines,
+     * so games get far enough to chord.
+     */
+    private static long play(MappedBoard board, int type, long index) {
+        return switch (type) {
+            case 0 -> board.toggleFlag(index) ? 1 : 0;
+            case 1 -> board.chord(index);
+            case 2 -> board.reveal(index);
+            default -> (board.get(index) & Board.MINE) == 0 ? board.reveal(index) : 0;
+        };
+    }
+
+    private static long countMines(MappedBoard board) {
+        long count = 0;
+        for (long index = 0; index < board.getSize(); index++) {
+            count += (board.get(index) & Board.MINE) != 0 ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Checks the board against the rules: adjacent mine counts match the mines, every revealed space without
+     * adjacent mines has opened its unflagged neighbors, and the counters match the spaces.
+     */
+    private static void assertRules(MappedBoard board, String message) {
+        int rows = board.getRows();
+        int cols = board.getCols();
+        long revealed = 0;
+        long flagged = 0;
+        boolean revealedMine = false;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int state = board.get(board.index(row, col));
+                int adjacent = 0;
+                boolean opened = true;
+                for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+                    for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                        int neighbor = board.get(board.index(i, j));
+                        adjacent += (i != row || j != col) && (neighbor & Board.MINE) != 0 ? 1 : 0;
+                        opened &= (neighbor & (Board.REVEALED | Board.FLAGGED)) != 0;
+                    }
+                }
+                String space = message + ", space " + row + ", " + col;
+                if (board.getStatus() != GameStatus.READY) {
+                    assertEquals(adjacent, state & Board.ADJACENT_MASK, space);
+                }
+                if ((state & Board.REVEALED) != 0 && (state & Board.MINE) == 0) {
+                    revealed++;
+                    assertTrue(adjacent != 0 || opened, space + " has covered neighbors");
+                }
+                revealedMine |= (state & Board.REVEALED) != 0 && (state & Board.MINE) != 0;
+                flagged += (state & Board.FLAGGED) != 0 ? 1 : 0;
+            }
+        }
+        assertEquals(revealed, board.getRevealedSpaces(), message);
+        assertEquals(flagged, board.getFlaggedSpaces(), message);
+        assertEquals(revealedMine, board.getStatus() == GameStatus.LOST, message);
+        assertEquals(board.getStatus() == GameStatus.WON, revealed == board.getSize() - board.getMines() && !revealedMine, message);
+    }
+
+    private static void assertSameBoard(MappedBoard expected, MappedBoard actual, String message) {
+        assertEquals(expected.getStatus(), actual.getStatus(), message);
+        assertEquals(expected.getRevealedSpaces(), actual.getRevealedSpaces(), message);
+        assertEquals(expected.getFlaggedSpaces(), actual.getFlaggedSpaces(), message);
+        assertEquals(expected.getMines(), actual.getMines(), message);
+        assertEquals(expected.getSize(), actual.getSize(), message);
+        for (long index = 0; index < expected.getSize(); index++) {
+            assertEquals(expected.get(index), actual.get(index), message + ", space " + index);
+        }
+    }
+}
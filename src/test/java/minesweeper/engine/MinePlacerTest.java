@@ -0,0 +1,91 @@
+package minesweeper.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that sparse and dense placement both match a plain Fisher-Yates shuffle over the free spaces,
+ * with one placer reused between boards of every size and density.
+ */
+class MinePlacerTest {
+    @Test
+    void matchesAFullShuffleAtEveryDensity() {
+        SplittableRandom random = new SplittableRandom(5);
+        MinePlacer placer = new MinePlacer();
+        for (int k = 0; k < 2000; k++) {
+            int rows = 1 + random.nextInt(40);
+            int cols = 1 + random.nextInt(40);
+            int safeRow = random.nextInt(rows);
+            int safeCol = random.nextInt(cols);
+            Board board = new Board(rows, cols);
+            int eligible = board.getSize() - safeZone(board, safeRow, safeCol).length;
+            // Mostly sparse boards, with dense and full ones mixed in so both paths reuse their buffers
+            int mines = random.nextInt(4) == 0 ? random.nextInt(eligible + 1) : random.nextInt(eligible / 10 + 1);
+            long seed = random.nextLong();
+
+            IntList placed = placer.place(board, mines, safeRow, safeCol, new SplittableRandom(seed));
+            int[] expected = shuffle(board, mines, safeRow, safeCol, new SplittableRandom(seed));
+            assertArrayEquals(expected, placed.toArray(), rows + "x" + cols + " with " + mines + " mines");
+
+            Board reference = new Board(rows, cols);
+            IntList referenceMines = new IntList();
+            for (int index : expected) {
+                reference.setMine(index, true);
+                referenceMines.add(index);
+            }
+            reference.computeAdjacentMines(referenceMines);
+            assertArrayEquals(reference.copyCells(), board.copyCells());
+        }
+    }
+
+    @Test
+    void fillsEveryFreeSpace() {
+        // The safe zone of a corner has only 4 spaces
+        Board board = new Board(30, 30);
+        IntList placed = new MinePlacer().place(board, 900 - 4, 0, 0, new SplittableRandom(1));
+        assertEquals(896, placed.size());
+        for (int index = 0; index < board.getSize(); index++) {
+            boolean safe = board.row(index) <= 1 && board.col(index) <= 1;
+            assertEquals(!safe, board.isMine(index));
+        }
+    }
+
+    /**
+     * Places mines the simple way, with the same random draws as {@link MinePlacer}.
+     */
+    private static int[] shuffle(Board board, int mines, int safeRow, int safeCol, SplittableRandom random) {
+        int[] safe = safeZone(board, safeRow, safeCol);
+        int[] positions = new int[board.getSize() - safe.length];
+        int count = 0;
+        for (int index = 0; index < board.getSize(); index++) {
+            if (Arrays.binarySearch(safe, index) < 0) {
+                positions[count++] = index;
+            }
+        }
+
+        int[] picked = new int[mines];
+        for (int i = 0; i < mines; i++) {
+            int j = i + random.nextInt(positions.length - i);
+            picked[i] = positions[j];
+            positions[j] = positions[i];
+        }
+        return picked;
+    }
+
+    private static int[] safeZone(Board board, int safeRow, int safeCol) {
+        IntList safe = new IntList();
+        for (int i = safeRow - 1; i <= safeRow + 1; i++) {
+            for (int j = safeCol - 1; j <= safeCol + 1; j++) {
+                if (board.inBounds(i, j)) {
+                    safe.add(board.index(i, j));
+                }
+            }
+        }
+        return safe.toArray();
+    }
+}
@@ -0,0 +1,112 @@
+package minesweeper.replay;
+
+import minesweeper.engine.ChangeSet;
+import minesweeper.engine.GameEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that replays survive encoding and that playing one back, by time or by seeking, always ends on the board
+ * the game was recorded on.
+ */
+class ReplayTest {
+    @Test
+    void encodeAndDecodeRoundTrip() {
+        SplittableRandom random = new SplittableRandom(15);
+        for (int game = 0; game < 300; game++) {
+            // Mostly small boards, with some large ones so move distances and times need several varint bytes
+            boolean large = game % 10 == 0;
+            int rows = 1 + random.nextInt(large ? 500 : 30);
+            int cols = 1 + random.nextInt(large ? 500 : 30);
+            GameEngine engine = new GameEngine(rows, cols, random.nextInt(Math.max(1, rows * cols / 5)), random.nextLong());
+            Replay replay = record(engine, random, large ? 1_000_000 : 500);
+
+            Replay decoded = Replay.decode(replay.encode());
+            assertEquals(replay.getRows(), decoded.getRows());
+            assertEquals(replay.getCols(), decoded.getCols());
+            assertEquals(replay.getMines(), decoded.getMines());
+            assertEquals(replay.getSeed(), decoded.getSeed());
+            assertEquals(replay.getMoves(), decoded.getMoves());
+            for (int move = 0; move < replay.getMoves(); move++) {
+                assertEquals(replay.getType(move), decoded.getType(move), "game " + game + ", move " + move);
+                assertEquals(replay.getIndex(move), decoded.getIndex(move), "game " + game + ", move " + move);
+                assertEquals(replay.getTimeMillis(move), decoded.getTimeMillis(move), "game " + game + ", move " + move);
+            }
+            assertArrayEquals(engine.getBoard().copyCells(), decoded.seek(decoded.getMoves()).getBoard().copyCells());
+        }
+    }
+
+    @Test
+    void playerEndsOnTheRecordedBoard() {
+        SplittableRandom random = new SplittableRandom(16);
+        for (int game = 0; game < 200; game++) {
+            GameEngine engine = new GameEngine(16, 30, 99, random.nextLong());
+            Replay replay = Replay.decode(record(engine, random, 2000).encode());
+
+            // Advance by uneven steps, as the animation timer does
+            ReplayPlayer player = new ReplayPlayer(replay);
+            int[] played = new int[1];
+            for (long millis = 0; !player.isFinished(); millis += random.nextInt(5000)) {
+                player.advanceTo(millis, (move, changes) -> assertEquals(played[0]++, move));
+            }
+            assertEquals(replay.getMoves(), played[0]);
+            assertEquals(engine.getStatus(), player.getEngine().getStatus());
+            assertArrayEquals(engine.getBoard().copyCells(), player.getEngine().getBoard().copyCells());
+
+            // Seeking back restarts the board, and playing forward again reaches the same state
+            int middle = random.nextInt(replay.getMoves() + 1);
+            player.seek(middle);
+            assertEquals(middle, player.getPosition());
+            assertArrayEquals(replay.seek(middle).getBoard().copyCells(), player.getEngine().getBoard().copyCells());
+            player.seek(Integer.MAX_VALUE);
+            assertTrue(player.isFinished());
+            assertArrayEquals(engine.getBoard().copyCells(), player.getEngine().getBoard().copyCells());
+        }
+    }
+
+    @Test
+    void decodeRejectsBadData() {
+        GameEngine engine = new GameEngine(9, 9, 10, 1);
+        byte[] data = record(engine, new SplittableRandom(1), 100).encode();
+
+        for (int length = 0; length < data.length; length++) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(IllegalArgumentException.class, () -> Replay.decode(truncated), "truncated to " + length);
+        }
+        byte[] badMagic = data.clone();
+        badMagic[0] = 'X';
+        assertThrows(IllegalArgumentException.class, () -> Replay.decode(badMagic));
+        byte[] badVersion = data.clone();
+        badVersion[3] = 99;
+        assertThrows(IllegalArgumentException.class, () -> Replay.decode(badVersion));
+    }
+
+    /**
+     * Plays random reveals, flags and chords until the game ends, recording the ones the engine accepts like the
+     * controller does.
+     */
+    private static Replay record(GameEngine engine, SplittableRandom random, int maxGapMillis) {
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.reset(0);
+        long now = 0;
+        int size = engine.getBoard().getSize();
+        for (int k = 0; k < 400 && !engine.getStatus().isFinished(); k++) {
+            int index = random.nextInt(size);
+            now += random.nextInt(maxGapMillis);
+            int type = random.nextInt(5) == 0 ? Replay.FLAG
+                    : engine.getBoard().isRevealed(index) ? Replay.CHORD : Replay.REVEAL;
+            ChangeSet changes = type == Replay.FLAG ? engine.toggleFlag(index) : engine.click(index);
+            if (!changes.isEmpty()) {
+                recorder.record(type, index, now);
+            }
+        }
+        return recorder.finish(engine);
+    }
+}
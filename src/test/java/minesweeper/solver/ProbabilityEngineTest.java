@@ -0,0 +1,130 @@
+package minesweeper.solver;
+
+import minesweeper.engine.Board;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the {@link ProbabilityEngine} against every placement of the remaining mines on small boards, weighting
+ * each frontier assignment by the number of ways to place the rest of the mines off the frontier.
+ */
+class ProbabilityEngineTest {
+    private static final int MAX_FRONTIER = 18;
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    void matchesBruteForceEnumeration() {
+        SplittableRandom random = new SplittableRandom(9);
+        Solver solver = new Solver();
+        ProbabilityEngine engine = new ProbabilityEngine(ForkJoinPool.commonPool(), ProbabilityEngine.NO_TIME_LIMIT);
+        int checked = 0;
+        while (checked < 300) {
+            int rows = 4 + random.nextInt(5);
+            int cols = 4 + random.nextInt(5);
+            // Dense boards too, where the mine count left for the interior changes the frontier probabilities
+            int mines = 1 + random.nextInt(rows * cols / 2);
+            Board board = SolverTest.randomPosition(rows, cols, mines, random);
+            int[] frontier = SolverTest.frontier(board);
+            if (frontier.length == 0 || frontier.length > MAX_FRONTIER) {
+                continue;
+            }
+
+            solver.reset(board);
+            solver.rescan();
+            solver.solve();
+            int totalMines = countMines(board);
+            Probabilities probabilities = engine.compute(board, solver, totalMines);
+            assertTrue(probabilities.isExact());
+
+            double[] expected = new double[frontier.length + 1];
+            bruteForce(board, frontier, totalMines, expected);
+            for (int v = 0; v < frontier.length; v++) {
+                assertEquals(expected[v], probabilities.get(frontier[v]), TOLERANCE, "position " + checked + ", space " + frontier[v]);
+            }
+            for (int index = 0; index < board.getSize(); index++) {
+                if (!board.isRevealed(index) && SolverTest.revealedNeighbors(board, index) == 0) {
+                    assertEquals(expected[frontier.length], probabilities.get(index), TOLERANCE, "position " + checked + ", interior");
+                }
+            }
+            checked++;
+        }
+    }
+
+    @Test
+    void stateLimitFallsBackToAnEstimate() {
+        SplittableRandom random = new SplittableRandom(7);
+        Solver solver = new Solver();
+        ProbabilityEngine limited = new ProbabilityEngine(ForkJoinPool.commonPool(), ProbabilityEngine.NO_TIME_LIMIT, 1);
+        boolean estimated = false;
+        for (int k = 0; k < 100 && !estimated; k++) {
+            Board board = SolverTest.randomPosition(16, 30, 99, random);
+            solver.reset(board);
+            solver.rescan();
+            solver.solve();
+            Probabilities probabilities = limited.compute(board, solver, countMines(board));
+            estimated = !probabilities.isExact();
+            for (int index = 0; index < board.getSize(); index++) {
+                double probability = probabilities.get(index);
+                assertFalse(probability < 0 || probability > 1 || Double.isNaN(probability), "space " + index);
+            }
+        }
+        assertTrue(estimated);
+    }
+
+    private static int countMines(Board board) {
+        int count = 0;
+        for (int index = 0; index < board.getSize(); index++) {
+            count += board.isMine(index) ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Computes the mine probability of each frontier space, and of any space off the frontier in the last slot, by
+     * going through every assignment of the frontier.
+     */
+    private static void bruteForce(Board board, int[] frontier, int totalMines, double[] probabilities) {
+        int interior = 0;
+        for (int index = 0; index < board.getSize(); index++) {
+            if (!board.isRevealed(index)) {
+                interior++;
+            }
+        }
+        interior -= frontier.length;
+
+        double total = 0;
+        boolean[] mine = new boolean[board.getSize()];
+        for (int assignment = 0; assignment < 1 << frontier.length; assignment++) {
+            for (int v = 0; v < frontier.length; v++) {
+                mine[frontier[v]] = (assignment >> v & 1) != 0;
+            }
+            int rest = totalMines - Integer.bitCount(assignment);
+            if (rest < 0 || rest > interior || !SolverTest.consistent(board, mine)) {
+                continue;
+            }
+            double ways = binomial(interior, rest);
+            total += ways;
+            for (int v = 0; v < frontier.length; v++) {
+                probabilities[v] += mine[frontier[v]] ? ways : 0;
+            }
+            probabilities[frontier.length] += interior == 0 ? 0 : ways * rest / interior;
+        }
+        for (int v = 0; v < probabilities.length; v++) {
+            probabilities[v] /= total;
+        }
+    }
+
+    private static double binomial(int n, int k) {
+        double result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,213 @@
+package minesweeper.solver;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.ChangeSet;
+import minesweeper.engine.GameEngine;
+import minesweeper.engine.IntList;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the deductions of the {@link Solver} against every assignment of mines that fits the revealed numbers.
+ */
+class SolverTest {
+    private static final int MAX_FRONTIER = 20;
+
+    @Test
+    void deductionsHoldForEveryConsistentAssignment() {
+        SplittableRandom random = new SplittableRandom(8);
+        Solver solver = new Solver();
+        int checked = 0;
+        int deductions = 0;
+        while (checked < 400) {
+            int rows = 4 + random.nextInt(5);
+            int cols = 4 + random.nextInt(5);
+            int mines = 1 + random.nextInt(rows * cols / 3);
+            Board board = randomPosition(rows, cols, mines, random);
+            int[] frontier = frontier(board);
+            if (frontier.length == 0 || frontier.length > MAX_FRONTIER) {
+                continue;
+            }
+
+            solver.reset(board);
+            solver.rescan();
+            solver.solve();
+            int[] mineCounts = new int[frontier.length];
+            int solutions = enumerate(board, frontier, mineCounts);
+            for (int v = 0; v < frontier.length; v++) {
+                int index = frontier[v];
+                if (solver.isMine(index)) {
+                    assertEquals(solutions, mineCounts[v], "space " + index + " deduced a mine");
+                    deductions++;
+                }
+                if (solver.isSafe(index)) {
+                    assertEquals(0, mineCounts[v], "space " + index + " deduced safe");
+                    deductions++;
+                }
+            }
+            checked++;
+        }
+        assertTrue(deductions > 0);
+    }
+
+    @Test
+    void solveReachesAFixpoint() {
+        // Play Expert games as the automatic player does, but guess with knowledge of the mines so every game
+        // goes on to the end, and check that solving again after each move finds nothing new
+        SplittableRandom random = new SplittableRandom(80);
+        Solver solver = new Solver();
+        for (int game = 0; game < 300; game++) {
+            GameEngine engine = new GameEngine(16, 30, 99, random.nextLong());
+            Board board = engine.getBoard();
+            solver.reset(board);
+            ChangeSet changes = engine.click(board.index(8, 15));
+            while (!engine.getStatus().isFinished()) {
+                solver.update(changes);
+                solver.solve();
+                BitSet safe = (BitSet) solver.getKnownSafe().clone();
+                BitSet mines = (BitSet) solver.getKnownMines().clone();
+                assertFalse(solver.solve(), "game " + game + " found more on a second call");
+                assertEquals(safe, solver.getKnownSafe());
+                assertEquals(mines, solver.getKnownMines());
+
+                int next = solver.nextSafe();
+                while (next < 0) {
+                    int index = random.nextInt(board.getSize());
+                    if (!board.isMine(index) && !board.isRevealed(index)) {
+                        next = index;
+                    }
+                }
+                changes = engine.reveal(next);
+            }
+        }
+    }
+
+    @Test
+    void largeComponentsAreLeftToTheLocalRules() {
+        // A revealed middle row with one mine above or below each column: the local rules are stuck, and the
+        // covered rows form a single component of 6000 variables, far too large to eliminate
+        SplittableRandom random = new SplittableRandom(3);
+        Board board = new Board(3, 3000);
+        IntList mines = new IntList();
+        for (int col = 0; col < board.getCols(); col++) {
+            int index = board.index(random.nextBoolean() ? 0 : 2, col);
+            board.setMine(index, true);
+            mines.add(index);
+        }
+        board.computeAdjacentMines(mines);
+        for (int col = 0; col < board.getCols(); col++) {
+            board.setRevealed(board.index(1, col), true);
+        }
+
+        Solver solver = new Solver();
+        solver.reset(board);
+        solver.rescan();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), solver::solve);
+        for (int index = 0; index < board.getSize(); index++) {
+            assertFalse(solver.isMine(index) && !board.isMine(index), "space " + index + " deduced a mine");
+            assertFalse(solver.isSafe(index) && board.isMine(index), "space " + index + " deduced safe");
+        }
+    }
+
+    /**
+     * Plays a few random safe reveals after the first click, without flags. Shared with the other solver tests.
+     */
+    static Board randomPosition(int rows, int cols, int mines, SplittableRandom random) {
+        GameEngine engine = new GameEngine(rows, cols, Math.min(mines, Math.max(0, rows * cols - 9)), random.nextLong());
+        Board board = engine.getBoard();
+        engine.click(random.nextInt(board.getSize()));
+        int reveals = random.nextInt(4);
+        for (int k = 0; k < 50 && reveals > 0; k++) {
+            int index = random.nextInt(board.getSize());
+            if (!board.isMine(index) && !board.isRevealed(index)) {
+                engine.reveal(index);
+                reveals--;
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Gets the covered spaces next to a revealed space.
+     */
+    static int[] frontier(Board board) {
+        int count = 0;
+        int[] cells = new int[board.getSize()];
+        for (int index = 0; index < board.getSize(); index++) {
+            if (!board.isRevealed(index) && revealedNeighbors(board, index) > 0) {
+                cells[count++] = index;
+            }
+        }
+        return Arrays.copyOf(cells, count);
+    }
+
+    static int revealedNeighbors(Board board, int index) {
+        int count = 0;
+        int row = board.row(index);
+        int col = board.col(index);
+        for (int i = row - 1; i <= row + 1; i++) {
+            for (int j = col - 1; j <= col + 1; j++) {
+                if (board.inBounds(i, j) && board.isRevealed(board.index(i, j))) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the assignments of mines to the frontier that match every revealed number, and how many of them
+     * put a mine on each frontier space.
+     */
+    private static int enumerate(Board board, int[] frontier, int[] mineCounts) {
+        int solutions = 0;
+        boolean[] mine = new boolean[board.getSize()];
+        for (int assignment = 0; assignment < 1 << frontier.length; assignment++) {
+            for (int v = 0; v < frontier.length; v++) {
+                mine[frontier[v]] = (assignment >> v & 1) != 0;
+            }
+            if (!consistent(board, mine)) {
+                continue;
+            }
+            solutions++;
+            for (int v = 0; v < frontier.length; v++) {
+                mineCounts[v] += mine[frontier[v]] ? 1 : 0;
+            }
+        }
+        return solutions;
+    }
+
+    /**
+     * Checks that a placement of mines matches every revealed number.
+     */
+    static boolean consistent(Board board, boolean[] mine) {
+        for (int index = 0; index < board.getSize(); index++) {
+            if (!board.isRevealed(index)) {
+                continue;
+            }
+            int count = 0;
+            int row = board.row(index);
+            int col = board.col(index);
+            for (int i = row - 1; i <= row + 1; i++) {
+                for (int j = col - 1; j <= col + 1; j++) {
+                    if (board.inBounds(i, j) && mine[board.index(i, j)]) {
+                        count++;
+                    }
+                }
+            }
+            if (count != board.getAdjacentMines(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}